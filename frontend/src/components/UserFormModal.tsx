@@ -20,6 +20,7 @@ export default function UserFormModal({ isOpen, user, onClose, onSave, isLoading
     phone: user?.phone || '',
     birthDay: user?.birthDay || '',
     gender: user?.gender || '',
+    subSystem: user?.subSystem || '',
     status: user?.status || 'ACTIVE',
     userRoles: user?.userRoles || [],
   }));
@@ -36,6 +37,7 @@ export default function UserFormModal({ isOpen, user, onClose, onSave, isLoading
         phone: user.phone || '',
         birthDay: user.birthDay || '',
         gender: user.gender || '',
+        subSystem: user.subSystem || '',
         status: user.status || 'ACTIVE',
         userRoles: user.userRoles || [],
       });
@@ -47,6 +49,7 @@ export default function UserFormModal({ isOpen, user, onClose, onSave, isLoading
         phone: '',
         birthDay: '',
         gender: '',
+        subSystem: '',
         status: 'ACTIVE',
         userRoles: [],
       });
@@ -218,6 +221,19 @@ export default function UserFormModal({ isOpen, user, onClose, onSave, isLoading
                 />
               </div>
 
+              {/* Sub system */}
+              <div>
+                <label className="block text-sm font-medium text-gray-700 mb-1">Phân hệ</label>
+                <input
+                  type="text"
+                  name="subSystem"
+                  value={formData.subSystem || ''}
+                  onChange={handleChange}
+                  className="w-full px-3 py-2 border border-gray-300 rounded-md text-sm focus:ring-2 focus:ring-blue-500 focus:border-blue-500"
+                  placeholder="Nhập phân hệ"
+                />
+              </div>
+
               {/* Birthday & Gender */}
               <div className="grid grid-cols-2 gap-4">
                 <div>
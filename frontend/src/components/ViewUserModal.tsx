@@ -66,6 +66,10 @@ export default function ViewUserModal({ isOpen, user, onClose, onEdit }: ViewUse
                   <label className="block text-sm font-medium text-gray-500">Số điện thoại</label>
                   <p className="mt-1 text-sm text-gray-900">{user.phone || '-'}</p>
                 </div>
+                <div>
+                  <label className="block text-sm font-medium text-gray-500">Phân hệ</label>
+                  <p className="mt-1 text-sm text-gray-900">{user.subSystem || '-'}</p>
+                </div>
                 <div>
                   <label className="block text-sm font-medium text-gray-500">Ngày sinh</label>
                   <p className="mt-1 text-sm text-gray-900">{formatDate(user.birthDay)}</p>
@@ -6,6 +6,7 @@ export interface User {
   phone: string | null;
   birthDay: string | null;
   gender: string | null;
+  subSystem: string | null;
   status: string;
   createdBy: string | null;
   createdTime: string | null;
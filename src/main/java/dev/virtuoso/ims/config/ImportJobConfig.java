@@ -0,0 +1,26 @@
+package dev.virtuoso.ims.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ImportJobConfig {
+
+    // Pool cố định + hàng đợi có giới hạn: import nặng không chiếm thread của Tomcat,
+    // và khi hàng đợi đầy thì từ chối ngay thay vì dồn vô hạn
+    @Bean(name = "importJobExecutor")
+    public ThreadPoolTaskExecutor importJobExecutor(
+            @Value("${ims.import.jobs.workers:2}") int workers,
+            @Value("${ims.import.jobs.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("user-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,37 +1,87 @@
 package dev.virtuoso.ims.config;
 
+import dev.virtuoso.ims.security.OfferUserDetailsService;
+import dev.virtuoso.ims.security.RbacAuthorizationEngine;
+import dev.virtuoso.ims.security.TrustedGatewayRequestMatcher;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManagers;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationProvider;
+import org.springframework.security.web.authentication.preauth.RequestHeaderAuthenticationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.List;
 
+import static dev.virtuoso.ims.security.RbacPermissions.*;
+
+@Slf4j
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, RbacAuthorizationEngine rbac,
+                                                   OfferUserDetailsService userDetailsService,
+                                                   @Value("${ims.security.user-header:X-Auth-User}") String userHeader,
+                                                   @Value("${ims.security.trusted-proxies:}") List<String> trustedProxies,
+                                                   @Value("${ims.security.gateway-secret-header:X-Gateway-Secret}") String secretHeader,
+                                                   @Value("${ims.security.gateway-secret:}") String gatewaySecret)
+            throws Exception {
+        TrustedGatewayRequestMatcher gateway = new TrustedGatewayRequestMatcher(trustedProxies, secretHeader, gatewaySecret);
+        if (!gateway.isConfigured()) {
+            log.warn("Chưa cấu hình ims.security.trusted-proxies/ims.security.gateway-secret: bỏ qua header {}, "
+                    + "không request nào được đăng nhập", userHeader);
+        }
+
         http
                 // 1. Tắt CSRF (Cross-Site Request Forgery)
                 // CSRF thường dùng cho Web Form, với API RESTful stateless thì nên tắt để Postman gọi được
                 .csrf(AbstractHttpConfigurer::disable)
 
+                // Đăng nhập qua SSO/API gateway: tên đăng nhập nằm trong header, không tạo session.
+                // Header chỉ được tin khi request đến từ gateway (IP tin cậy và/hoặc secret của gateway)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilter(userHeaderFilter(userHeader, gateway, userDetailsService))
+
                 // 2. Bật CORS
 //                .cors(Customizer.withDefaults())
 
                 // 3. Cấu hình quyền truy cập
                 .authorizeHttpRequests(auth -> auth
+                        // Quyền theo bảng RBAC (ims.rbac.enabled=true); khi tắt, rbac.require(...) cho qua tất cả
+                        .requestMatchers(HttpMethod.GET, "/api/users/export").access(rbac.require(USER_EXPORT))
+                        .requestMatchers("/api/users/upload/**", "/api/users/import-reports/**", "/api/users/import-jobs/**")
+                                .access(rbac.require(USER_IMPORT))
+                        .requestMatchers("/api/users/bulk/**").access(rbac.require(USER_BULK))
+                        .requestMatchers(HttpMethod.GET, "/api/users/**").access(rbac.require(USER_VIEW))
+                        .requestMatchers(HttpMethod.POST, "/api/users").access(rbac.require(USER_CREATE))
+                        .requestMatchers(HttpMethod.PUT, "/api/users/**").access(rbac.require(USER_UPDATE))
+                        .requestMatchers(HttpMethod.DELETE, "/api/users/**").access(rbac.require(USER_DELETE))
+                        // Quản trị RBAC luôn cần đăng nhập (kể cả khi tắt RBAC), bật thì cần thêm quyền RBAC_ADMIN
+                        .requestMatchers("/api/rbac/**").access(AuthorizationManagers.allOf(
+                                AuthenticatedAuthorizationManager.authenticated(), rbac.require(RBAC_ADMIN)))
+
                         // Cho phép tất cả mọi người truy cập vào các đường dẫn bắt đầu bằng /api/users/
                         .requestMatchers("/api/users/**").permitAll()
                         .requestMatchers("/api/interest/exportTemplate").permitAll()
+                        .requestMatchers("/api/interest/exportTemplate/cache-stats").permitAll()
+                        .requestMatchers("/api/interest/import").permitAll()
+                        .requestMatchers("/api/interest/reference-data/**").permitAll()
 
                         // Các đường dẫn khác (nếu có) vẫn yêu cầu đăng nhập
                         .anyRequest().authenticated()
@@ -40,12 +90,34 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // Không có header, request không đến từ gateway hoặc user không tồn tại/không ACTIVE
+    // thì request đi tiếp như chưa đăng nhập
+    private static RequestHeaderAuthenticationFilter userHeaderFilter(String userHeader,
+                                                                      TrustedGatewayRequestMatcher gateway,
+                                                                      OfferUserDetailsService userDetailsService) {
+        PreAuthenticatedAuthenticationProvider provider = new PreAuthenticatedAuthenticationProvider();
+        provider.setPreAuthenticatedUserDetailsService(userDetailsService);
+
+        RequestHeaderAuthenticationFilter filter = new RequestHeaderAuthenticationFilter() {
+            @Override
+            protected Object getPreAuthenticatedPrincipal(HttpServletRequest request) {
+                return gateway.matches(request) ? super.getPreAuthenticatedPrincipal(request) : null;
+            }
+        };
+        filter.setPrincipalRequestHeader(userHeader);
+        filter.setExceptionIfHeaderMissing(false);
+        filter.setAuthenticationManager(new ProviderManager(provider));
+        filter.setSecurityContextRepository(new RequestAttributeSecurityContextRepository());
+        return filter;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(List.of("http://localhost:5173"));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(List.of("*"));
+        // Không cho trình duyệt gửi header đăng nhập/secret của gateway (các header này do gateway đặt)
+        configuration.setAllowedHeaders(List.of("Content-Type", "Accept", "Authorization", "X-Requested-With"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
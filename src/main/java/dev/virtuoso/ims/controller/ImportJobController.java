@@ -0,0 +1,64 @@
+package dev.virtuoso.ims.controller;
+
+import dev.virtuoso.ims.dto.response.ImportJobStatus;
+import dev.virtuoso.ims.importer.ImportEngine;
+import dev.virtuoso.ims.importer.ImportJob;
+import dev.virtuoso.ims.importer.ImportPhase;
+import dev.virtuoso.ims.service.impl.ImportJobServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/users/import-jobs")
+@RequiredArgsConstructor
+public class ImportJobController {
+
+    private final ImportJobServiceImpl importJobService;
+
+    @PostMapping
+    public ResponseEntity<?> submit(@RequestParam("file") MultipartFile file,
+                                    @RequestParam(defaultValue = "JPA") ImportEngine engine) {
+        try {
+            ImportJob job = importJobService.submit(file, engine);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ImportJobStatus.from(job));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "Lỗi hệ thống: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getStatus(@PathVariable String id) {
+        return importJobService.findJob(id)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(ImportJobStatus.from(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/result")
+    public ResponseEntity<?> getResult(@PathVariable String id) {
+        ImportJob job = importJobService.findJob(id).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getPhase() != ImportPhase.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Job chưa hoàn thành (trạng thái: " + job.getPhase() + ")"));
+        }
+        return ResponseEntity.ok(job.getResult());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancel(@PathVariable String id) {
+        return importJobService.cancel(id)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(ImportJobStatus.from(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,58 @@
+package dev.virtuoso.ims.controller;
+
+import dev.virtuoso.ims.dto.response.ImportIssue;
+import dev.virtuoso.ims.importer.ImportReport;
+import dev.virtuoso.ims.service.impl.ImportReportServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+
+// Chi tiết lỗi của một lần import (importId lấy từ ImportResult)
+@RestController
+@RequestMapping("/api/users/import-reports")
+@RequiredArgsConstructor
+public class ImportReportController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final ImportReportServiceImpl importReportService;
+
+    // severity: ERROR | WARNING, bỏ trống để lấy cả hai
+    @GetMapping("/{id}/issues")
+    public ResponseEntity<?> getIssues(@PathVariable String id,
+                                       @RequestParam(required = false) String severity,
+                                       @RequestParam(defaultValue = "0") int page,
+                                       @RequestParam(defaultValue = "100") int size) {
+        ImportReport report = importReportService.findReport(id).orElse(null);
+        if (report == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Không tìm thấy kết quả import hoặc đã hết hạn"));
+        }
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+        Page<ImportIssue> issues = importReportService.getIssues(report, severity, pageable);
+        return ResponseEntity.ok(issues);
+    }
+
+    // File gốc kèm cột "Lỗi" ở cuối mỗi dòng lỗi, ghi thẳng ra response
+    @GetMapping("/{id}/annotated-file")
+    public ResponseEntity<?> downloadAnnotatedFile(@PathVariable String id) {
+        ImportReport report = importReportService.findReport(id).orElse(null);
+        if (report == null || !importReportService.hasAnnotatedWorkbook(report)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Không có file lỗi cho lần import này"));
+        }
+        StreamingResponseBody body = out -> importReportService.writeAnnotatedWorkbook(report, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=import_errors_" + id + ".xlsx")
+                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(body);
+    }
+}
@@ -1,15 +1,18 @@
 package dev.virtuoso.ims.controller;
 
 import dev.virtuoso.ims.dto.request.TemplateRequest;
+import dev.virtuoso.ims.dto.response.CacheStats;
+import dev.virtuoso.ims.dto.response.ReferenceDataStats;
 import dev.virtuoso.ims.service.InterestService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayInputStream;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/interest")
@@ -19,14 +22,41 @@ public class InterestController {
     private InterestService interestService;
 
     @PostMapping("/exportTemplate")
-    public ResponseEntity<InputStreamResource> exportTemplate(@RequestBody TemplateRequest request) {
-        ByteArrayInputStream in = interestService.generateInterestTemplate(request);
-
+    public ResponseEntity<StreamingResponseBody> exportTemplate(@RequestBody TemplateRequest request) {
         String filename = "interest_import_template.xlsx";
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
                 .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(new InputStreamResource(in));
+                .body(out -> interestService.writeInterestTemplate(request, out));
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<?> importInterestRates(@RequestParam("file") MultipartFile file) {
+        try {
+            return ResponseEntity.ok(interestService.importInterestRates(file));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "Lỗi hệ thống: " + e.getMessage()));
+        }
+    }
+
+    // Thống kê cache file template (hit/miss/coalesced)
+    @GetMapping("/exportTemplate/cache-stats")
+    public ResponseEntity<CacheStats> getTemplateCacheStats() {
+        return ResponseEntity.ok(interestService.getTemplateCacheStats());
+    }
+
+    // Thời điểm load và kích thước snapshot tham số lãi suất
+    @GetMapping("/reference-data")
+    public ResponseEntity<ReferenceDataStats> getReferenceDataStats() {
+        return ResponseEntity.ok(interestService.getReferenceDataStats());
+    }
+
+    // Thông báo dữ liệu tham số đã thay đổi -> load lại snapshot ngay
+    @PostMapping("/reference-data/refresh")
+    public ResponseEntity<ReferenceDataStats> refreshReferenceData() {
+        return ResponseEntity.ok(interestService.refreshReferenceData());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package dev.virtuoso.ims.controller;
+
+import dev.virtuoso.ims.dto.response.RbacMatrixStats;
+import dev.virtuoso.ims.dto.response.RoleCatalogStats;
+import dev.virtuoso.ims.dto.response.UserPermissionCacheStats;
+import dev.virtuoso.ims.reference.RoleCatalog;
+import dev.virtuoso.ims.security.RbacAuthorizationEngine;
+import dev.virtuoso.ims.security.UserPermissionCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/rbac")
+@RequiredArgsConstructor
+public class RbacController {
+
+    // Chạy trên thread xử lý request: giới hạn để một lần đo chỉ mất cỡ dưới 1 giây
+    private static final long MAX_BENCHMARK_ITERATIONS = 10_000_000L;
+
+    private final RoleCatalog roleCatalog;
+    private final RbacAuthorizationEngine rbacEngine;
+    private final UserPermissionCache permissionCache;
+
+    // Thời điểm load, số role/action/resource và hit/miss của catalog trong bộ nhớ
+    @GetMapping("/catalog")
+    public ResponseEntity<RoleCatalogStats> getCatalogStats() {
+        return ResponseEntity.ok(roleCatalog.stats());
+    }
+
+    // Sửa bảng role/action/resource bằng SQL tay -> gọi để load lại ngay, không chờ hết TTL
+    @PostMapping("/catalog/refresh")
+    public ResponseEntity<RoleCatalogStats> refreshCatalog() {
+        roleCatalog.invalidate();
+        return ResponseEntity.ok(roleCatalog.stats());
+    }
+
+    // Ma trận quyền đã biên dịch (version, số quyền/role/cặp được cấp)
+    @GetMapping("/matrix")
+    public ResponseEntity<RbacMatrixStats> getMatrixStats() {
+        return ResponseEntity.ok(rbacEngine.stats());
+    }
+
+    // Sửa ROLE_ACT_RES / ACTION_RESOURCE bằng SQL tay -> gọi để biên dịch lại ngay
+    @PostMapping("/matrix/rebuild")
+    public ResponseEntity<RbacMatrixStats> rebuildMatrix() {
+        roleCatalog.invalidate();
+        return ResponseEntity.ok(rbacEngine.rebuild());
+    }
+
+    // Cache quyền hiệu lực theo user: số entry, hit/miss, số lần xóa do đổi phân quyền và số lần hết hạn
+    @GetMapping("/permission-cache")
+    public ResponseEntity<UserPermissionCacheStats> getPermissionCacheStats() {
+        return ResponseEntity.ok(permissionCache.stats());
+    }
+
+    // Đo số lần check quyền mỗi giây trên ma trận hiện tại (không tính phần lấy quyền hiệu lực của user)
+    @GetMapping("/matrix/benchmark")
+    public ResponseEntity<?> benchmark(@RequestParam(defaultValue = "1000000") long iterations) {
+        if (iterations < 1 || iterations > MAX_BENCHMARK_ITERATIONS) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "iterations phải từ 1 đến " + MAX_BENCHMARK_ITERATIONS));
+        }
+        return ResponseEntity.ok(rbacEngine.benchmark(iterations));
+    }
+}
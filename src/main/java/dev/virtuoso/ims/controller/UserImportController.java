@@ -1,20 +1,39 @@
 package dev.virtuoso.ims.controller;
 
+import dev.virtuoso.ims.dto.request.BulkRoleRequest;
+import dev.virtuoso.ims.dto.request.UserSelection;
+import dev.virtuoso.ims.dto.request.UserUpdateRequest;
+import dev.virtuoso.ims.dto.response.BulkResult;
+import dev.virtuoso.ims.dto.response.UserView;
 import dev.virtuoso.ims.entity.UserOffer;
 import dev.virtuoso.ims.entity.UserRoleOffer;
+import dev.virtuoso.ims.importer.ImportEngine;
 import dev.virtuoso.ims.repository.UserOfferRepository;
+import dev.virtuoso.ims.search.UserSearchIndex;
+import dev.virtuoso.ims.security.UserPermissionCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import dev.virtuoso.ims.dto.response.ImportResult;
+import dev.virtuoso.ims.service.impl.UserCommandServiceImpl;
+import dev.virtuoso.ims.service.impl.UserExportServiceImpl;
 import dev.virtuoso.ims.service.impl.UserImportServiceImpl;
+import dev.virtuoso.ims.service.impl.UserQueryServiceImpl;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/users")
@@ -23,28 +42,57 @@ public class UserImportController {
 
     private final UserImportServiceImpl userImportService;
     private final UserOfferRepository userOfferRepository;
+    private final UserQueryServiceImpl userQueryService;
+    private final UserSearchIndex userSearchIndex;
+    private final UserPermissionCache userPermissionCache;
+    private final UserExportServiceImpl userExportService;
+    private final UserCommandServiceImpl userCommandService;
 
     @GetMapping
-    public ResponseEntity<Page<UserOffer>> getUsers(
+    public ResponseEntity<Page<UserView>> getUsers(
             @RequestParam(required = false) String keyword,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size
     ) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdTime"));
-        Page<UserOffer> users;
+        Pageable pageable = PageRequest.of(page, size, UserQueryServiceImpl.LIST_ORDER);
+        return ResponseEntity.ok(userQueryService.getUsers(keyword, pageable));
+    }
 
-        if (keyword != null && !keyword.isBlank()) {
-            users = userOfferRepository.searchByKeyword(keyword.trim(), pageable);
-        } else {
-            users = userOfferRepository.findAll(pageable);
+    // Phân trang keyset cho client đọc lần lượt (crawler, xuất dữ liệu): không có tổng số,
+    // trang sau truyền nextCursor của trang trước. Giao diện vẫn dùng GET /api/users (page/size).
+    @GetMapping("/scroll")
+    public ResponseEntity<?> scrollUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        try {
+            return ResponseEntity.ok(userQueryService.scrollUsers(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Xuất toàn bộ user + phân quyền theo bố cục file import (xlsx hoặc csv), ghi thẳng ra response
+    @GetMapping("/export")
+    public ResponseEntity<?> exportUsers(@RequestParam(defaultValue = "xlsx") String format) {
+        UserExportServiceImpl.Format exportFormat;
+        try {
+            exportFormat = userExportService.resolveFormat(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
 
-        return ResponseEntity.ok(users);
+        String filename = "users_" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "." + exportFormat.getExtension();
+        StreamingResponseBody body = out -> userExportService.exportUsers(exportFormat, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .body(body);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getUserById(@PathVariable Long id) {
-        return userOfferRepository.findById(id)
+        return userQueryService.getUser(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -69,6 +117,8 @@ public class UserImportController {
             }
 
             UserOffer saved = userOfferRepository.save(user);
+            userSearchIndex.index(saved);
+            userPermissionCache.invalidate(saved.getUserName());
             return ResponseEntity.ok(saved);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -76,50 +126,52 @@ public class UserImportController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody UserOffer userData) {
+    public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody UserUpdateRequest request) {
         try {
-            UserOffer existingUser = userOfferRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            // Update basic fields
-            existingUser.setFullName(userData.getFullName());
-            existingUser.setEmail(userData.getEmail());
-            existingUser.setPhone(userData.getPhone());
-            existingUser.setBirthDay(userData.getBirthDay());
-            existingUser.setGender(userData.getGender());
-            existingUser.setStatus(userData.getStatus());
-            existingUser.setUpdatedTime(java.time.LocalDateTime.now());
-            existingUser.setUpdatedBy("ADMIN");
-
-            // Update roles if provided
-            if (userData.getUserRoles() != null) {
-                // Clear existing roles
-                existingUser.getUserRoles().clear();
-
-                // Add new roles
-                for (UserRoleOffer newRole : userData.getUserRoles()) {
-                    UserRoleOffer role = new UserRoleOffer();
-                    role.setType(newRole.getType());
-                    role.setBank(newRole.getBank());
-                    role.setBranch(newRole.getBranch());
-                    role.setFromDate(newRole.getFromDate());
-                    role.setToDate(newRole.getToDate());
-                    role.setRole(newRole.getRole());
-                    existingUser.addUserRole(role);
-                }
-            }
-
-            UserOffer updated = userOfferRepository.save(existingUser);
+            UserOffer updated = userCommandService.updateUser(id, request);
+            userSearchIndex.index(updated);
             return ResponseEntity.ok(updated);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    // Thao tác hàng loạt theo danh sách ID hoặc bộ lọc (khối/đơn vị/trạng thái), trả về số bản ghi bị tác động
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<?> bulkDelete(@RequestBody UserSelection selection) {
+        return bulk(() -> userCommandService.deleteUsers(selection));
+    }
+
+    @PostMapping("/bulk/deactivate")
+    public ResponseEntity<?> bulkDeactivate(@RequestBody UserSelection selection) {
+        return bulk(() -> userCommandService.deactivateUsers(selection));
+    }
+
+    @PostMapping("/bulk/grant")
+    public ResponseEntity<?> bulkGrant(@RequestBody BulkRoleRequest request) {
+        return bulk(() -> userCommandService.grantRole(request));
+    }
+
+    @PostMapping("/bulk/revoke")
+    public ResponseEntity<?> bulkRevoke(@RequestBody BulkRoleRequest request) {
+        return bulk(() -> userCommandService.revokeRole(request));
+    }
+
+    private ResponseEntity<?> bulk(Supplier<BulkResult> operation) {
+        try {
+            return ResponseEntity.ok(operation.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "Lỗi hệ thống: " + e.getMessage()));
+        }
+    }
+
     @PostMapping("/upload")
-    public ResponseEntity<?> uploadUser(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadUser(@RequestParam("file") MultipartFile file,
+                                        @RequestParam(defaultValue = "JPA") ImportEngine engine) {
         try {
-            ImportResult result = userImportService.uploadUserFile(file);
+            ImportResult result = userImportService.uploadUserFile(file, engine);
 
             if (result.getErrorCount() == 0) {
                 return ResponseEntity.ok(result);
@@ -135,12 +187,41 @@ public class UserImportController {
         }
     }
 
+    // Chạy thử: trả về lỗi/cảnh báo và dryRunToken, chưa ghi DB
+    @PostMapping("/upload/dry-run")
+    public ResponseEntity<?> dryRunUpload(@RequestParam("file") MultipartFile file) {
+        try {
+            return ResponseEntity.ok(userImportService.dryRun(file));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "Lỗi hệ thống: " + e.getMessage()));
+        }
+    }
+
+    // Xác nhận lưu kết quả chạy thử, không cần upload lại file
+    @PostMapping("/upload/dry-run/{token}/commit")
+    public ResponseEntity<?> commitDryRun(@PathVariable String token) {
+        try {
+            return ResponseEntity.ok(userImportService.commitDryRun(token));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "Lỗi hệ thống: " + e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable Long id) {
         if (!userOfferRepository.existsById(id)) {
             return ResponseEntity.badRequest().body(Map.of("error", "Không tìm thấy người dùng"));
         }
+        List<String> userNames = userOfferRepository.findUserNamesByIdIn(List.of(id));
         userOfferRepository.deleteById(id);
+        userSearchIndex.remove(id);
+        userPermissionCache.invalidate(userNames);
         return ResponseEntity.ok(Map.of("message", "Xóa thành công"));
     }
 }
\ No newline at end of file
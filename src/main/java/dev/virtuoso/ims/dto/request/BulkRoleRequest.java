@@ -0,0 +1,19 @@
+package dev.virtuoso.ims.dto.request;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+// Cấp / thu hồi một role cho nhiều user.
+// Cấp: bank, branch bắt buộc. Thu hồi: bank, branch, type để trống = mọi giá trị; ngày không dùng để so khớp.
+@Data
+public class BulkRoleRequest {
+    private UserSelection users;
+    private Long roleId;
+    private String roleName;    // dùng khi không có roleId
+    private String bank;
+    private String branch;
+    private String type;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+}
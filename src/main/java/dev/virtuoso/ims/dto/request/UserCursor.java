@@ -0,0 +1,30 @@
+package dev.virtuoso.ims.dto.request;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Vị trí đọc tiếp của danh sách user theo keyset: (createdTime, id) của user cuối trang trước.
+// Client chỉ nhận chuỗi base64 (không cần biết cấu trúc bên trong).
+public record UserCursor(LocalDateTime createdTime, long id) {
+
+    private static final String NO_TIME = "-";
+
+    public String encode() {
+        String raw = (createdTime == null ? NO_TIME : createdTime.toString()) + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static UserCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int comma = raw.lastIndexOf(',');
+            String time = raw.substring(0, comma);
+            return new UserCursor(NO_TIME.equals(time) ? null : LocalDateTime.parse(time),
+                    Long.parseLong(raw.substring(comma + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor không hợp lệ");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package dev.virtuoso.ims.dto.request;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+// Một phân quyền gửi lên khi sửa user. Role chọn theo roleId, hoặc roleName khi không có roleId
+// (UserRoleOffer.role không nhận từ JSON)
+@Data
+public class UserRoleRequest {
+    private Long roleId;
+    private String roleName;    // dùng khi không có roleId
+    private String bank;
+    private String branch;
+    private String type;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+}
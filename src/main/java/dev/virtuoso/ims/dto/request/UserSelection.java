@@ -0,0 +1,14 @@
+package dev.virtuoso.ims.dto.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+// Chọn user cho thao tác hàng loạt: theo danh sách ID hoặc theo bộ lọc (không dùng cả hai cùng lúc)
+@Data
+public class UserSelection {
+    private List<Long> userIds;
+    private String bank;        // user có phân quyền thuộc khối này
+    private String branch;      // user có phân quyền thuộc đơn vị này
+    private String status;      // trạng thái user (ACTIVE, INACTIVE...)
+}
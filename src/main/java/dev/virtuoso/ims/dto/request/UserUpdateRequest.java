@@ -0,0 +1,20 @@
+package dev.virtuoso.ims.dto.request;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Sửa thông tin user (PUT /api/users/{id}). userRoles null = giữ nguyên phân quyền,
+// danh sách rỗng = xóa hết phân quyền; subSystem null = giữ nguyên phân hệ
+@Data
+public class UserUpdateRequest {
+    private String fullName;
+    private String email;
+    private String phone;
+    private LocalDate birthDay;
+    private String gender;
+    private String subSystem;
+    private String status;
+    private List<UserRoleRequest> userRoles;
+}
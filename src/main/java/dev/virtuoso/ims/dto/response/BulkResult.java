@@ -0,0 +1,16 @@
+package dev.virtuoso.ims.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkResult {
+    private String operation;
+    private int selectedUsers;  // số user khớp lựa chọn
+    private int affectedUsers;  // số user bị xóa / chuyển INACTIVE
+    private int affectedRoles;  // số phân quyền bị xóa / được cấp / bị thu hồi
+    private int chunks;         // số lô (mỗi lô 1 transaction)
+    private int failedChunks;   // số lô lỗi (các lô khác vẫn được lưu)
+    private long elapsedMillis;
+}
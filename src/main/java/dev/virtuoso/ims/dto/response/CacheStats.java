@@ -0,0 +1,16 @@
+package dev.virtuoso.ims.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CacheStats {
+    private int size;
+    private int maxSize;
+    private long hits;
+    private long misses;        // số lần phải tạo mới
+    private long coalesced;     // số request trùng chờ dùng chung kết quả của request đang tạo
+    private long evictions;
+    private double hitRate;     // (hits + coalesced) / tổng số request
+}
@@ -0,0 +1,16 @@
+package dev.virtuoso.ims.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// Một trang theo keyset: không có tổng số bản ghi, trang sau lấy bằng nextCursor
+@Data
+@Builder
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;  // null khi đã hết dữ liệu
+}
@@ -0,0 +1,16 @@
+package dev.virtuoso.ims.dto.response;
+
+import dev.virtuoso.ims.validation.ImportErrorCode;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ImportIssue {
+    private String severity;        // ERROR | WARNING
+    private String sheet;           // tên sheet trong file, null nếu không gắn với dòng nào (vd: lỗi lưu DB)
+    private Integer row;            // số dòng trên Excel (1-based)
+    private String column;          // cột trên Excel (A, B, ...), null nếu lỗi trên cả dòng
+    private ImportErrorCode code;
+    private String message;
+}
@@ -0,0 +1,38 @@
+package dev.virtuoso.ims.dto.response;
+
+import dev.virtuoso.ims.importer.ImportJob;
+import dev.virtuoso.ims.importer.ImportPhase;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class ImportJobStatus {
+    private String jobId;
+    private String fileName;
+    private ImportPhase phase;
+    private long rowsProcessed;
+    private double rowsPerSecond;
+    private int errorCount;         // Số dòng lỗi tính đến thời điểm hiện tại
+    private LocalDateTime createdTime;
+    private LocalDateTime startedTime;
+    private LocalDateTime finishedTime;
+    private String message;
+
+    public static ImportJobStatus from(ImportJob job) {
+        return ImportJobStatus.builder()
+                .jobId(job.getId())
+                .fileName(job.getFileName())
+                .phase(job.getPhase())
+                .rowsProcessed(job.getRowsProcessed().get())
+                .rowsPerSecond(Math.round(job.getRowsPerSecond() * 10) / 10.0)
+                .errorCount(job.getErrorCount().get())
+                .createdTime(job.getCreatedTime())
+                .startedTime(job.getStartedTime())
+                .finishedTime(job.getFinishedTime())
+                .message(job.getResult() != null ? job.getResult().getMessage() : job.getErrorMessage())
+                .build();
+    }
+}
@@ -8,9 +8,15 @@ import java.util.List;
 @Data
 @Builder
 public class ImportResult {
+    private String importId;    // Dùng xem toàn bộ lỗi theo trang / tải file có cột lỗi (/api/users/import-reports/{importId})
     private int totalRows;      // Tổng số dòng đã đọc (User + Phân quyền)
     private int successCount;   // Số user được lưu thành công
     private int errorCount;     // Số dòng bị lỗi
+    private int warningCount;   // Số dòng cảnh báo
+    private int failedChunks;   // Số lô lưu DB bị lỗi (các lô khác vẫn được lưu)
     private List<String> errorDetails; // Danh sách chi tiết lỗi: "Sheet 1 Dòng 5: Email sai"
+    private boolean detailsTruncated;  // errorDetails chỉ có N dòng đầu mỗi loại, xem đầy đủ qua importId
+    private boolean issuesTruncated;   // báo cáo theo importId chỉ giữ ims.import.report.max-issues issue đầu tiên
     private String message;
+    private String dryRunToken; // Chỉ có khi chạy thử: dùng để xác nhận lưu kết quả
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package dev.virtuoso.ims.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class RbacBenchmarkResult {
+    private long iterations;
+    private long elapsedNanos;
+    private double nanosPerCheck;
+    private long checksPerSecond;
+    private long allowed;           // số lần check được phép (để JIT không bỏ vòng lặp)
+    private long matrixVersion;
+}
@@ -0,0 +1,18 @@
+package dev.virtuoso.ims.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class RbacMatrixStats {
+    private boolean enabled;        // false: các endpoint vẫn permitAll, chỉ dựng ma trận
+    private long version;
+    private LocalDateTime builtAt;
+    private long buildMillis;
+    private int permissionCount;    // số slug (bit)
+    private int roleCount;          // số role có ít nhất một quyền
+    private int grantCount;         // số cặp (role, quyền)
+}
@@ -0,0 +1,16 @@
+package dev.virtuoso.ims.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class ReferenceDataStats {
+    private LocalDateTime loadedAt;
+    private long loadMillis;        // thời gian load snapshot gần nhất
+    private int typeCount;
+    private int valueCount;         // tổng số giá trị ACTIVE
+    private long refreshCount;      // số lần đã load (kể cả lần đầu)
+}
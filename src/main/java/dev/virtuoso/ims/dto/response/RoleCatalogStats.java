@@ -0,0 +1,19 @@
+package dev.virtuoso.ims.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class RoleCatalogStats {
+    private LocalDateTime loadedAt;     // null nếu chưa load hoặc vừa bị xóa
+    private long loadMillis;
+    private int roleCount;
+    private int actionCount;
+    private int resourceCount;
+    private long ttlMinutes;
+    private long invalidations;         // số lần bị xóa do ghi role/action/resource hoặc refresh thủ công
+    private CacheStats cache;           // hits/misses/coalesced của lần đọc catalog
+}
@@ -0,0 +1,13 @@
+package dev.virtuoso.ims.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UserPermissionCacheStats {
+    private long ttlMinutes;
+    private long invalidations;         // số user bị xóa do đổi phân quyền/trạng thái (sửa, import, thao tác hàng loạt)
+    private long expirations;           // số entry tính lại do hết TTL, qua mốc fromDate/toDate hoặc đổi version ma trận
+    private CacheStats cache;           // hits/misses/coalesced/evictions (LRU theo max-entries)
+}
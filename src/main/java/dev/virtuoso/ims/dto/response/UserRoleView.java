@@ -0,0 +1,33 @@
+package dev.virtuoso.ims.dto.response;
+
+import dev.virtuoso.ims.repository.projection.UserViewRow;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class UserRoleView {
+    private Long id;
+    private String type;
+    private Long roleId;
+    private String roleName;
+    private String bank;
+    private String branch;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    public static UserRoleView from(UserViewRow row) {
+        return UserRoleView.builder()
+                .id(row.userRoleId())
+                .type(row.type())
+                .roleId(row.roleId())
+                .roleName(row.roleName())
+                .bank(row.bank())
+                .branch(row.branch())
+                .fromDate(row.fromDate())
+                .toDate(row.toDate())
+                .build();
+    }
+}
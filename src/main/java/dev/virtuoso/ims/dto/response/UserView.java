@@ -0,0 +1,49 @@
+package dev.virtuoso.ims.dto.response;
+
+import dev.virtuoso.ims.repository.projection.UserViewRow;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// User trả về cho màn danh sách/chi tiết (cùng tên trường như entity UserOffer, phân quyền có thêm roleId/roleName)
+@Data
+@Builder
+public class UserView {
+    private Long id;
+    private String userName;
+    private String fullName;
+    private String email;
+    private String phone;
+    private LocalDate birthDay;
+    private String gender;
+    private String subSystem;
+    private String status;
+    private String createdBy;
+    private LocalDateTime createdTime;
+    private String updatedBy;
+    private LocalDateTime updatedTime;
+    @Builder.Default
+    private List<UserRoleView> userRoles = new ArrayList<>();
+
+    public static UserView from(UserViewRow row) {
+        return UserView.builder()
+                .id(row.id())
+                .userName(row.userName())
+                .fullName(row.fullName())
+                .email(row.email())
+                .phone(row.phone())
+                .birthDay(row.birthDay())
+                .gender(row.gender())
+                .subSystem(row.subSystem())
+                .status(row.status())
+                .createdBy(row.createdBy())
+                .createdTime(row.createdTime())
+                .updatedBy(row.updatedBy())
+                .updatedTime(row.updatedTime())
+                .build();
+    }
+}
@@ -1,11 +1,13 @@
 package dev.virtuoso.ims.entity;
 
+import dev.virtuoso.ims.reference.RoleCatalogListener;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "ROLE_OFFER")
+@EntityListeners(RoleCatalogListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,7 +16,7 @@ public class RoleOffer {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "role_offer_seq_gen")
-    @SequenceGenerator(name = "role_offer_seq_gen", sequenceName = "role_offer_seq", allocationSize = 1)
+    @SequenceGenerator(name = "role_offer_seq_gen", sequenceName = "role_offer_seq", allocationSize = 50)
     @Column(name = "ID")
     private Long id;
 
@@ -17,7 +17,7 @@ public class UserOffer {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_offer_seq_gen")
-    @SequenceGenerator(name = "user_offer_seq_gen", sequenceName = "user_offer_seq", allocationSize = 1)
+    @SequenceGenerator(name = "user_offer_seq_gen", sequenceName = "user_offer_seq", allocationSize = 50)
     @Column(name = "ID")
     private Long id;
 
@@ -39,6 +39,11 @@ public class UserOffer {
     @Column(name = "GENDER", length = 50)
     private String gender;
 
+    // Phân hệ (cột "Phân hệ" của file import), lưu lại để file xuất ra import lại được.
+    // Cột thêm sau: src/main/resources/db/user_offer_sub_system.sql
+    @Column(name = "SUB_SYSTEM", length = 200)
+    private String subSystem;
+
     @Column(name = "STATUS", nullable = false, length = 50)
     private String status;
 
@@ -15,7 +15,7 @@ public class UserRoleOffer {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_role_offer_seq_gen")
-    @SequenceGenerator(name = "user_role_offer_seq_gen", sequenceName = "user_role_offer_seq", allocationSize = 1)
+    @SequenceGenerator(name = "user_role_offer_seq_gen", sequenceName = "user_role_offer_seq", allocationSize = 50)
     @Column(name = "ID")
     private Long id;
 
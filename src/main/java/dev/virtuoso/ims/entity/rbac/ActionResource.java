@@ -1,10 +1,12 @@
 package dev.virtuoso.ims.entity.rbac;
 
+import dev.virtuoso.ims.reference.RoleCatalogListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
 @Table(name = "ACTION_RESOURCE")
+@EntityListeners(RoleCatalogListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,7 +15,7 @@ public class ActionResource {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "action_res_seq_gen")
-    @SequenceGenerator(name = "action_res_seq_gen", sequenceName = "action_resource_seq", allocationSize = 1)
+    @SequenceGenerator(name = "action_res_seq_gen", sequenceName = "action_resource_seq", allocationSize = 50)
     @Column(name = "ID")
     private Long id;
 
@@ -1,10 +1,12 @@
 package dev.virtuoso.ims.entity.rbac;
 
+import dev.virtuoso.ims.reference.RoleCatalogListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
 @Table(name = "RESOURCE_OFFER")
+@EntityListeners(RoleCatalogListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
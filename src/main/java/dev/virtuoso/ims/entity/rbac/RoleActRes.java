@@ -1,11 +1,13 @@
 package dev.virtuoso.ims.entity.rbac;
 
 import dev.virtuoso.ims.entity.RoleOffer;
+import dev.virtuoso.ims.reference.RoleCatalogListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
 @Table(name = "ROLE_ACT_RES")
+@EntityListeners(RoleCatalogListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,7 +16,7 @@ public class RoleActRes {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "role_act_res_seq_gen")
-    @SequenceGenerator(name = "role_act_res_seq_gen", sequenceName = "ROLE_ACT_RES_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "role_act_res_seq_gen", sequenceName = "ROLE_ACT_RES_SEQ", allocationSize = 50)
     @Column(name = "ID")
     private Long id;
 
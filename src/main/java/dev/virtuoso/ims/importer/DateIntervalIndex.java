@@ -0,0 +1,80 @@
+package dev.virtuoso.ims.importer;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Tập các khoảng ngày [from, to] (null = không giới hạn), dựng một lần rồi chỉ đọc.
+// Sắp xếp theo ngày bắt đầu + max ngày kết thúc cộng dồn, nên câu hỏi
+// "có khoảng nào giao với [qFrom, qTo] không" chỉ tốn một lần tìm nhị phân: O(log n).
+public class DateIntervalIndex {
+
+    private long[] starts;
+    private long[] ends;
+    private int size;
+    private long[] maxEnds; // maxEnds[i] = max(ends[0..i]) sau khi sắp xếp
+    private boolean built;
+
+    public DateIntervalIndex() {
+        this.starts = new long[4];
+        this.ends = new long[4];
+    }
+
+    public void add(LocalDate from, LocalDate to) {
+        if (built) {
+            throw new IllegalStateException("DateIntervalIndex đã được dựng, không thể thêm khoảng mới");
+        }
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = from != null ? from.toEpochDay() : Long.MIN_VALUE;
+        ends[size] = to != null ? to.toEpochDay() : Long.MAX_VALUE;
+        size++;
+    }
+
+    public void build() {
+        if (built) return;
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(starts[a], starts[b]));
+
+        long[] sortedStarts = new long[size];
+        long[] sortedEnds = new long[size];
+        maxEnds = new long[size];
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            sortedStarts[i] = starts[order[i]];
+            sortedEnds[i] = ends[order[i]];
+            max = Math.max(max, sortedEnds[i]);
+            maxEnds[i] = max;
+        }
+        starts = sortedStarts;
+        ends = sortedEnds;
+        built = true;
+    }
+
+    // Cùng điều kiện với UserRoleOfferRepository#existsDuplicatePermission:
+    // (toDate IS NULL OR toDate >= qFrom) AND (fromDate IS NULL OR fromDate <= qTo)
+    public boolean overlaps(LocalDate queryFrom, LocalDate queryTo) {
+        build();
+        long qFrom = queryFrom.toEpochDay();
+        long qTo = queryTo.toEpochDay();
+
+        // Vị trí cuối cùng có start <= qTo
+        int lo = 0, hi = size - 1, last = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= qTo) {
+                last = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return last >= 0 && maxEnds[last] >= qFrom;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,217 @@
+package dev.virtuoso.ims.importer;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Đọc file text phân tách (CSV/TSV, UTF-8) gồm nhiều section, mỗi section tương ứng một sheet:
+//
+//   [User]
+//   Username,Email,Họ tên,Ngày sinh,Giới tính,SĐT,Phân hệ      <- dòng tiêu đề, bỏ qua
+//   nguyenvana,nguyenvana@msb.com.vn,Nguyễn Văn A,01/01/1990,MALE,0912345678,KHCN
+//   [Thong_tin_phan_quyen]
+//   ...
+//
+// File được map vào bộ nhớ và parse trực tiếp trên byte: chỉ tạo String cho columnCount cột đầu,
+// các cột thừa chỉ bị bỏ qua. Hỗ trợ ô trong dấu nháy kép ("" là dấu nháy, được phép xuống dòng).
+// Dòng đánh dấu section phải là đúng "[Tên sheet]" (không có dấu phân tách) với tên nằm trong sheetNames,
+// nên giá trị dạng "[HN]" ở cột đầu của dòng dữ liệu không bị hiểu nhầm là section mới.
+// Chỉ số dòng là số dòng thực trong file (0-based) để thông báo lỗi chỉ đúng dòng khi mở bằng editor;
+// do đó firstRow (bố cục template xlsx) không áp dụng, mỗi section chỉ bỏ 1 dòng tiêu đề.
+public class DelimitedSheetReader implements SheetReader {
+
+    private static final byte QUOTE = '"';
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    // start: byte đầu tiên sau dòng đánh dấu section; end: byte đầu tiên của section kế tiếp
+    private record Section(int start, int end, int line) {
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer data;
+    private final byte delimiter;
+    private final int columnCount;
+    private final Set<String> sheetNames;
+    private final Map<String, Section> sections = new HashMap<>();
+    private byte[] scratch = new byte[256];
+
+    public DelimitedSheetReader(Path path, char delimiter, int columnCount, Set<String> sheetNames) throws IOException {
+        this.delimiter = (byte) delimiter;
+        this.columnCount = columnCount;
+        this.sheetNames = sheetNames;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File quá lớn (tối đa 2GB)");
+            }
+            this.data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        indexSections();
+    }
+
+    @Override
+    public boolean hasSheet(String sheetName) {
+        return sections.containsKey(sheetName);
+    }
+
+    @Override
+    public int readSheet(String sheetName, int firstRow, Consumer<ImportRow> consumer) {
+        Section section = sections.get(sheetName);
+        if (section == null) {
+            throw new IllegalArgumentException("Không tìm thấy sheet '" + sheetName + "'");
+        }
+
+        int[] cursor = {section.start(), section.line()};   // [vị trí byte, số dòng]
+        int lastRowNum = section.line() - 1;
+        boolean header = true;
+        while (cursor[0] < section.end()) {
+            int rowNum = cursor[1];
+            String[] values = new String[columnCount];
+            parseRow(cursor, section.end(), values);
+            // Dòng trống (vd: dòng cách trước section kế tiếp) không phải dòng dữ liệu, giống xlsx không có dòng đó
+            if (isBlank(values)) continue;
+            if (header) {
+                header = false;
+                continue;
+            }
+            lastRowNum = rowNum;
+            consumer.accept(new StreamingImportRow(rowNum, values));
+        }
+        return lastRowNum;
+    }
+
+    // Dòng ngay sau dòng đánh dấu section, không phụ thuộc firstRow
+    @Override
+    public int headerRow(String sheetName, int firstRow) {
+        Section section = sections.get(sheetName);
+        return section == null ? firstRow - 1 : section.line();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Quét một lượt tìm các dòng "[Tên sheet]" của sheetNames (bỏ qua nội dung trong dấu nháy)
+    private void indexSections() {
+        int limit = data.limit();
+        int pos = 0;
+        int line = 0;
+        if (limit >= 3 && data.get(0) == (byte) 0xEF && data.get(1) == (byte) 0xBB && data.get(2) == (byte) 0xBF) {
+            pos = 3;   // BOM UTF-8
+        }
+
+        List<String> names = new ArrayList<>();
+        List<int[]> bounds = new ArrayList<>();   // [vị trí dòng đánh dấu, vị trí sau dòng đánh dấu, số dòng kế tiếp]
+        boolean inQuotes = false;
+        boolean lineStart = true;
+        while (pos < limit) {
+            byte b = data.get(pos);
+            if (lineStart && !inQuotes && b == '[') {
+                int lineEnd = pos;
+                while (lineEnd < limit && data.get(lineEnd) != LF) lineEnd++;
+                String marker = decode(pos, lineEnd).trim();
+                String name = marker.endsWith("]") ? marker.substring(1, marker.length() - 1).trim() : null;
+                if (name != null && marker.indexOf((char) delimiter) < 0 && sheetNames.contains(name)) {
+                    names.add(name);
+                    bounds.add(new int[]{pos, Math.min(lineEnd + 1, limit), line + 1});
+                }
+            }
+            if (b == QUOTE) inQuotes = !inQuotes;   // "" trong ô đảo 2 lần nên trạng thái vẫn đúng
+            lineStart = b == LF;
+            if (b == LF) line++;
+            pos++;
+        }
+
+        for (int i = 0; i < names.size(); i++) {
+            int[] bound = bounds.get(i);
+            int end = i + 1 < bounds.size() ? bounds.get(i + 1)[0] : limit;
+            sections.put(names.get(i), new Section(bound[1], end, bound[2]));
+        }
+    }
+
+    // Parse một dòng (có thể gồm nhiều dòng vật lý nếu ô trong dấu nháy có xuống dòng), cập nhật cursor
+    private void parseRow(int[] cursor, int end, String[] values) {
+        int pos = cursor[0];
+        int col = 0;
+        while (pos < end) {
+            boolean keep = col < columnCount;
+            if (data.get(pos) == QUOTE) {
+                pos++;
+                int length = 0;
+                while (pos < end) {
+                    byte b = data.get(pos++);
+                    if (b == QUOTE) {
+                        if (pos < end && data.get(pos) == QUOTE) {
+                            pos++;
+                        } else {
+                            break;
+                        }
+                    } else if (b == LF) {
+                        cursor[1]++;
+                    }
+                    if (keep) {
+                        ensureScratch(length + 1);
+                        scratch[length++] = b;
+                    }
+                }
+                if (keep) values[col] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+                // Bỏ phần thừa sau dấu nháy đóng (vd: \r)
+                while (pos < end && data.get(pos) != delimiter && data.get(pos) != LF) pos++;
+            } else {
+                int start = pos;
+                byte b;
+                while (pos < end && (b = data.get(pos)) != delimiter && b != LF) pos++;
+                if (keep) {
+                    int cellEnd = pos > start && data.get(pos - 1) == CR ? pos - 1 : pos;
+                    if (cellEnd > start) values[col] = decode(start, cellEnd);
+                }
+            }
+            col++;
+            if (pos >= end) break;
+            if (data.get(pos++) == LF) {
+                cursor[1]++;
+                break;
+            }
+        }
+        cursor[0] = pos;
+    }
+
+    private String decode(int start, int end) {
+        int length = end - start;
+        ensureScratch(length);
+        data.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // Giữ nguyên các byte đã ghi: ô trong dấu nháy được chép dần vào scratch
+    private void ensureScratch(int length) {
+        if (scratch.length < length) {
+            scratch = Arrays.copyOf(scratch, Math.max(length, scratch.length * 2));
+        }
+    }
+
+    private static boolean isBlank(String[] values) {
+        for (String value : values) {
+            if (StringUtils.isNotBlank(value)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,68 @@
+package dev.virtuoso.ims.importer;
+
+import dev.virtuoso.ims.repository.UserRoleOfferRepository;
+import dev.virtuoso.ims.repository.projection.UserPermissionRow;
+import org.apache.commons.lang3.StringUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Phân quyền đang có trong DB của các user có trong file import, nạp một lần (theo lô id)
+// thay cho việc gọi existsDuplicatePermission cho từng dòng.
+public class ExistingPermissionIndex {
+
+    // Oracle giới hạn 1000 phần tử trong mệnh đề IN
+    private static final int ID_BATCH_SIZE = 1000;
+
+    public static final LocalDate MIN_DATE = LocalDate.of(1900, 1, 1);
+    public static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    private final Map<PermissionKey, DateIntervalIndex> intervalsByKey = new HashMap<>();
+
+    public static ExistingPermissionIndex load(UserRoleOfferRepository repository, Collection<Long> userIds) {
+        ExistingPermissionIndex index = new ExistingPermissionIndex();
+        List<Long> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size()));
+            for (UserPermissionRow row : repository.findPermissionRowsByUserIds(batch)) {
+                index.add(row);
+            }
+        }
+        index.intervalsByKey.values().forEach(DateIntervalIndex::build);
+        return index;
+    }
+
+    private void add(UserPermissionRow row) {
+        PermissionKey key = keyOf(row.userName(), row.roleId(), row.bank(), row.branch(), row.type());
+        if (key == null) return;
+        intervalsByKey.computeIfAbsent(key, k -> new DateIntervalIndex()).add(row.fromDate(), row.toDate());
+    }
+
+    // fromDate/toDate null được hiểu là không giới hạn (giống query cũ)
+    public boolean hasOverlap(String userName, Long roleId, String bank, String branch, String type,
+                              LocalDate fromDate, LocalDate toDate) {
+        PermissionKey key = keyOf(userName, roleId, bank, branch, type);
+        if (key == null) return false;
+        DateIntervalIndex intervals = intervalsByKey.get(key);
+        return intervals != null && intervals.overlaps(
+                fromDate != null ? fromDate : MIN_DATE,
+                toDate != null ? toDate : MAX_DATE);
+    }
+
+    public int size() {
+        return intervalsByKey.values().stream().mapToInt(DateIntervalIndex::size).sum();
+    }
+
+    // Oracle lưu '' thành NULL và "col = NULL" không bao giờ đúng trong query cũ,
+    // nên phân quyền có khối/đơn vị/loại trống không bao giờ bị coi là trùng với DB
+    private static PermissionKey keyOf(String userName, Long roleId, String bank, String branch, String type) {
+        if (StringUtils.isEmpty(bank) || StringUtils.isEmpty(branch) || StringUtils.isEmpty(type)) {
+            return null;
+        }
+        return new PermissionKey(userName, roleId, bank, branch, type);
+    }
+}
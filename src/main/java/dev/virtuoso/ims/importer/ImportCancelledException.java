@@ -0,0 +1,8 @@
+package dev.virtuoso.ims.importer;
+
+public class ImportCancelledException extends RuntimeException {
+
+    public ImportCancelledException() {
+        super("Import đã bị hủy");
+    }
+}
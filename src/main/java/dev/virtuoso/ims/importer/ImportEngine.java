@@ -0,0 +1,9 @@
+package dev.virtuoso.ims.importer;
+
+// Cách ghi dữ liệu import xuống DB
+public enum ImportEngine {
+    // Validate từng dòng trong Java, lưu qua JPA theo lô (mặc định)
+    JPA,
+    // Nạp dữ liệu thô vào bảng staging, validate và MERGE bằng câu lệnh set-based (đồng bộ toàn bộ danh bạ hằng đêm)
+    SQL
+}
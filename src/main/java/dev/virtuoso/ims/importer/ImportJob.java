@@ -0,0 +1,84 @@
+package dev.virtuoso.ims.importer;
+
+import dev.virtuoso.ims.dto.response.ImportResult;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Trạng thái của một job import chạy nền. Được cập nhật từ worker thread và đọc từ request thread.
+@Getter
+public class ImportJob implements ImportProgress {
+
+    private final String id;
+    private final String fileName;
+    private final LocalDateTime createdTime = LocalDateTime.now();
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private final AtomicInteger errorCount = new AtomicInteger();
+
+    private volatile ImportPhase phase = ImportPhase.QUEUED;
+    private volatile LocalDateTime startedTime;
+    private volatile LocalDateTime finishedTime;
+    private volatile ImportResult result;
+    private volatile String errorMessage;
+    private volatile boolean cancelRequested;
+
+    public ImportJob(String id, String fileName) {
+        this.id = id;
+        this.fileName = fileName;
+    }
+
+    @Override
+    public void phase(ImportPhase phase) {
+        this.phase = phase;
+    }
+
+    @Override
+    public void rowProcessed(boolean error) {
+        rowsProcessed.incrementAndGet();
+        if (error) errorCount.incrementAndGet();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    public void start() {
+        this.startedTime = LocalDateTime.now();
+    }
+
+    public void complete(ImportResult result) {
+        this.result = result;
+        finish(ImportPhase.COMPLETED);
+    }
+
+    public void fail(String errorMessage) {
+        this.errorMessage = errorMessage;
+        finish(ImportPhase.FAILED);
+    }
+
+    public void cancelled() {
+        finish(ImportPhase.CANCELLED);
+    }
+
+    public void requestCancel() {
+        this.cancelRequested = true;
+    }
+
+    // Tốc độ xử lý trung bình từ lúc bắt đầu chạy
+    public double getRowsPerSecond() {
+        LocalDateTime start = startedTime;
+        if (start == null) return 0;
+        LocalDateTime end = finishedTime != null ? finishedTime : LocalDateTime.now();
+        long millis = Duration.between(start, end).toMillis();
+        return millis <= 0 ? 0 : rowsProcessed.get() * 1000.0 / millis;
+    }
+
+    private void finish(ImportPhase finalPhase) {
+        this.finishedTime = LocalDateTime.now();
+        this.phase = finalPhase;
+    }
+}
@@ -0,0 +1,17 @@
+package dev.virtuoso.ims.importer;
+
+// Các giai đoạn của một lần import
+public enum ImportPhase {
+    QUEUED,
+    READING,
+    VALIDATING_USERS,
+    VALIDATING_PERMISSIONS,
+    SAVING,
+    COMPLETED,
+    FAILED,
+    CANCELLED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,34 @@
+package dev.virtuoso.ims.importer;
+
+// Callback theo dõi tiến độ import (dùng cho import chạy nền)
+public interface ImportProgress {
+
+    // Dùng cho import đồng bộ, không cần theo dõi
+    ImportProgress NONE = new ImportProgress() {
+        @Override
+        public void phase(ImportPhase phase) {
+        }
+
+        @Override
+        public void rowProcessed(boolean error) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    void phase(ImportPhase phase);
+
+    void rowProcessed(boolean error);
+
+    boolean isCancelled();
+
+    // Gọi giữa các dòng: dừng import nếu người dùng đã hủy
+    default void checkCancelled() {
+        if (isCancelled()) {
+            throw new ImportCancelledException();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package dev.virtuoso.ims.importer;
+
+import dev.virtuoso.ims.dto.response.ImportIssue;
+import dev.virtuoso.ims.validation.ImportErrorCode;
+import dev.virtuoso.ims.validation.RowError;
+import lombok.Getter;
+import org.apache.poi.ss.util.CellReference;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Lỗi/cảnh báo của một lần import.
+// Bản có cấu trúc (xem theo trang, xuất file có cột lỗi) giữ tối đa maxIssues issue đầu tiên để bộ nhớ
+// không tăng theo số dòng lỗi của file lớn; số dòng lỗi/cảnh báo vẫn được đếm đủ.
+// Response tóm tắt chỉ kèm tối đa maxInlineLines dòng thông báo mỗi loại.
+public class ImportReport {
+
+    public static final String ERROR = "ERROR";
+    public static final String WARNING = "WARNING";
+
+    @Getter
+    private final String id;
+    @Getter
+    private final LocalDateTime createdTime = LocalDateTime.now();
+    private final int maxInlineLines;
+    private final int maxIssues;
+
+    private final List<ImportIssue> issues = new ArrayList<>();
+    private final List<String> errorLines = new ArrayList<>();
+    private final List<String> warningLines = new ArrayList<>();
+    @Getter
+    private int errorCount;      // số dòng lỗi (mỗi dòng file có thể có nhiều issue)
+    @Getter
+    private int warningCount;
+    private long droppedIssues;  // số issue không được giữ do vượt maxIssues
+
+    // File gốc, giữ lại để xuất file có cột lỗi (ImportReportStore quản lý vòng đời)
+    @Getter
+    private volatile Path sourceFile;
+
+    public ImportReport(String id, int maxInlineLines, int maxIssues) {
+        this.id = id;
+        this.maxInlineLines = maxInlineLines;
+        this.maxIssues = maxIssues;
+    }
+
+    // Lỗi của một dòng trong sheet; label là tên hiển thị trong thông báo (vd: "Sheet User")
+    public synchronized void rowErrors(String sheet, String label, int rowNum, List<RowError> errors) {
+        for (RowError error : errors) {
+            addIssue(issue(ERROR, sheet, rowNum, error));
+        }
+        errorCount++;
+        if (errorLines.size() < maxInlineLines) {
+            errorLines.add(label + " - Dòng " + (rowNum + 1) + ": " +
+                    errors.stream().map(RowError::message).collect(Collectors.joining("; ")));
+        }
+    }
+
+    public synchronized void rowWarning(String sheet, String label, int rowNum, RowError warning) {
+        addIssue(issue(WARNING, sheet, rowNum, warning));
+        warningCount++;
+        if (warningLines.size() < maxInlineLines) {
+            warningLines.add(label + " - Dòng " + (rowNum + 1) + ": " + warning.message());
+        }
+    }
+
+    // Lỗi không gắn với dòng nào (vd: một lô lưu DB bị lỗi)
+    public synchronized void error(ImportErrorCode code, String line) {
+        addIssue(ImportIssue.builder().severity(ERROR).code(code).message(line).build());
+        errorCount++;
+        if (errorLines.size() < maxInlineLines) {
+            errorLines.add(line);
+        }
+    }
+
+    // Cảnh báo trước, lỗi sau (giống thứ tự trả về trước đây)
+    public synchronized List<String> getDetails() {
+        List<String> details = new ArrayList<>(warningLines.size() + errorLines.size());
+        details.addAll(warningLines);
+        details.addAll(errorLines);
+        return details;
+    }
+
+    public synchronized boolean isTruncated() {
+        return errorLines.size() < errorCount || warningLines.size() < warningCount;
+    }
+
+    // Danh sách issue (xem theo trang, file có cột lỗi) chỉ có maxIssues issue đầu tiên
+    public synchronized boolean isIssuesTruncated() {
+        return droppedIssues > 0;
+    }
+
+    public synchronized boolean hasRowIssues() {
+        return issues.stream().anyMatch(i -> i.getRow() != null);
+    }
+
+    // severity null: tất cả
+    public synchronized List<ImportIssue> getIssues(String severity) {
+        return severity == null ? List.copyOf(issues)
+                : issues.stream().filter(i -> severity.equalsIgnoreCase(i.getSeverity())).toList();
+    }
+
+    // sheet -> (rowNum 0-based -> các thông báo của dòng, nối bằng "; ")
+    public synchronized Map<String, Map<Integer, String>> messagesByRow() {
+        Map<String, Map<Integer, String>> result = new HashMap<>();
+        for (ImportIssue issue : issues) {
+            if (issue.getRow() == null) continue;
+            result.computeIfAbsent(issue.getSheet(), k -> new HashMap<>())
+                    .merge(issue.getRow() - 1, issue.getMessage(), (a, b) -> a + "; " + b);
+        }
+        return result;
+    }
+
+    private void addIssue(ImportIssue issue) {
+        if (issues.size() < maxIssues) {
+            issues.add(issue);
+        } else {
+            droppedIssues++;
+        }
+    }
+
+    void setSourceFile(Path sourceFile) {
+        this.sourceFile = sourceFile;
+    }
+
+    private static ImportIssue issue(String severity, String sheet, int rowNum, RowError error) {
+        return ImportIssue.builder()
+                .severity(severity)
+                .sheet(sheet)
+                .row(rowNum + 1)
+                .column(error.column() >= 0 ? CellReference.convertNumToColString(error.column()) : null)
+                .code(error.code())
+                .message(error.message())
+                .build();
+    }
+}
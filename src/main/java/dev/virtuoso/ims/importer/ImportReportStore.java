@@ -0,0 +1,93 @@
+package dev.virtuoso.ims.importer;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.UUID;
+
+// Giữ báo cáo lỗi của các lần import gần nhất (giới hạn số lượng và thời gian) kèm file gốc để xuất file có cột lỗi
+@Component
+@Slf4j
+public class ImportReportStore {
+
+    private final int maxReports;
+    private final long retentionMinutes;
+    private final int maxInlineLines;
+    private final int maxIssues;
+    private final LinkedHashMap<String, ImportReport> reports = new LinkedHashMap<>();
+
+    public ImportReportStore(@Value("${ims.import.report.max-reports:20}") int maxReports,
+                             @Value("${ims.import.report.retention-minutes:60}") long retentionMinutes,
+                             @Value("${ims.import.report.max-inline-lines:100}") int maxInlineLines,
+                             @Value("${ims.import.report.max-issues:50000}") int maxIssues) {
+        this.maxReports = maxReports;
+        this.retentionMinutes = retentionMinutes;
+        this.maxInlineLines = maxInlineLines;
+        this.maxIssues = maxIssues;
+    }
+
+    public ImportReport newReport() {
+        return new ImportReport(UUID.randomUUID().toString(), maxInlineLines, maxIssues);
+    }
+
+    // Lưu báo cáo. Nếu có lỗi/cảnh báo theo dòng thì chuyển file gốc vào quản lý của store
+    // (file tạm của request không còn ở đường dẫn cũ, xóa khi báo cáo hết hạn)
+    public synchronized void save(ImportReport report, Path sourceFile) {
+        if (report.hasRowIssues() && sourceFile != null && Files.exists(sourceFile)) {
+            try {
+                String extension = SheetReaders.extension(sourceFile.getFileName().toString());
+                Path kept = Files.createTempFile("ims-import-report-", extension != null ? extension : ".xlsx");
+                Files.move(sourceFile, kept, StandardCopyOption.REPLACE_EXISTING);
+                deleteQuietly(report.getSourceFile());
+                report.setSourceFile(kept);
+            } catch (IOException e) {
+                log.warn("Không giữ được file gốc của import {}", report.getId(), e);
+            }
+        }
+        reports.remove(report.getId());
+        reports.put(report.getId(), report);
+        purge();
+    }
+
+    public synchronized Optional<ImportReport> find(String id) {
+        purge();
+        return Optional.ofNullable(reports.get(id));
+    }
+
+    @PreDestroy
+    public synchronized void clear() {
+        reports.values().forEach(r -> deleteQuietly(r.getSourceFile()));
+        reports.clear();
+    }
+
+    private void purge() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minusMinutes(retentionMinutes);
+        Iterator<ImportReport> it = reports.values().iterator();
+        while (it.hasNext()) {
+            ImportReport report = it.next();
+            if (reports.size() > maxReports || report.getCreatedTime().isBefore(expiredBefore)) {
+                deleteQuietly(report.getSourceFile());
+                it.remove();
+            }
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Không xóa được file {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package dev.virtuoso.ims.importer;
+
+import java.time.LocalDate;
+
+// Một dòng dữ liệu import, độc lập với cách đọc file (POI DOM, streaming SAX, ...)
+public interface ImportRow {
+
+    // Chỉ số dòng (0-based, giống Row#getRowNum của POI)
+    int getRowNum();
+
+    // Giá trị hiển thị của ô, đã trim, không bao giờ null
+    String getCellValue(int index);
+
+    // Giá trị ngày của ô, null nếu ô trống
+    LocalDate getDateCellValue(int index);
+
+    boolean isEmpty();
+}
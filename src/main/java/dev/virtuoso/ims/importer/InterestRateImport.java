@@ -0,0 +1,188 @@
+package dev.virtuoso.ims.importer;
+
+import dev.virtuoso.ims.entity.interest.LoanInterestParamType;
+import dev.virtuoso.ims.reference.InterestReferenceData;
+import dev.virtuoso.ims.validation.ImportErrorCode;
+import dev.virtuoso.ims.validation.RowError;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Một lần import file template lãi suất đã điền (chỉ sống trong phạm vi một file).
+// Nhận lần lượt các dòng của sheet "Import Template": dòng 0 là tiêu đề (tên loại tham số + cột lãi suất),
+// các dòng sau được kiểm tra bằng tra cứu hash trên snapshot tham số và gom lô ghi JDBC batch.
+// Bộ nhớ chỉ gồm lô đang chờ ghi và tập tổ hợp đã gặp (để check trùng trong file).
+public class InterestRateImport implements Consumer<ImportRow> {
+
+    public static final String SHEET_NAME = "Import Template";
+    public static final String RATE_HEADER = "Lãi suất (%)";
+
+    private static final BigDecimal MAX_RATE = BigDecimal.valueOf(100);
+    private static final int RATE_SCALE = 4;   // NUMBER(9, 4)
+    private static final int MAX_HEADER_COLUMNS = 256;
+
+    // Cột tham số trong file, sắp theo TYPE_ID để PARAM_KEY không phụ thuộc thứ tự cột
+    private record ParamColumn(int index, LoanInterestParamType type) {
+    }
+
+    private final InterestReferenceData.Snapshot snapshot;
+    private final InterestRateWriter writer;
+    private final ImportReport report;
+    private final String importId;
+    private final int batchSize;
+    private final Timestamp createdTime = new Timestamp(System.currentTimeMillis());
+
+    private ParamColumn[] paramColumns;
+    private int rateColumn = -1;
+    private final Map<String, Integer> rowByKey = new HashMap<>();   // PARAM_KEY -> dòng đầu tiên có tổ hợp đó
+    private final List<InterestRateWriter.RateRow> batch = new ArrayList<>();
+
+    @Getter
+    private int totalRows;
+    @Getter
+    private int savedRows;
+
+    public InterestRateImport(InterestReferenceData.Snapshot snapshot, InterestRateWriter writer,
+                              ImportReport report, String importId, int batchSize) {
+        this.snapshot = snapshot;
+        this.writer = writer;
+        this.report = report;
+        this.importId = importId;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void accept(ImportRow row) {
+        if (paramColumns == null) {
+            readHeader(row);
+            return;
+        }
+        if (row.isEmpty()) return;
+        totalRows++;
+
+        List<RowError> errors = new ArrayList<>(2);
+        int[] typeIds = new int[paramColumns.length];
+        int[] paramIds = new int[paramColumns.length];
+        for (int i = 0; i < paramColumns.length; i++) {
+            ParamColumn column = paramColumns[i];
+            String value = row.getCellValue(column.index());
+            typeIds[i] = column.type().getId();
+            if (value.isEmpty()) {
+                errors.add(new RowError(column.index(), ImportErrorCode.REQUIRED,
+                        column.type().getName() + " không được để trống"));
+                continue;
+            }
+            Integer paramId = snapshot.paramId(column.type().getId(), value);
+            if (paramId == null) {
+                errors.add(new RowError(column.index(), ImportErrorCode.NOT_FOUND,
+                        "'" + value + "' không phải giá trị hợp lệ của " + column.type().getName()));
+                continue;
+            }
+            paramIds[i] = paramId;
+        }
+        BigDecimal rate = parseRate(row.getCellValue(rateColumn), errors);
+
+        if (errors.isEmpty()) {
+            String key = paramKey(paramIds);
+            Integer firstRow = rowByKey.putIfAbsent(key, row.getRowNum());
+            if (firstRow != null) {
+                errors.add(RowError.ofRow(ImportErrorCode.DUPLICATE_IN_FILE,
+                        "Trùng tổ hợp tham số với dòng " + (firstRow + 1)));
+            } else {
+                batch.add(new InterestRateWriter.RateRow(row.getRowNum(), key, rate, typeIds, paramIds));
+                if (batch.size() >= batchSize) flush();
+            }
+        }
+        if (!errors.isEmpty()) {
+            report.rowErrors(SHEET_NAME, "Sheet " + SHEET_NAME, row.getRowNum(), errors);
+        }
+    }
+
+    public boolean hasHeader() {
+        return paramColumns != null;
+    }
+
+    // Ghi nốt lô cuối, gọi sau khi đọc hết sheet
+    public void flush() {
+        if (batch.isEmpty()) return;
+        writer.writeBatch(importId, batch, createdTime);
+        savedRows += batch.size();
+        batch.clear();
+    }
+
+    // Tiêu đề sai thì không đọc tiếp được file nên báo lỗi cả file
+    private void readHeader(ImportRow row) {
+        if (row.getRowNum() != 0) {
+            throw new IllegalArgumentException("Sheet '" + SHEET_NAME + "' thiếu dòng tiêu đề");
+        }
+        List<ParamColumn> columns = new ArrayList<>();
+        Map<Integer, String> seenTypes = new HashMap<>();
+        for (int col = 0; col < MAX_HEADER_COLUMNS; col++) {
+            String header = row.getCellValue(col);
+            if (header.isEmpty()) continue;
+            if (RATE_HEADER.equals(header)) {
+                rateColumn = col;
+                continue;
+            }
+            LoanInterestParamType type = snapshot.typeByName(header);
+            if (type == null) {
+                throw new IllegalArgumentException("Cột '" + header + "' không khớp loại tham số lãi suất nào");
+            }
+            if (seenTypes.put(type.getId(), header) != null) {
+                throw new IllegalArgumentException("Cột '" + header + "' bị lặp lại");
+            }
+            columns.add(new ParamColumn(col, type));
+        }
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("File không có cột tham số lãi suất nào");
+        }
+        if (rateColumn < 0) {
+            throw new IllegalArgumentException("File thiếu cột '" + RATE_HEADER + "'");
+        }
+        columns.sort(Comparator.comparingInt(c -> c.type().getId()));
+        paramColumns = columns.toArray(new ParamColumn[0]);
+    }
+
+    // Chấp nhận "7.5", "7,5" và "7.50%" (ô định dạng phần trăm của Excel)
+    private BigDecimal parseRate(String value, List<RowError> errors) {
+        if (value.isEmpty()) {
+            errors.add(new RowError(rateColumn, ImportErrorCode.REQUIRED, RATE_HEADER + " không được để trống"));
+            return null;
+        }
+        String normalized = value.endsWith("%") ? value.substring(0, value.length() - 1).trim() : value;
+        BigDecimal rate;
+        try {
+            rate = new BigDecimal(normalized.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            errors.add(new RowError(rateColumn, ImportErrorCode.INVALID_FORMAT, "Lãi suất không phải số: " + value));
+            return null;
+        }
+        rate = rate.stripTrailingZeros();
+        if (rate.signum() < 0 || rate.compareTo(MAX_RATE) > 0) {
+            errors.add(new RowError(rateColumn, ImportErrorCode.INVALID, "Lãi suất phải từ 0 đến 100"));
+            return null;
+        }
+        if (rate.scale() > RATE_SCALE) {
+            errors.add(new RowError(rateColumn, ImportErrorCode.INVALID_FORMAT,
+                    "Lãi suất tối đa " + RATE_SCALE + " chữ số thập phân"));
+            return null;
+        }
+        return rate;
+    }
+
+    private static String paramKey(int[] paramIds) {
+        StringBuilder key = new StringBuilder(paramIds.length * 6);
+        for (int i = 0; i < paramIds.length; i++) {
+            if (i > 0) key.append(',');
+            key.append(paramIds[i]);
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package dev.virtuoso.ims.importer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+// Ghi lãi suất import bằng JDBC batch thẳng vào bảng (không qua persistence context).
+// Transaction do phía gọi quản lý.
+@Component
+@RequiredArgsConstructor
+public class InterestRateWriter {
+
+    private static final String INSERT_RATE =
+            "INSERT INTO LOAN_INTEREST_RATE (IMPORT_ID, ROW_NUM, PARAM_KEY, RATE, CREATED_TIME) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_RATE_PARAM =
+            "INSERT INTO LOAN_INTEREST_RATE_PARAM (IMPORT_ID, ROW_NUM, TYPE_ID, PARAM_ID) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Một dòng hợp lệ của file: typeIds[i] đi cùng paramIds[i]
+    public record RateRow(int rowNum, String paramKey, BigDecimal rate, int[] typeIds, int[] paramIds) {
+    }
+
+    public void writeBatch(String importId, List<RateRow> rows, Timestamp createdTime) {
+        List<Object[]> rates = new ArrayList<>(rows.size());
+        List<Object[]> params = new ArrayList<>(rows.size() * 4);
+        for (RateRow row : rows) {
+            rates.add(new Object[]{importId, row.rowNum(), row.paramKey(), row.rate(), createdTime});
+            for (int i = 0; i < row.typeIds().length; i++) {
+                params.add(new Object[]{importId, row.rowNum(), row.typeIds()[i], row.paramIds()[i]});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_RATE, rates);
+        jdbcTemplate.batchUpdate(INSERT_RATE_PARAM, params);
+    }
+}
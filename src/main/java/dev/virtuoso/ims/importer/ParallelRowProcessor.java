@@ -0,0 +1,60 @@
+package dev.virtuoso.ims.importer;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Đọc sheet theo lô, validate các dòng của lô song song trên ForkJoinPool riêng,
+// rồi gộp kết quả tuần tự theo đúng thứ tự dòng (thông báo lỗi/cảnh báo giữ nguyên thứ tự như chạy đơn luồng).
+// Bộ nhớ chỉ giữ tối đa một lô dòng thô.
+@Component
+public class ParallelRowProcessor {
+
+    private final ForkJoinPool pool;
+    private final int batchSize;
+
+    public ParallelRowProcessor(@Value("${ims.import.validation.parallelism:0}") int parallelism,
+                                @Value("${ims.import.validation.batch-size:5000}") int batchSize) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.batchSize = batchSize;
+    }
+
+    // parse: phải thuần (không ghi trạng thái dùng chung); merge: chạy trên thread gọi, theo thứ tự dòng.
+    // Trả về số dòng có dữ liệu đã xử lý (không phụ thuộc bố cục file: xlsx theo template hay csv/tsv)
+    public <T> int process(SheetReader reader, String sheetName, int firstRow, ImportProgress progress,
+                           Function<ImportRow, T> parse, Consumer<T> merge) throws IOException {
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        int[] rowCount = {0};
+        reader.readSheet(sheetName, firstRow, row -> {
+            progress.checkCancelled();
+            if (row.isEmpty()) return;
+            rowCount[0]++;
+            batch.add(row);
+            if (batch.size() >= batchSize) {
+                flush(batch, parse, merge);
+            }
+        });
+        flush(batch, parse, merge);
+        return rowCount[0];
+    }
+
+    private <T> void flush(List<ImportRow> batch, Function<ImportRow, T> parse, Consumer<T> merge) {
+        if (batch.isEmpty()) return;
+        // parallelStream + toList giữ nguyên thứ tự xuất hiện
+        List<T> results = pool.submit(() -> batch.parallelStream().map(parse).toList()).join();
+        batch.clear();
+        results.forEach(merge);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
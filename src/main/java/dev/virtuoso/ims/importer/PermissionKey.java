@@ -0,0 +1,5 @@
+package dev.virtuoso.ims.importer;
+
+// Khóa ghép của một phân quyền: (user, role, khối, đơn vị, loại)
+public record PermissionKey(String userName, Long roleId, String bank, String branch, String type) {
+}
@@ -0,0 +1,46 @@
+package dev.virtuoso.ims.importer;
+
+import dev.virtuoso.ims.validation.RowError;
+import lombok.Getter;
+
+import java.util.List;
+
+// Kết quả validate một dòng. Bước validate chạy song song, bước gộp đọc các kết quả này theo đúng thứ tự dòng.
+@Getter
+public class RowResult<K, V> {
+
+    private final int rowNum;
+    private final K key;                 // khóa dùng để check trùng trong file ở bước gộp
+    private final V value;               // null nếu dòng lỗi hoặc bị bỏ qua
+    private final List<RowError> errors;   // lỗi validate của riêng dòng này
+    private final String unexpectedError;
+
+    private RowResult(int rowNum, K key, V value, List<RowError> errors, String unexpectedError) {
+        this.rowNum = rowNum;
+        this.key = key;
+        this.value = value;
+        this.errors = errors;
+        this.unexpectedError = unexpectedError;
+    }
+
+    public static <K, V> RowResult<K, V> valid(int rowNum, K key, V value) {
+        return new RowResult<>(rowNum, key, value, List.of(), null);
+    }
+
+    public static <K, V> RowResult<K, V> invalid(int rowNum, K key, List<RowError> errors) {
+        return new RowResult<>(rowNum, key, null, errors, null);
+    }
+
+    public static <K, V> RowResult<K, V> unexpected(int rowNum, K key, String message) {
+        return new RowResult<>(rowNum, key, null, List.of(), message);
+    }
+
+    // Dòng không cần validate (vd: user đã tồn tại), bước gộp tự xử lý
+    public static <K, V> RowResult<K, V> skipped(int rowNum, K key) {
+        return new RowResult<>(rowNum, key, null, List.of(), null);
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty() || unexpectedError != null;
+    }
+}
@@ -0,0 +1,20 @@
+package dev.virtuoso.ims.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+// Nguồn dữ liệu import theo sheet, cho phép đọc lại một sheet nhiều lần
+public interface SheetReader extends Closeable {
+
+    boolean hasSheet(String sheetName);
+
+    // Đẩy lần lượt các dòng từ firstRow (0-based) vào consumer.
+    // Trả về chỉ số dòng cuối cùng của sheet (giống Sheet#getLastRowNum).
+    int readSheet(String sheetName, int firstRow, Consumer<ImportRow> consumer) throws IOException;
+
+    // Chỉ số dòng tiêu đề cột của sheet. Mặc định (xlsx theo template): ngay trên dòng dữ liệu đầu tiên
+    default int headerRow(String sheetName, int firstRow) {
+        return firstRow - 1;
+    }
+}
@@ -0,0 +1,40 @@
+package dev.virtuoso.ims.importer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+
+// Chọn SheetReader theo đuôi file import
+public final class SheetReaders {
+
+    public static final String[] SUPPORTED_EXTENSIONS = {".xlsx", ".csv", ".tsv"};
+
+    private static final int TEXT_COLUMN_COUNT = 7;   // cả 2 sheet đều có 7 cột dữ liệu
+    // Section hợp lệ trong file csv/tsv (tên sheet của file import user)
+    private static final Set<String> TEXT_SECTIONS = Set.of("User", "Thong_tin_phan_quyen");
+
+    private SheetReaders() {
+    }
+
+    public static boolean isSupported(String fileName) {
+        return extension(fileName) != null;
+    }
+
+    // Đuôi file (chữ thường) nếu được hỗ trợ, ngược lại null
+    public static String extension(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        for (String extension : SUPPORTED_EXTENSIONS) {
+            if (lower.endsWith(extension)) return extension;
+        }
+        return null;
+    }
+
+    // streaming: với xlsx, true = SAX, false = đọc cả workbook vào bộ nhớ (file text luôn đọc streaming)
+    public static SheetReader open(Path path, boolean streaming) throws IOException {
+        String extension = extension(path.getFileName().toString());
+        if (".csv".equals(extension)) return new DelimitedSheetReader(path, ',', TEXT_COLUMN_COUNT, TEXT_SECTIONS);
+        if (".tsv".equals(extension)) return new DelimitedSheetReader(path, '\t', TEXT_COLUMN_COUNT, TEXT_SECTIONS);
+        return streaming ? new StreamingXlsxSheetReader(path) : new XssfSheetReader(path);
+    }
+}
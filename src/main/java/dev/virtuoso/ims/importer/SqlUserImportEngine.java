@@ -0,0 +1,285 @@
+package dev.virtuoso.ims.importer;
+
+import dev.virtuoso.ims.dto.response.ImportResult;
+import dev.virtuoso.ims.search.UserSearchIndex;
+import dev.virtuoso.ims.security.UserPermissionCache;
+import dev.virtuoso.ims.validation.ImportErrorCode;
+import dev.virtuoso.ims.validation.ImportRules;
+import dev.virtuoso.ims.validation.RowError;
+import dev.virtuoso.ims.validation.ValidatedRow;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+// Engine import set-based: nạp dữ liệu thô của 2 sheet vào bảng staging (JDBC batch),
+// check user/role tồn tại, trùng username, trùng/giao phân quyền bằng vài câu UPDATE,
+// rồi ghi bằng 1 MERGE (USER_OFFER) + 1 INSERT ... SELECT (USER_ROLE_OFFER).
+// Bảng staging: src/main/resources/db/import_staging.sql
+@Component
+@Slf4j
+public class SqlUserImportEngine {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_STAGE_LENGTH = 1000;   // độ dài cột text của bảng staging
+
+    private static final String INSERT_USER_STAGE =
+            "INSERT INTO IMP_USER_STAGE (IMPORT_ID, ROW_NUM, USER_NAME, EMAIL, FULL_NAME, BIRTH_DAY, GENDER, PHONE, SUB_SYSTEM, ERROR_MSG) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PERMISSION_STAGE =
+            "INSERT INTO IMP_PERMISSION_STAGE (IMPORT_ID, ROW_NUM, USER_NAME, BANK, BRANCH, ROLE_NAME, TYPE, FROM_DATE, TO_DATE, ERROR_MSG) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // User đã có trên hệ thống: không validate cột, chỉ cảnh báo và cho phép thêm phân quyền
+    private static final String MARK_EXISTING_USERS =
+            "UPDATE IMP_USER_STAGE s " +
+            "SET EXISTING_USER_ID = (SELECT u.ID FROM USER_OFFER u WHERE u.USER_NAME = s.USER_NAME), ERROR_MSG = NULL " +
+            "WHERE s.IMPORT_ID = ? AND EXISTS (SELECT 1 FROM USER_OFFER u WHERE u.USER_NAME = s.USER_NAME)";
+
+    private static final String CHECK_USER_LENGTH =
+            "UPDATE IMP_USER_STAGE " +
+            "SET ERROR_MSG = CASE WHEN ERROR_MSG IS NULL THEN '' ELSE ERROR_MSG || '; ' END || 'Dữ liệu vượt quá độ dài cho phép' " +
+            "WHERE IMPORT_ID = ? AND EXISTING_USER_ID IS NULL " +
+            "AND (LENGTH(USER_NAME) > 50 OR LENGTH(EMAIL) > 200 OR LENGTH(FULL_NAME) > 200 OR LENGTH(PHONE) > 50 " +
+            "     OR LENGTH(SUB_SYSTEM) > 200)";
+
+    // Trùng username trong file: dòng sau trùng với một dòng hợp lệ phía trước
+    private static final String CHECK_DUPLICATE_USERS =
+            "UPDATE IMP_USER_STAGE s " +
+            "SET ERROR_MSG = 'Username ''' || s.USER_NAME || ''' bị trùng lặp trong file' " +
+            "    || CASE WHEN s.ERROR_MSG IS NULL THEN '' ELSE '; ' || s.ERROR_MSG END " +
+            "WHERE s.IMPORT_ID = ? AND s.EXISTING_USER_ID IS NULL AND s.USER_NAME IS NOT NULL " +
+            "AND EXISTS (SELECT 1 FROM IMP_USER_STAGE d WHERE d.IMPORT_ID = s.IMPORT_ID AND d.USER_NAME = s.USER_NAME " +
+            "            AND d.ROW_NUM < s.ROW_NUM AND d.ERROR_MSG IS NULL AND d.EXISTING_USER_ID IS NULL)";
+
+    private static final String RESOLVE_ROLES =
+            "UPDATE IMP_PERMISSION_STAGE p " +
+            "SET ROLE_ID = (SELECT MIN(r.ID) FROM ROLE_OFFER r WHERE UPPER(r.ROLE_NAME) = UPPER(p.ROLE_NAME)) " +
+            "WHERE p.IMPORT_ID = ? AND p.ROLE_NAME IS NOT NULL";
+
+    private static final String CHECK_UNKNOWN_USERS =
+            "UPDATE IMP_PERMISSION_STAGE p " +
+            "SET ERROR_MSG = CASE WHEN p.ERROR_MSG IS NULL THEN '' ELSE p.ERROR_MSG || '; ' END " +
+            "    || 'Username ''' || p.USER_NAME || ''' không có trong Sheet User hoặc bị lỗi' " +
+            "WHERE p.IMPORT_ID = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM IMP_USER_STAGE s WHERE s.IMPORT_ID = p.IMPORT_ID " +
+            "                AND s.USER_NAME = p.USER_NAME AND s.ERROR_MSG IS NULL)";
+
+    private static final String CHECK_UNKNOWN_ROLES =
+            "UPDATE IMP_PERMISSION_STAGE p " +
+            "SET ERROR_MSG = CASE WHEN p.ERROR_MSG IS NULL THEN '' ELSE p.ERROR_MSG || '; ' END " +
+            "    || 'Role ''' || p.ROLE_NAME || ''' không tồn tại trong hệ thống' " +
+            "WHERE p.IMPORT_ID = ? AND p.ROLE_NAME IS NOT NULL AND p.ROLE_ID IS NULL";
+
+    private static final String CHECK_PERMISSION_LENGTH =
+            "UPDATE IMP_PERMISSION_STAGE " +
+            "SET ERROR_MSG = CASE WHEN ERROR_MSG IS NULL THEN '' ELSE ERROR_MSG || '; ' END || 'Dữ liệu vượt quá độ dài cho phép' " +
+            "WHERE IMPORT_ID = ? AND (LENGTH(BANK) > 200 OR LENGTH(BRANCH) > 200 OR LENGTH(TYPE) > 50)";
+
+    private static final String PERMISSION_LABEL =
+            "'Phân quyền [' || (SELECT r.ROLE_NAME FROM ROLE_OFFER r WHERE r.ID = p.ROLE_ID) " +
+            "|| ' - ' || p.BANK || ' - ' || p.BRANCH || ' - ' || p.TYPE || ']' ";
+
+    // Cùng điều kiện giao khoảng ngày với UserRoleOfferRepository#existsDuplicatePermission
+    private static final String CHECK_EXISTING_PERMISSIONS =
+            "UPDATE IMP_PERMISSION_STAGE p " +
+            "SET ERROR_MSG = " + PERMISSION_LABEL + "|| ' đã tồn tại cho user ''' || p.USER_NAME || ''' trong hệ thống' " +
+            "WHERE p.IMPORT_ID = ? AND p.ERROR_MSG IS NULL " +
+            "AND EXISTS (SELECT 1 FROM USER_ROLE_OFFER ur JOIN USER_OFFER u ON u.ID = ur.USER_ID " +
+            "            WHERE u.USER_NAME = p.USER_NAME AND ur.ROLE_ID = p.ROLE_ID " +
+            "            AND ur.BANK = p.BANK AND ur.BRANCH = p.BRANCH AND ur.TYPE = p.TYPE " +
+            "            AND (ur.TO_DATE IS NULL OR ur.TO_DATE >= NVL(p.FROM_DATE, DATE '1900-01-01')) " +
+            "            AND (ur.FROM_DATE IS NULL OR ur.FROM_DATE <= NVL(p.TO_DATE, DATE '9999-12-31')))";
+
+    // Trùng (user, role, khối, đơn vị, loại) với một dòng hợp lệ phía trước trong file
+    private static final String CHECK_DUPLICATE_PERMISSIONS =
+            "UPDATE IMP_PERMISSION_STAGE p " +
+            "SET ERROR_MSG = " + PERMISSION_LABEL + "|| ' bị trùng lặp trong file cho user ''' || p.USER_NAME || '''' " +
+            "WHERE p.IMPORT_ID = ? AND p.ERROR_MSG IS NULL " +
+            "AND EXISTS (SELECT 1 FROM IMP_PERMISSION_STAGE d WHERE d.IMPORT_ID = p.IMPORT_ID " +
+            "            AND d.ROW_NUM < p.ROW_NUM AND d.ERROR_MSG IS NULL " +
+            "            AND d.USER_NAME = p.USER_NAME AND d.ROLE_ID = p.ROLE_ID " +
+            "            AND d.BANK = p.BANK AND d.BRANCH = p.BRANCH " +
+            "            AND (d.TYPE = p.TYPE OR (d.TYPE IS NULL AND p.TYPE IS NULL)))";
+
+    private static final String MERGE_USERS =
+            "MERGE INTO USER_OFFER u " +
+            "USING (SELECT USER_NAME, EMAIL, FULL_NAME, BIRTH_DAY, GENDER, PHONE, SUB_SYSTEM FROM IMP_USER_STAGE " +
+            "       WHERE IMPORT_ID = ? AND ERROR_MSG IS NULL AND EXISTING_USER_ID IS NULL) s " +
+            "ON (u.USER_NAME = s.USER_NAME) " +
+            "WHEN NOT MATCHED THEN INSERT (ID, USER_NAME, EMAIL, FULL_NAME, BIRTH_DAY, GENDER, PHONE, SUB_SYSTEM, STATUS, " +
+            "                              CREATED_BY, CREATED_TIME) " +
+            "VALUES (user_offer_seq.NEXTVAL, s.USER_NAME, s.EMAIL, s.FULL_NAME, s.BIRTH_DAY, s.GENDER, s.PHONE, s.SUB_SYSTEM, " +
+            "        'ACTIVE', 'SYSTEM_IMPORT', ?)";
+
+    private static final String INSERT_PERMISSIONS =
+            "INSERT INTO USER_ROLE_OFFER (ID, TYPE, ROLE_ID, BANK, BRANCH, FROM_DATE, TO_DATE, USER_ID) " +
+            "SELECT user_role_offer_seq.NEXTVAL, p.TYPE, p.ROLE_ID, p.BANK, p.BRANCH, p.FROM_DATE, p.TO_DATE, u.ID " +
+            "FROM IMP_PERMISSION_STAGE p JOIN USER_OFFER u ON u.USER_NAME = p.USER_NAME " +
+            "WHERE p.IMPORT_ID = ? AND p.ERROR_MSG IS NULL";
+
+    private static final String SELECT_IMPORTED_USERS =
+            "SELECT u.ID, u.USER_NAME, u.FULL_NAME, u.EMAIL " +
+            "FROM IMP_USER_STAGE s JOIN USER_OFFER u ON u.USER_NAME = s.USER_NAME " +
+            "WHERE s.IMPORT_ID = ? AND s.ERROR_MSG IS NULL AND s.EXISTING_USER_ID IS NULL";
+
+    // User được tạo mới hoặc được thêm phân quyền trong lần import
+    private static final String SELECT_AFFECTED_USER_NAMES =
+            "SELECT USER_NAME FROM IMP_USER_STAGE WHERE IMPORT_ID = ? AND ERROR_MSG IS NULL AND EXISTING_USER_ID IS NULL " +
+            "UNION SELECT USER_NAME FROM IMP_PERMISSION_STAGE WHERE IMPORT_ID = ? AND ERROR_MSG IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserSearchIndex searchIndex;
+    private final UserPermissionCache permissionCache;
+
+    public SqlUserImportEngine(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               UserSearchIndex searchIndex, UserPermissionCache permissionCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.searchIndex = searchIndex;
+        this.permissionCache = permissionCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ImportResult importUsers(SheetReader reader, String userSheet, String permissionSheet, int firstRow,
+                                    ImportReport report, ImportProgress progress) throws IOException {
+        String importId = UUID.randomUUID().toString();
+        try {
+            // --- BƯỚC 1: NẠP DỮ LIỆU THÔ VÀO STAGING (luật trên từng cột check luôn khi nạp) ---
+            progress.phase(ImportPhase.READING);
+            loadSheet(reader, userSheet, firstRow, progress, INSERT_USER_STAGE, row -> {
+                ValidatedRow v = ImportRules.USER.validate(row, null);
+                return new Object[]{importId, row.getRowNum(), stage(v.get(0)), stage(v.get(1)), stage(v.get(2)),
+                        v.getDate(3), v.get(4), stage(v.get(5)), stage(v.get(6)), errorOf(v)};
+            });
+            int permissionRows = loadSheet(reader, permissionSheet, firstRow, progress, INSERT_PERMISSION_STAGE, row -> {
+                ValidatedRow v = ImportRules.PERMISSION_COLUMNS.validate(row, null);
+                return new Object[]{importId, row.getRowNum(), stage(v.get(0)), stage(v.get(1)), stage(v.get(2)),
+                        stage(v.get(3)), stage(v.get(4)), v.getDate(5), v.getDate(6), errorOf(v)};
+            });
+            progress.checkCancelled();
+
+            // --- BƯỚC 2 & 3: VALIDATE SET-BASED + GHI DỮ LIỆU (1 transaction) ---
+            transactionTemplate.executeWithoutResult(status -> {
+                progress.phase(ImportPhase.VALIDATING_USERS);
+                jdbcTemplate.update(MARK_EXISTING_USERS, importId);
+                jdbcTemplate.update(CHECK_USER_LENGTH, importId);
+                jdbcTemplate.update(CHECK_DUPLICATE_USERS, importId);
+
+                progress.phase(ImportPhase.VALIDATING_PERMISSIONS);
+                jdbcTemplate.update(RESOLVE_ROLES, importId);
+                jdbcTemplate.update(CHECK_UNKNOWN_USERS, importId);
+                jdbcTemplate.update(CHECK_UNKNOWN_ROLES, importId);
+                jdbcTemplate.update(CHECK_PERMISSION_LENGTH, importId);
+                jdbcTemplate.update(CHECK_EXISTING_PERMISSIONS, importId);
+                jdbcTemplate.update(CHECK_DUPLICATE_PERMISSIONS, importId);
+
+                progress.phase(ImportPhase.SAVING);
+                int insertedUsers = jdbcTemplate.update(MERGE_USERS, importId, LocalDateTime.now());
+                int insertedRoles = jdbcTemplate.update(INSERT_PERMISSIONS, importId);
+                log.info("SQL import {}: inserted {} users, {} permissions", importId, insertedUsers, insertedRoles);
+                permissionCache.invalidate(
+                        jdbcTemplate.queryForList(SELECT_AFFECTED_USER_NAMES, String.class, importId, importId));
+            });
+
+            indexImportedUsers(importId);
+            return buildResult(importId, userSheet, permissionSheet, permissionRows, report);
+        } finally {
+            jdbcTemplate.update("DELETE FROM IMP_PERMISSION_STAGE WHERE IMPORT_ID = ?", importId);
+            jdbcTemplate.update("DELETE FROM IMP_USER_STAGE WHERE IMPORT_ID = ?", importId);
+        }
+    }
+
+    // User mới của lần import (đã commit) -> cập nhật index tìm kiếm
+    private void indexImportedUsers(String importId) {
+        jdbcTemplate.query(SELECT_IMPORTED_USERS, rs -> {
+            searchIndex.index(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4));
+        }, importId);
+    }
+
+    // Trả về số dòng có dữ liệu đã nạp
+    private int loadSheet(SheetReader reader, String sheetName, int firstRow, ImportProgress progress,
+                          String insertSql, Function<ImportRow, Object[]> toParams) throws IOException {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        int[] rowCount = {0};
+        reader.readSheet(sheetName, firstRow, row -> {
+            progress.checkCancelled();
+            if (row.isEmpty()) return;
+            rowCount[0]++;
+            Object[] params = toParams.apply(row);
+            batch.add(params);
+            progress.rowProcessed(params[params.length - 1] != null);
+            if (batch.size() >= BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(insertSql, batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(insertSql, batch);
+        }
+        return rowCount[0];
+    }
+
+    // Lỗi của một dòng đã được nối sẵn trong ERROR_MSG nên mỗi dòng chỉ có một issue (mã INVALID, không gắn cột)
+    private ImportResult buildResult(String importId, String userSheet, String permissionSheet, int permissionRows,
+                                     ImportReport report) {
+        jdbcTemplate.query("SELECT ROW_NUM, USER_NAME, EXISTING_USER_ID, ERROR_MSG FROM IMP_USER_STAGE " +
+                        "WHERE IMPORT_ID = ? AND (ERROR_MSG IS NOT NULL OR EXISTING_USER_ID IS NOT NULL) ORDER BY ROW_NUM",
+                rs -> {
+                    int rowNum = rs.getInt("ROW_NUM");
+                    if (rs.getObject("EXISTING_USER_ID") != null) {
+                        report.rowWarning(userSheet, "Sheet User", rowNum, new RowError(0, ImportErrorCode.USER_EXISTS,
+                                "Username '" + rs.getString("USER_NAME") + "' đã tồn tại trên hệ thống (sẽ thêm phân quyền nếu có)"));
+                    } else {
+                        report.rowErrors(userSheet, "Sheet User", rowNum,
+                                List.of(RowError.ofRow(ImportErrorCode.INVALID, rs.getString("ERROR_MSG"))));
+                    }
+                }, importId);
+        jdbcTemplate.query("SELECT ROW_NUM, ERROR_MSG FROM IMP_PERMISSION_STAGE " +
+                        "WHERE IMPORT_ID = ? AND ERROR_MSG IS NOT NULL ORDER BY ROW_NUM",
+                rs -> {
+                    report.rowErrors(permissionSheet, "Sheet Phân quyền", rs.getInt("ROW_NUM"),
+                            List.of(RowError.ofRow(ImportErrorCode.INVALID, rs.getString("ERROR_MSG"))));
+                }, importId);
+
+        Integer distinctUsers = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT USER_NAME) FROM IMP_USER_STAGE WHERE IMPORT_ID = ?", Integer.class, importId);
+        Integer totalProcessed = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM IMP_USER_STAGE WHERE IMPORT_ID = ? AND ERROR_MSG IS NULL", Integer.class, importId);
+        Integer newUsers = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM IMP_USER_STAGE WHERE IMPORT_ID = ? AND ERROR_MSG IS NULL AND EXISTING_USER_ID IS NULL",
+                Integer.class, importId);
+
+        return ImportResult.builder()
+                .importId(report.getId())
+                .totalRows(distinctUsers + permissionRows)
+                .successCount(totalProcessed)
+                .errorCount(report.getErrorCount())
+                .warningCount(report.getWarningCount())
+                .errorDetails(report.getDetails())
+                .detailsTruncated(report.isTruncated())
+                .issuesTruncated(report.isIssuesTruncated())
+                .message(String.format("Tạo mới: %d user, Cập nhật phân quyền: %d user, Cảnh báo: %d",
+                        newUsers, totalProcessed - newUsers, report.getWarningCount()))
+                .build();
+    }
+
+    private static String errorOf(ValidatedRow row) {
+        return row.hasErrors() ? StringUtils.left(String.join("; ", row.getErrors()), 4000) : null;
+    }
+
+    // Cắt bớt giá trị quá dài để không làm hỏng batch insert; cột đích sẽ được check độ dài bằng SQL
+    private static String stage(String value) {
+        return StringUtils.isEmpty(value) ? null : StringUtils.left(value, MAX_STAGE_LENGTH);
+    }
+}
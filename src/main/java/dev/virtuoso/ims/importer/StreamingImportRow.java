@@ -0,0 +1,43 @@
+package dev.virtuoso.ims.importer;
+
+import dev.virtuoso.ims.util.ExcelUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.time.LocalDate;
+
+// Dòng import chỉ giữ giá trị chuỗi đã format của từng ô (mọi reader), không tham chiếu tới file/workbook
+public class StreamingImportRow implements ImportRow {
+
+    private final int rowNum;
+    private final String[] values;
+
+    public StreamingImportRow(int rowNum, String[] values) {
+        this.rowNum = rowNum;
+        this.values = values;
+    }
+
+    @Override
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    @Override
+    public String getCellValue(int index) {
+        if (index < 0 || index >= values.length || values[index] == null) return "";
+        return values[index].trim();
+    }
+
+    @Override
+    public LocalDate getDateCellValue(int index) {
+        // Ô kiểu Date đã được reader format sẵn theo dd/MM/yyyy
+        return ExcelUtils.parseDate(getCellValue(index));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (String value : values) {
+            if (StringUtils.isNotBlank(value)) return false;
+        }
+        return true;
+    }
+}
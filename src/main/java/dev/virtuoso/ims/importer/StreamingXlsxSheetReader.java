@@ -0,0 +1,148 @@
+package dev.virtuoso.ims.importer;
+
+import dev.virtuoso.ims.util.ExcelUtils;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Đọc file xlsx theo kiểu streaming (event API của POI - SAX).
+// Chỉ giữ trong bộ nhớ shared strings, styles và dòng đang đọc, không dựng object model của cả sheet.
+public class StreamingXlsxSheetReader implements SheetReader {
+
+    private final OPCPackage pkg;
+    private final XSSFReader xssfReader;
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final StylesTable styles;
+    private final Set<String> sheetNames = new HashSet<>();
+
+    public StreamingXlsxSheetReader(Path path) throws IOException {
+        try {
+            this.pkg = OPCPackage.open(path.toFile(), PackageAccess.READ);
+            this.xssfReader = new XSSFReader(pkg);
+            this.sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+            this.styles = xssfReader.getStylesTable();
+
+            XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            while (iter.hasNext()) {
+                try (InputStream ignored = iter.next()) {
+                    sheetNames.add(iter.getSheetName());
+                }
+            }
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IOException("Không đọc được file xlsx: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean hasSheet(String sheetName) {
+        return sheetNames.contains(sheetName);
+    }
+
+    @Override
+    public int readSheet(String sheetName, int firstRow, Consumer<ImportRow> consumer) throws IOException {
+        if (!hasSheet(sheetName)) {
+            throw new IllegalArgumentException("Không tìm thấy sheet '" + sheetName + "'");
+        }
+        RowCollector collector = new RowCollector(firstRow, consumer);
+        try {
+            XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            while (iter.hasNext()) {
+                try (InputStream sheetStream = iter.next()) {
+                    if (!sheetName.equals(iter.getSheetName())) continue;
+
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(
+                            styles, sharedStrings, collector, new ImportDataFormatter(), false));
+                    parser.parse(new InputSource(sheetStream));
+                    break;
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Lỗi đọc sheet '" + sheetName + "': " + e.getMessage(), e);
+        }
+        return collector.lastRowNum;
+    }
+
+    @Override
+    public void close() {
+        // Mở ở chế độ READ nên chỉ cần revert, không ghi lại file
+        pkg.revert();
+    }
+
+    // Gom các ô của một dòng rồi đẩy ra consumer khi kết thúc dòng
+    private static class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final int firstRow;
+        private final Consumer<ImportRow> consumer;
+        private String[] values = new String[16];
+        private int maxCol = -1;
+        private int currentCol = -1;
+        private int lastRowNum;
+
+        RowCollector(int firstRow, Consumer<ImportRow> consumer) {
+            this.firstRow = firstRow;
+            this.consumer = consumer;
+            this.lastRowNum = firstRow - 1;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            maxCol = -1;
+            currentCol = -1;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            lastRowNum = Math.max(lastRowNum, rowNum);
+            if (rowNum >= firstRow) {
+                consumer.accept(new StreamingImportRow(rowNum, Arrays.copyOf(values, maxCol + 1)));
+            }
+            // Xóa cả dòng bị bỏ qua (tiêu đề), nếu không ô trống của dòng sau sẽ mang giá trị cũ
+            Arrays.fill(values, 0, maxCol + 1, null);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            // Một số file không ghi thuộc tính r của ô, khi đó lấy cột kế tiếp
+            currentCol = cellReference != null ? new CellReference(cellReference).getCol() : currentCol + 1;
+            if (currentCol >= values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, currentCol + 1));
+            }
+            values[currentCol] = formattedValue;
+            maxCol = Math.max(maxCol, currentCol);
+        }
+    }
+
+    // Format ô ngày về dd/MM/yyyy để ImportRow parse được thống nhất với chế độ DOM
+    private static class ImportDataFormatter extends DataFormatter {
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value, use1904Windowing).toLocalDate().format(ExcelUtils.DATE_FORMATTER);
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString, use1904Windowing);
+        }
+    }
+}
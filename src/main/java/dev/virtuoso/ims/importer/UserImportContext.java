@@ -0,0 +1,41 @@
+package dev.virtuoso.ims.importer;
+
+import dev.virtuoso.ims.entity.RoleOffer;
+import dev.virtuoso.ims.entity.UserOffer;
+import dev.virtuoso.ims.entity.UserRoleOffer;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Trạng thái dùng chung trong một lần import (chỉ sống trong phạm vi một file)
+@Getter
+public class UserImportContext {
+
+    private final Map<String, RoleOffer> roleMap;                    // ROLE_NAME (upper) -> role
+    private final ExistingPermissionIndex existingPermissions;       // phân quyền đã có trong DB
+
+    // Giữ thứ tự dòng trong file để chia lô khi lưu DB
+    private final Map<String, UserOffer> validUserMap = new LinkedHashMap<>();
+    // Phân quyền mới cần thêm, theo username (không gắn vào userRoles để tránh load collection của user đã có)
+    private final Map<String, List<UserRoleOffer>> newRolesByUser = new HashMap<>();
+    // Phân quyền đã đọc trong file, dùng check trùng trong file: O(1) mỗi dòng
+    private final Map<PermissionKey, UserRoleOffer> permissionsInFile = new HashMap<>();
+
+    public UserImportContext(Map<String, RoleOffer> roleMap, ExistingPermissionIndex existingPermissions) {
+        this.roleMap = roleMap;
+        this.existingPermissions = existingPermissions;
+    }
+
+    // Trả về false nếu phân quyền cùng (user, role, khối, đơn vị, loại) đã có trong file
+    public boolean addPermission(PermissionKey key, UserRoleOffer permission) {
+        if (permissionsInFile.putIfAbsent(key, permission) != null) {
+            return false;
+        }
+        newRolesByUser.computeIfAbsent(key.userName(), k -> new ArrayList<>()).add(permission);
+        return true;
+    }
+}
@@ -0,0 +1,68 @@
+package dev.virtuoso.ims.importer;
+
+import dev.virtuoso.ims.entity.UserOffer;
+import dev.virtuoso.ims.entity.UserRoleOffer;
+import dev.virtuoso.ims.search.UserSearchIndex;
+import dev.virtuoso.ims.security.UserPermissionCache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Ghi dữ liệu import xuống DB theo từng lô, mỗi lô một transaction riêng.
+// Insert được Hibernate gom thành JDBC batch (hibernate.jdbc.batch_size + order_inserts),
+// persistence context được clear sau mỗi lô để bộ nhớ không tăng theo kích thước file.
+@Component
+public class UserImportWriter {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final UserSearchIndex searchIndex;
+    private final UserPermissionCache permissionCache;
+
+    public UserImportWriter(PlatformTransactionManager transactionManager, UserSearchIndex searchIndex,
+                            UserPermissionCache permissionCache) {
+        this.searchIndex = searchIndex;
+        this.permissionCache = permissionCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // users: user mới (id == null) hoặc user đã có trên hệ thống được thêm phân quyền.
+    // Lỗi ở lô nào chỉ rollback lô đó.
+    public void writeChunk(List<UserOffer> users, Map<String, List<UserRoleOffer>> newRolesByUser) {
+        List<UserOffer> created = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (UserOffer user : users) {
+                UserOffer owner;
+                if (user.getId() == null) {
+                    entityManager.persist(user);
+                    created.add(user);
+                    owner = user;
+                } else {
+                    // User đã tồn tại: chỉ cần tham chiếu để gán USER_ID, không load lại entity
+                    owner = entityManager.getReference(UserOffer.class, user.getId());
+                }
+
+                for (UserRoleOffer role : newRolesByUser.getOrDefault(user.getUserName(), List.of())) {
+                    role.setUserOffer(owner);
+                    entityManager.persist(role);
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            // User mới hoặc được thêm phân quyền: quyền hiệu lực cache (nếu có) đã cũ
+            permissionCache.invalidate(users.stream().map(UserOffer::getUserName).toList());
+        });
+        // Lô đã commit mới đưa user mới vào index tìm kiếm
+        searchIndex.indexAll(created);
+    }
+}
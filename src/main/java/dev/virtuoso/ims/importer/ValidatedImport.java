@@ -0,0 +1,24 @@
+package dev.virtuoso.ims.importer;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.Set;
+
+// Kết quả đọc + validate một file import, chưa ghi DB.
+// Dry run giữ lại đối tượng này để bước xác nhận ghi thẳng xuống DB mà không đọc lại file.
+@Getter
+@RequiredArgsConstructor
+public class ValidatedImport {
+
+    private final UserImportContext context;
+    private final ImportReport report;
+    private final int newUserCount;
+    private final int totalRows;
+
+    // Snapshot dữ liệu hệ thống lúc validate, dùng kiểm tra kết quả còn đúng hay không
+    private final Set<String> usernamesInFile;
+    private final Map<String, Long> existingUserIds;    // username -> id của user đã có trên hệ thống
+    private final Map<String, Long> roleIds;            // ROLE_NAME (upper) -> id
+}
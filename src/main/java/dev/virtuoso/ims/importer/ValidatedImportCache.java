@@ -0,0 +1,61 @@
+package dev.virtuoso.ims.importer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+// Cache kết quả dry run theo hash nội dung file (LRU, giới hạn số file và thời gian giữ).
+// Mỗi entry giữ toàn bộ dòng đã validate nên số entry để nhỏ.
+@Component
+public class ValidatedImportCache {
+
+    private record Entry(ValidatedImport value, Instant createdTime) {
+    }
+
+    private final int maxEntries;
+    private final Duration ttl;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public ValidatedImportCache(@Value("${ims.import.dry-run.cache-size:5}") int maxEntries,
+                                @Value("${ims.import.dry-run.ttl-minutes:30}") long ttlMinutes) {
+        this.maxEntries = maxEntries;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+    }
+
+    public synchronized void put(String contentHash, ValidatedImport value) {
+        purgeExpired();
+        entries.put(contentHash, new Entry(value, Instant.now()));
+        // Bỏ file ít dùng nhất khi vượt giới hạn
+        Iterator<String> eldest = entries.keySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    public synchronized ValidatedImport get(String contentHash) {
+        purgeExpired();
+        Entry entry = entries.get(contentHash);
+        return entry == null ? null : entry.value();
+    }
+
+    // Lấy ra và xóa luôn: mỗi kết quả dry run chỉ được ghi DB một lần
+    public synchronized ValidatedImport remove(String contentHash) {
+        purgeExpired();
+        Entry entry = entries.remove(contentHash);
+        return entry == null ? null : entry.value();
+    }
+
+    private void purgeExpired() {
+        Instant expiredBefore = Instant.now().minus(ttl);
+        entries.values().removeIf(e -> e.createdTime().isBefore(expiredBefore));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
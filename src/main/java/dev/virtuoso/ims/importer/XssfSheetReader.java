@@ -0,0 +1,50 @@
+package dev.virtuoso.ims.importer;
+
+import dev.virtuoso.ims.util.ExcelUtils;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+// Đọc toàn bộ workbook vào bộ nhớ (XSSFWorkbook). Phù hợp file nhỏ.
+// Giá trị ô được copy ra chuỗi ngay trên thread đọc: usermodel của POI không thread-safe,
+// còn các dòng được validate song song (ParallelRowProcessor).
+public class XssfSheetReader implements SheetReader {
+
+    private final Workbook workbook;
+
+    public XssfSheetReader(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            this.workbook = new XSSFWorkbook(in);
+        }
+    }
+
+    @Override
+    public boolean hasSheet(String sheetName) {
+        return workbook.getSheet(sheetName) != null;
+    }
+
+    @Override
+    public int readSheet(String sheetName, int firstRow, Consumer<ImportRow> consumer) {
+        Sheet sheet = workbook.getSheet(sheetName);
+        if (sheet == null) {
+            throw new IllegalArgumentException("Không tìm thấy sheet '" + sheetName + "'");
+        }
+        for (int i = firstRow; i <= sheet.getLastRowNum(); i++) {
+            Row row = sheet.getRow(i);
+            consumer.accept(new StreamingImportRow(i, ExcelUtils.getRowValues(row)));
+        }
+        return sheet.getLastRowNum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.close();
+    }
+}
@@ -0,0 +1,138 @@
+package dev.virtuoso.ims.reference;
+
+import dev.virtuoso.ims.dto.response.ReferenceDataStats;
+import dev.virtuoso.ims.entity.interest.LoanInterestParam;
+import dev.virtuoso.ims.entity.interest.LoanInterestParamType;
+import dev.virtuoso.ims.repository.interest.LoanInterestParamRepository;
+import dev.virtuoso.ims.repository.interest.LoanInterestParamTypeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snapshot trong bộ nhớ của loại tham số lãi suất và các giá trị ACTIVE theo từng loại.
+ * Load 1 lần khi khởi động, làm mới định kỳ hoặc khi có thông báo thay đổi (refresh());
+ * người đọc luôn thấy trọn một snapshot, không query DB.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InterestReferenceData {
+
+    public static final String ACTIVE = "ACTIVE";
+
+    private final LoanInterestParamTypeRepository typeRepo;
+    private final LoanInterestParamRepository paramRepo;
+
+    private final AtomicLong refreshCount = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    // typesByName / paramIds: tra cứu ngược khi đọc file template đã điền (tên cột -> loại, giá trị -> param ID)
+    public record Snapshot(Map<Integer, LoanInterestParamType> types,
+                           Map<Integer, List<String>> activeValues,
+                           Map<String, LoanInterestParamType> typesByName,
+                           Map<Integer, Map<String, Integer>> paramIds,
+                           LocalDateTime loadedAt,
+                           long loadMillis) {
+
+        public LoanInterestParamType type(Integer typeId) {
+            return typeId == null ? null : types.get(typeId);
+        }
+
+        public LoanInterestParamType typeByName(String name) {
+            return name == null ? null : typesByName.get(name.trim());
+        }
+
+        // ID của giá trị ACTIVE thuộc loại typeId, null nếu không hợp lệ
+        public Integer paramId(int typeId, String value) {
+            Map<String, Integer> ids = paramIds.get(typeId);
+            return ids == null ? null : ids.get(value);
+        }
+
+        public List<String> values(Integer typeId) {
+            return activeValues.getOrDefault(typeId, List.of());
+        }
+
+        public int valueCount() {
+            return activeValues.values().stream().mapToInt(List::size).sum();
+        }
+    }
+
+    public Snapshot current() {
+        Snapshot s = snapshot;
+        return s != null ? s : refresh();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refresh();
+    }
+
+    @Scheduled(initialDelayString = "${ims.interest.reference.refresh-minutes:10}",
+            fixedDelayString = "${ims.interest.reference.refresh-minutes:10}",
+            timeUnit = TimeUnit.MINUTES)
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Giữ snapshot cũ, lần sau thử lại
+            log.warn("Làm mới dữ liệu tham số lãi suất thất bại", e);
+        }
+    }
+
+    // Load lại toàn bộ (2 query) rồi thay snapshot một lần
+    public synchronized Snapshot refresh() {
+        long start = System.currentTimeMillis();
+
+        Map<Integer, LoanInterestParamType> types = new LinkedHashMap<>();
+        Map<String, LoanInterestParamType> typesByName = new HashMap<>();
+        for (LoanInterestParamType type : typeRepo.findAll()) {
+            types.put(type.getId(), type);
+            if (type.getName() != null) typesByName.putIfAbsent(type.getName().trim(), type);
+        }
+        Map<Integer, List<String>> values = new LinkedHashMap<>();
+        Map<Integer, Map<String, Integer>> paramIds = new HashMap<>();
+        for (LoanInterestParam param : paramRepo.findByStatusOrderByIdAsc(ACTIVE)) {
+            values.computeIfAbsent(param.getTypeId(), k -> new ArrayList<>()).add(param.getValue());
+            if (param.getValue() != null) {
+                paramIds.computeIfAbsent(param.getTypeId(), k -> new HashMap<>())
+                        .putIfAbsent(param.getValue().trim(), param.getId());
+            }
+        }
+        values.replaceAll((k, v) -> List.copyOf(v));
+        paramIds.replaceAll((k, v) -> Map.copyOf(v));
+
+        Snapshot loaded = new Snapshot(Collections.unmodifiableMap(types), Collections.unmodifiableMap(values),
+                Map.copyOf(typesByName), Map.copyOf(paramIds),
+                LocalDateTime.now(), System.currentTimeMillis() - start);
+        snapshot = loaded;
+        refreshCount.incrementAndGet();
+        log.debug("Loaded interest reference data: {} types, {} values in {} ms",
+                types.size(), loaded.valueCount(), loaded.loadMillis());
+        return loaded;
+    }
+
+    public ReferenceDataStats stats() {
+        Snapshot s = current();
+        return ReferenceDataStats.builder()
+                .loadedAt(s.loadedAt())
+                .loadMillis(s.loadMillis())
+                .typeCount(s.types().size())
+                .valueCount(s.valueCount())
+                .refreshCount(refreshCount.get())
+                .build();
+    }
+}
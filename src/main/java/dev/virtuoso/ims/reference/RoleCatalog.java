@@ -0,0 +1,160 @@
+package dev.virtuoso.ims.reference;
+
+import dev.virtuoso.ims.dto.response.RoleCatalogStats;
+import dev.virtuoso.ims.entity.RoleOffer;
+import dev.virtuoso.ims.entity.rbac.ActionOffer;
+import dev.virtuoso.ims.entity.rbac.ResourceOffer;
+import dev.virtuoso.ims.repository.RoleOfferRepository;
+import dev.virtuoso.ims.repository.rbac.ActionOfferRepository;
+import dev.virtuoso.ims.repository.rbac.ResourceOfferRepository;
+import dev.virtuoso.ims.util.CoalescingCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Danh mục role/action/resource trong bộ nhớ (các bảng rất nhỏ, hầu như không đổi).
+ * Load khi cần lần đầu, bị xóa khi có ghi vào các bảng role/RBAC qua JPA
+ * (xem {@link RoleCatalogListener}) và tự load lại sau ttl-minutes để bắt các thay đổi bằng SQL tay.
+ * <p>
+ * Entity trong snapshot dùng chung giữa các request: chỉ đọc, không sửa.
+ */
+@Component
+@Slf4j
+public class RoleCatalog {
+
+    private static final String KEY = "catalog";
+
+    private final RoleOfferRepository roleRepo;
+    private final ActionOfferRepository actionRepo;
+    private final ResourceOfferRepository resourceRepo;
+    private final long ttlMinutes;
+    private final long ttlNanos;
+
+    // 1 entry: các request cùng lúc lúc cache trống chỉ load 1 lần
+    private final CoalescingCache<String, Snapshot> cache = new CoalescingCache<>(1);
+    private final LongAdder invalidations = new LongAdder();
+    private final List<Runnable> invalidationListeners = new CopyOnWriteArrayList<>();
+
+    public record Snapshot(Map<Long, RoleOffer> roles,
+                           Map<String, RoleOffer> rolesByName,
+                           Map<Long, ActionOffer> actions,
+                           Map<Long, ResourceOffer> resources,
+                           LocalDateTime loadedAt,
+                           long loadedNanos,
+                           long loadMillis) {
+
+        public Optional<RoleOffer> roleByName(String roleName) {
+            return roleName == null ? Optional.empty()
+                    : Optional.ofNullable(rolesByName.get(roleName.trim().toUpperCase(Locale.ROOT)));
+        }
+    }
+
+    public RoleCatalog(RoleOfferRepository roleRepo, ActionOfferRepository actionRepo,
+                       ResourceOfferRepository resourceRepo,
+                       @Value("${ims.rbac.catalog.ttl-minutes:30}") long ttlMinutes) {
+        this.roleRepo = roleRepo;
+        this.actionRepo = actionRepo;
+        this.resourceRepo = resourceRepo;
+        this.ttlMinutes = ttlMinutes;
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(ttlMinutes);
+    }
+
+    public Snapshot current() {
+        Snapshot s = cache.get(KEY, this::load);
+        if (System.nanoTime() - s.loadedNanos() > ttlNanos) {
+            cache.invalidateAll();
+            s = cache.get(KEY, this::load);
+        }
+        return s;
+    }
+
+    // ROLE_NAME (chữ hoa) -> role, thay cho findAll() + dựng map ở mỗi lần import
+    public Map<String, RoleOffer> rolesByName() {
+        return current().rolesByName();
+    }
+
+    // Thay cho RoleOfferRepository#findByRoleNameIgnoreCase
+    public Optional<RoleOffer> findByRoleNameIgnoreCase(String roleName) {
+        return current().roleByName(roleName);
+    }
+
+    // Dữ liệu dẫn xuất từ catalog (vd: ma trận RBAC) đăng ký để được báo khi catalog bị xóa
+    public void onInvalidate(Runnable listener) {
+        invalidationListeners.add(listener);
+    }
+
+    // Xóa ngay, và xóa lần nữa khi transaction kết thúc: request khác có thể đã load lại dữ liệu cũ
+    // trong lúc transaction ghi chưa commit
+    public void invalidate() {
+        clear();
+        invalidations.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    clear();
+                }
+            });
+        }
+    }
+
+    private void clear() {
+        cache.invalidateAll();
+        invalidationListeners.forEach(Runnable::run);
+    }
+
+    public RoleCatalogStats stats() {
+        Snapshot s = current();
+        return RoleCatalogStats.builder()
+                .loadedAt(s.loadedAt())
+                .loadMillis(s.loadMillis())
+                .roleCount(s.roles().size())
+                .actionCount(s.actions().size())
+                .resourceCount(s.resources().size())
+                .ttlMinutes(ttlMinutes)
+                .invalidations(invalidations.sum())
+                .cache(cache.stats())
+                .build();
+    }
+
+    private Snapshot load() {
+        long start = System.currentTimeMillis();
+
+        Map<Long, RoleOffer> roles = new LinkedHashMap<>();
+        Map<String, RoleOffer> rolesByName = new HashMap<>();
+        // Trùng tên (khác hoa/thường) thì lấy role ID nhỏ nhất, giống engine import SQL
+        roleRepo.findAll().stream().sorted(Comparator.comparing(RoleOffer::getId)).forEach(role -> {
+            roles.put(role.getId(), role);
+            if (role.getRoleName() != null) {
+                rolesByName.putIfAbsent(role.getRoleName().trim().toUpperCase(Locale.ROOT), role);
+            }
+        });
+        Map<Long, ActionOffer> actions = new LinkedHashMap<>();
+        actionRepo.findAll().forEach(action -> actions.put(action.getId(), action));
+        Map<Long, ResourceOffer> resources = new LinkedHashMap<>();
+        resourceRepo.findAll().forEach(resource -> resources.put(resource.getId(), resource));
+
+        Snapshot loaded = new Snapshot(Collections.unmodifiableMap(roles), Map.copyOf(rolesByName),
+                Collections.unmodifiableMap(actions), Collections.unmodifiableMap(resources),
+                LocalDateTime.now(), System.nanoTime(), System.currentTimeMillis() - start);
+        log.debug("Loaded role catalog: {} roles, {} actions, {} resources in {} ms",
+                roles.size(), actions.size(), resources.size(), loaded.loadMillis());
+        return loaded;
+    }
+}
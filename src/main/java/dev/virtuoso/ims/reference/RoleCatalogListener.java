@@ -0,0 +1,26 @@
+package dev.virtuoso.ims.reference;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Entity listener của RoleOffer/ActionOffer/ResourceOffer/ActionResource/RoleActRes: mọi ghi qua JPA đều xóa RoleCatalog
+// (kéo theo ma trận RBAC được dựng lại).
+// Hibernate tạo listener qua Spring (SpringBeanContainer) nên inject được; dùng ObjectProvider vì listener
+// được tạo lúc dựng EntityManagerFactory, trước khi RoleCatalog (cần repository) sẵn sàng.
+public class RoleCatalogListener {
+
+    private final ObjectProvider<RoleCatalog> catalog;
+
+    public RoleCatalogListener(ObjectProvider<RoleCatalog> catalog) {
+        this.catalog = catalog;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        catalog.ifAvailable(RoleCatalog::invalidate);
+    }
+}
@@ -1,17 +1,28 @@
 package dev.virtuoso.ims.repository;
 
+import dev.virtuoso.ims.dto.request.UserCursor;
 import dev.virtuoso.ims.entity.UserOffer;
+import dev.virtuoso.ims.repository.projection.UserExportRow;
+import dev.virtuoso.ims.repository.projection.UserViewRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserOfferRepository extends JpaRepository<UserOffer, Long> {
@@ -23,19 +34,98 @@ public interface UserOfferRepository extends JpaRepository<UserOffer, Long> {
     // Select * from user_offer where user_name in ('u1', 'u2', ...)
     List<UserOffer> findByUserNameIn(Collection<String> userNames);
 
+    // Đăng nhập qua header của SSO (OfferUserDetailsService): chỉ cần trạng thái, không load entity
+    @Query("SELECT u.status FROM UserOffer u WHERE u.userName = :userName")
+    Optional<String> findStatusByUserName(@Param("userName") String userName);
+
     // Find by ID with userRoles eagerly loaded
     @EntityGraph(attributePaths = {"userRoles"})
     Optional<UserOffer> findById(Long id);
 
-    // Find all with userRoles eagerly loaded
-    @EntityGraph(attributePaths = {"userRoles"})
-    Page<UserOffer> findAll(Pageable pageable);
+    // Phân trang 2 bước: EntityGraph trên collection + Pageable khiến Hibernate không đưa được LIMIT/OFFSET
+    // xuống SQL (HHH90003004) mà load hết user + role rồi cắt trang trong bộ nhớ.
+    // Bước 1 chỉ lấy ID của trang (LIMIT/OFFSET chạy trong DB), bước 2 load user + role của đúng các ID đó
+    // (findViewRowsByIdIn).
+    @Query("SELECT u.id FROM UserOffer u")
+    Page<Long> findPageIds(Pageable pageable);
 
     // Search by keyword across userName, fullName, and email
-    @EntityGraph(attributePaths = {"userRoles"})
-    @Query("SELECT u FROM UserOffer u WHERE " +
+    // (full scan; chỉ dùng khi UserSearchIndex chưa dựng xong)
+    @Query("SELECT u.id FROM UserOffer u WHERE " +
            "LOWER(u.userName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    Page<UserOffer> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+    Page<Long> searchIdsByKeyword(@Param("keyword") String keyword, Pageable pageable);
+
+    // Thao tác hàng loạt: ID user theo bộ lọc (tham số null = không lọc theo tiêu chí đó)
+    @Query("SELECT u.id FROM UserOffer u WHERE (:status IS NULL OR u.status = :status) " +
+           "AND ((:bank IS NULL AND :branch IS NULL) OR EXISTS (SELECT 1 FROM UserRoleOffer r WHERE r.userOffer = u " +
+           "     AND (:bank IS NULL OR r.bank = :bank) AND (:branch IS NULL OR r.branch = :branch))) " +
+           "ORDER BY u.id")
+    List<Long> findIdsByFilter(@Param("status") String status, @Param("bank") String bank,
+                               @Param("branch") String branch);
+
+    // Tên đăng nhập của một lô user (xóa cache quyền hiệu lực theo user trước khi sửa/xóa hàng loạt)
+    @Query("SELECT u.userName FROM UserOffer u WHERE u.id IN :ids")
+    List<String> findUserNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Xóa set-based (không load entity); phân quyền phải xóa trước (UserRoleOfferRepository#deleteByUserIdIn)
+    @Modifying
+    @Query("DELETE FROM UserOffer u WHERE u.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE UserOffer u SET u.status = :status, u.updatedTime = :updatedTime, u.updatedBy = :updatedBy " +
+           "WHERE u.id IN :ids AND (u.status IS NULL OR u.status <> :status)")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") String status,
+                           @Param("updatedTime") LocalDateTime updatedTime, @Param("updatedBy") String updatedBy);
+
+    // Xuất file: đọc tiến một chiều theo fetch size (phải gọi trong transaction và đóng Stream khi xong).
+    // Kết quả là DTO nên không đi vào persistence context, bộ nhớ không tăng theo số dòng.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new dev.virtuoso.ims.repository.projection.UserExportRow(" +
+           "u.userName, u.email, u.fullName, u.birthDay, u.gender, u.phone, u.subSystem) " +
+           "FROM UserOffer u ORDER BY u.id")
+    Stream<UserExportRow> streamExportRows();
+
+    // Read model cho danh sách/chi tiết: 1 câu JOIN lấy đúng các cột cần (kể cả tên role), trả về DTO thay vì entity
+    @Query("SELECT new dev.virtuoso.ims.repository.projection.UserViewRow(" +
+           "u.id, u.userName, u.fullName, u.email, u.phone, u.birthDay, u.gender, u.subSystem, u.status, " +
+           "u.createdBy, u.createdTime, u.updatedBy, u.updatedTime, " +
+           "r.id, r.type, ro.id, ro.roleName, r.bank, r.branch, r.fromDate, r.toDate) " +
+           "FROM UserOffer u LEFT JOIN u.userRoles r LEFT JOIN r.role ro " +
+           "WHERE u.id IN :ids ORDER BY u.id, r.id")
+    List<UserViewRow> findViewRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Keyset (seek): trang sau đọc tiếp từ (createdTime, id) của user cuối trang trước,
+    // không OFFSET/COUNT nên trang nào cũng tốn như trang đầu (dùng index CREATED_TIME DESC, ID DESC)
+    @Query("SELECT u.id FROM UserOffer u WHERE u.createdTime IS NOT NULL ORDER BY u.createdTime DESC, u.id DESC")
+    List<Long> findFirstIdsByCreatedTime(Limit limit);
+
+    @Query("SELECT u.id FROM UserOffer u WHERE u.createdTime < :createdTime " +
+           "OR (u.createdTime = :createdTime AND u.id < :id) ORDER BY u.createdTime DESC, u.id DESC")
+    List<Long> findIdsAfter(@Param("createdTime") LocalDateTime createdTime, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT u.id FROM UserOffer u WHERE u.createdTime IS NULL AND u.id < :id ORDER BY u.id DESC")
+    List<Long> findIdsWithoutCreatedTimeBefore(@Param("id") Long id, Limit limit);
+
+    // Tối đa limit ID sau vị trí after (null = từ đầu).
+    // User không có createdTime (dữ liệu cũ) nằm cuối danh sách, sau mọi user có createdTime.
+    default List<Long> scrollIds(UserCursor after, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        if (after == null) {
+            ids.addAll(findFirstIdsByCreatedTime(Limit.of(limit)));
+        } else if (after.createdTime() != null) {
+            ids.addAll(findIdsAfter(after.createdTime(), after.id(), Limit.of(limit)));
+        } else {
+            ids.addAll(findIdsWithoutCreatedTimeBefore(after.id(), Limit.of(limit)));
+        }
+        if (ids.size() < limit && (after == null || after.createdTime() != null)) {
+            ids.addAll(findIdsWithoutCreatedTimeBefore(Long.MAX_VALUE, Limit.of(limit - ids.size())));
+        }
+        return ids;
+    }
 }
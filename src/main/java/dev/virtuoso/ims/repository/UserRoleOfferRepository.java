@@ -3,11 +3,21 @@ package dev.virtuoso.ims.repository;
 import dev.virtuoso.ims.entity.RoleOffer;
 import dev.virtuoso.ims.entity.UserOffer;
 import dev.virtuoso.ims.entity.UserRoleOffer;
+import dev.virtuoso.ims.repository.projection.PermissionExportRow;
+import dev.virtuoso.ims.repository.projection.UserAssignmentRow;
+import dev.virtuoso.ims.repository.projection.UserPermissionRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface UserRoleOfferRepository extends JpaRepository<UserRoleOffer, Long> {
 
@@ -39,4 +49,50 @@ public interface UserRoleOfferRepository extends JpaRepository<UserRoleOffer, Lo
             @Param("fromDate") LocalDate fromDate,
             @Param("toDate") LocalDate toDate
     );
+
+    // Lấy toàn bộ phân quyền của một nhóm user trong 1 query (dùng để check trùng khi import)
+    @Query("SELECT new dev.virtuoso.ims.repository.projection.UserPermissionRow(" +
+            "u.userName, r.id, ur.bank, ur.branch, ur.type, ur.fromDate, ur.toDate) " +
+            "FROM UserRoleOffer ur JOIN ur.userOffer u JOIN ur.role r " +
+            "WHERE u.id IN :userIds")
+    List<UserPermissionRow> findPermissionRowsByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    // Toàn bộ phân quyền (mọi khoảng hiệu lực) của một user ACTIVE, dùng tính quyền hiệu lực RBAC
+    @Query("SELECT new dev.virtuoso.ims.repository.projection.UserAssignmentRow(" +
+            "r.id, ur.bank, ur.branch, ur.fromDate, ur.toDate) " +
+            "FROM UserRoleOffer ur JOIN ur.userOffer u JOIN ur.role r " +
+            "WHERE u.userName = :userName AND u.status = 'ACTIVE'")
+    List<UserAssignmentRow> findAssignmentsOfActiveUser(@Param("userName") String userName);
+
+    // Phân quyền hiện có của một user (sửa user: đối chiếu mà không nạp collection userRoles)
+    @Query("SELECT ur FROM UserRoleOffer ur WHERE ur.userOffer.id = :userId ORDER BY ur.id")
+    List<UserRoleOffer> findByUserId(@Param("userId") Long userId);
+
+    // Thao tác hàng loạt (set-based, không load entity)
+    @Modifying
+    @Query("DELETE FROM UserRoleOffer ur WHERE ur.userOffer.id IN :userIds")
+    int deleteByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("DELETE FROM UserRoleOffer ur WHERE ur.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Thu hồi role: bank/branch/type null = mọi giá trị
+    @Modifying
+    @Query("DELETE FROM UserRoleOffer ur WHERE ur.userOffer.id IN :userIds AND ur.role.id = :roleId " +
+            "AND (:bank IS NULL OR ur.bank = :bank) AND (:branch IS NULL OR ur.branch = :branch) " +
+            "AND (:type IS NULL OR ur.type = :type)")
+    int revokeRole(@Param("userIds") Collection<Long> userIds, @Param("roleId") Long roleId,
+                   @Param("bank") String bank, @Param("branch") String branch, @Param("type") String type);
+
+    // Xuất file: toàn bộ phân quyền kèm tên role, đọc tiến một chiều theo fetch size (xem UserOfferRepository#streamExportRows)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new dev.virtuoso.ims.repository.projection.PermissionExportRow(" +
+            "u.userName, ur.bank, ur.branch, r.roleName, ur.type, ur.fromDate, ur.toDate) " +
+            "FROM UserRoleOffer ur JOIN ur.userOffer u LEFT JOIN ur.role r " +
+            "ORDER BY u.id, ur.id")
+    Stream<PermissionExportRow> streamExportRows();
 }
@@ -9,4 +9,7 @@ import java.util.List;
 public interface LoanInterestParamRepository extends JpaRepository<LoanInterestParam, Integer> {
     // Lấy các param đang ACTIVE theo Type ID
     List<LoanInterestParam> findByTypeIdAndStatus(Integer typeId, String status);
+
+    // Lấy toàn bộ param theo trạng thái trong 1 query, thứ tự ổn định theo ID
+    List<LoanInterestParam> findByStatusOrderByIdAsc(String status);
 }
\ No newline at end of file
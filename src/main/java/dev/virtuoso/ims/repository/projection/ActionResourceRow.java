@@ -0,0 +1,10 @@
+package dev.virtuoso.ims.repository.projection;
+
+// Một quyền (action x resource) của ACTION_RESOURCE, dùng dựng ma trận RBAC
+public record ActionResourceRow(
+        Long id,
+        Long actionId,
+        Long resourceId,
+        String slug
+) {
+}
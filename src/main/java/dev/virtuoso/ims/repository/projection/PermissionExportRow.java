@@ -0,0 +1,15 @@
+package dev.virtuoso.ims.repository.projection;
+
+import java.time.LocalDate;
+
+// Một dòng sheet "Thong_tin_phan_quyen" khi xuất file (cùng thứ tự cột như file import)
+public record PermissionExportRow(
+        String userName,
+        String bank,
+        String branch,
+        String roleName,
+        String type,
+        LocalDate fromDate,
+        LocalDate toDate
+) {
+}
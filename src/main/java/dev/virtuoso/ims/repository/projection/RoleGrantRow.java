@@ -0,0 +1,9 @@
+package dev.virtuoso.ims.repository.projection;
+
+// Một dòng ROLE_ACT_RES: role được cấp action trên resource
+public record RoleGrantRow(
+        Long roleId,
+        Long actionId,
+        Long resourceId
+) {
+}
@@ -0,0 +1,13 @@
+package dev.virtuoso.ims.repository.projection;
+
+import java.time.LocalDate;
+
+// Một phân quyền của user (role + phạm vi + hiệu lực), dùng tính quyền hiệu lực
+public record UserAssignmentRow(
+        Long roleId,
+        String bank,
+        String branch,
+        LocalDate fromDate,
+        LocalDate toDate
+) {
+}
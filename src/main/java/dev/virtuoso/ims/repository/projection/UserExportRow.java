@@ -0,0 +1,15 @@
+package dev.virtuoso.ims.repository.projection;
+
+import java.time.LocalDate;
+
+// Một dòng sheet "User" khi xuất file (cùng thứ tự cột như file import)
+public record UserExportRow(
+        String userName,
+        String email,
+        String fullName,
+        LocalDate birthDay,
+        String gender,
+        String phone,
+        String subSystem
+) {
+}
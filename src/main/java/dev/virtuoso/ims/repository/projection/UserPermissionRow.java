@@ -0,0 +1,15 @@
+package dev.virtuoso.ims.repository.projection;
+
+import java.time.LocalDate;
+
+// Một dòng USER_ROLE_OFFER rút gọn (chỉ các cột cần cho check trùng phân quyền)
+public record UserPermissionRow(
+        String userName,
+        Long roleId,
+        String bank,
+        String branch,
+        String type,
+        LocalDate fromDate,
+        LocalDate toDate
+) {
+}
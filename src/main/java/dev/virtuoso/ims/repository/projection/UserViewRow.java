@@ -0,0 +1,31 @@
+package dev.virtuoso.ims.repository.projection;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Một dòng của câu JOIN user + phân quyền + role (user không có phân quyền: các cột role* = null).
+// Chỉ là DTO, không phải entity: không proxy, không dirty-checking.
+public record UserViewRow(
+        Long id,
+        String userName,
+        String fullName,
+        String email,
+        String phone,
+        LocalDate birthDay,
+        String gender,
+        String subSystem,
+        String status,
+        String createdBy,
+        LocalDateTime createdTime,
+        String updatedBy,
+        LocalDateTime updatedTime,
+        Long userRoleId,
+        String type,
+        Long roleId,
+        String roleName,
+        String bank,
+        String branch,
+        LocalDate fromDate,
+        LocalDate toDate
+) {
+}
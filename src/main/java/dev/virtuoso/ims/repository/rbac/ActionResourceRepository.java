@@ -0,0 +1,19 @@
+package dev.virtuoso.ims.repository.rbac;
+
+import dev.virtuoso.ims.entity.rbac.ActionResource;
+import dev.virtuoso.ims.repository.projection.ActionResourceRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ActionResourceRepository extends JpaRepository<ActionResource, Long> {
+
+    // STATUS trống coi như đang dùng
+    @Query("SELECT new dev.virtuoso.ims.repository.projection.ActionResourceRow(" +
+            "ar.id, ar.action.id, ar.resource.id, ar.slug) " +
+            "FROM ActionResource ar WHERE ar.status IS NULL OR ar.status = 'ACTIVE' ORDER BY ar.id")
+    List<ActionResourceRow> findActiveRows();
+}
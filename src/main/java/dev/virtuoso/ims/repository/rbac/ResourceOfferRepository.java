@@ -0,0 +1,9 @@
+package dev.virtuoso.ims.repository.rbac;
+
+import dev.virtuoso.ims.entity.rbac.ResourceOffer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ResourceOfferRepository extends JpaRepository<ResourceOffer, Long> {
+}
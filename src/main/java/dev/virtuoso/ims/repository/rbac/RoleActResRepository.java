@@ -0,0 +1,17 @@
+package dev.virtuoso.ims.repository.rbac;
+
+import dev.virtuoso.ims.entity.rbac.RoleActRes;
+import dev.virtuoso.ims.repository.projection.RoleGrantRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RoleActResRepository extends JpaRepository<RoleActRes, Long> {
+
+    @Query("SELECT new dev.virtuoso.ims.repository.projection.RoleGrantRow(r.role.id, r.action.id, r.resource.id) " +
+            "FROM RoleActRes r")
+    List<RoleGrantRow> findGrantRows();
+}
@@ -0,0 +1,98 @@
+package dev.virtuoso.ims.search;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+// Chuẩn hóa text cho tìm kiếm: bỏ dấu tiếng Việt ("Nguyễn" -> "nguyen", "Đ" -> "d"), chữ thường, gộp khoảng trắng.
+// Trigram được mã hóa thành số: a-z -> 1..26, 0-9 -> 27..36, ký tự khác -> 0.
+final class SearchText {
+
+    static final int ALPHABET = 37;
+    static final int GRAM_COUNT = ALPHABET * ALPHABET * ALPHABET;
+
+    // Các trường của một user trong text được index (username đứng đầu để chấm điểm)
+    static final char FIELD_SEPARATOR = '\n';
+
+    private SearchText() {
+    }
+
+    static String fold(String value) {
+        if (value == null || value.isEmpty()) return "";
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            if (Character.isWhitespace(c)) {
+                pendingSpace = !folded.isEmpty();
+                continue;
+            }
+            if (pendingSpace) {
+                folded.append(' ');
+                pendingSpace = false;
+            }
+            folded.append(c == 'đ' || c == 'Đ' ? 'd' : Character.toLowerCase(c));
+        }
+        return folded.toString();
+    }
+
+    static String document(String userName, String fullName, String email) {
+        return fold(userName) + FIELD_SEPARATOR + fold(fullName) + FIELD_SEPARATOR + fold(email);
+    }
+
+    static String[] tokens(String keyword) {
+        String folded = fold(keyword);
+        return folded.isEmpty() ? new String[0] : folded.split(" ");
+    }
+
+    // Mã các trigram khác nhau của text, tăng dần
+    static int[] trigrams(String text) {
+        if (text.length() < 3) return new int[0];
+        int[] grams = new int[text.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = (code(text.charAt(i)) * ALPHABET + code(text.charAt(i + 1))) * ALPHABET + code(text.charAt(i + 2));
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) grams[distinct++] = grams[i];
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    // Điểm xếp hạng của một user đã khớp tất cả từ khóa:
+    // trùng username > username bắt đầu bằng từ khóa > khớp nguyên một từ > khớp đầu một từ > khớp giữa từ
+    static int score(String document, String[] tokens) {
+        int userNameEnd = document.indexOf(FIELD_SEPARATOR);
+        int score = 0;
+        for (String token : tokens) {
+            if (document.startsWith(token)) {
+                score += token.length() == userNameEnd ? 100 : 40;
+            }
+            score += wordMatchScore(document, token);
+        }
+        return score;
+    }
+
+    private static int wordMatchScore(String document, String token) {
+        int best = 5;
+        for (int at = document.indexOf(token); at >= 0; at = document.indexOf(token, at + 1)) {
+            if (at > 0 && isWordChar(document.charAt(at - 1))) continue;
+            int end = at + token.length();
+            if (end == document.length() || !isWordChar(document.charAt(end))) return 30;
+            best = 20;
+        }
+        return best;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    private static int code(char c) {
+        if (c >= 'a' && c <= 'z') return c - 'a' + 1;
+        if (c >= '0' && c <= '9') return c - '0' + 27;
+        return 0;
+    }
+}
@@ -0,0 +1,308 @@
+package dev.virtuoso.ims.search;
+
+import dev.virtuoso.ims.entity.UserOffer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Index trigram trong bộ nhớ cho tìm kiếm user theo username, họ tên, email (đã bỏ dấu).
+ * Thay cho LOWER(col) LIKE '%kw%' (luôn full scan): từ khóa được tách trigram, giao các posting list
+ * để ra ứng viên, kiểm tra lại chuỗi con rồi xếp hạng.
+ * <p>
+ * Index được dựng một lần khi khởi động và cập nhật dần khi tạo/sửa/xóa/import user
+ * (gọi sau khi transaction đã commit). Trong lúc đang dựng, {@link #isReady()} = false,
+ * phía gọi dùng lại câu LIKE.
+ */
+@Component
+@Slf4j
+public class UserSearchIndex {
+
+    private static final String LOAD_USERS = "SELECT ID, USER_NAME, FULL_NAME, EMAIL FROM USER_OFFER";
+    private static final int LOAD_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private State state = new State();
+    // Thay đổi xảy ra trong lúc rebuild, áp lại lên index mới trước khi đổi sang dùng
+    private List<Consumer<State>> pendingChanges;
+    private volatile boolean ready;
+
+    public UserSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return state.liveCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        State rebuilt = new State();
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(LOAD_USERS);
+                ps.setFetchSize(LOAD_FETCH_SIZE);
+                return ps;
+            }, rs -> {
+                rebuilt.put(rs.getLong(1), SearchText.document(rs.getString(2), rs.getString(3), rs.getString(4)));
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(change -> change.accept(rebuilt));
+            pendingChanges = null;
+            state = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("User search index built: {} users in {} ms", rebuilt.liveCount(), System.currentTimeMillis() - start);
+    }
+
+    public void index(UserOffer user) {
+        index(user.getId(), user.getUserName(), user.getFullName(), user.getEmail());
+    }
+
+    public void index(Long userId, String userName, String fullName, String email) {
+        if (userId == null) return;
+        String document = SearchText.document(userName, fullName, email);
+        apply(s -> s.put(userId, document));
+    }
+
+    public void indexAll(Collection<UserOffer> users) {
+        users.forEach(this::index);
+    }
+
+    public void remove(Long userId) {
+        if (userId == null) return;
+        apply(s -> s.remove(userId));
+    }
+
+    // Trả về ID user của trang, xếp theo độ khớp giảm dần (cùng điểm thì user mới hơn trước)
+    public Page<Long> search(String keyword, Pageable pageable) {
+        String[] tokens = SearchText.tokens(keyword);
+        if (tokens.length == 0) return Page.empty(pageable);
+
+        lock.readLock().lock();
+        try {
+            return state.search(tokens, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<State> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(state);
+            if (pendingChanges != null) pendingChanges.add(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record Hit(int score, long userId) {
+    }
+
+    private static final Comparator<Hit> RANKING =
+            Comparator.comparingInt(Hit::score).thenComparingLong(Hit::userId);
+
+    // Dữ liệu index: mỗi user là một doc (docId tăng dần), posting list theo mã trigram chứa docId tăng dần.
+    // Sửa/xóa user chỉ đánh dấu doc cũ đã xóa; khi số doc đã xóa vượt số doc còn sống thì dựng lại posting list.
+    private static final class State {
+
+        private static final int MIN_COMPACT = 1024;
+
+        private final int[][] postings = new int[SearchText.GRAM_COUNT][];
+        private final int[] postingSizes = new int[SearchText.GRAM_COUNT];
+        private long[] docUserIds = new long[1024];
+        private String[] documents = new String[1024];
+        private int docCount;
+        private final BitSet deleted = new BitSet();
+        private int deletedCount;
+        private final Map<Long, Integer> docByUser = new HashMap<>();
+
+        int liveCount() {
+            return docCount - deletedCount;
+        }
+
+        void put(long userId, String document) {
+            Integer existing = docByUser.get(userId);
+            if (existing != null) {
+                if (document.equals(documents[existing])) return;
+                markDeleted(existing);
+            }
+            add(userId, document);
+            compactIfNeeded();
+        }
+
+        void remove(long userId) {
+            Integer existing = docByUser.remove(userId);
+            if (existing == null) return;
+            markDeleted(existing);
+            compactIfNeeded();
+        }
+
+        Page<Long> search(String[] tokens, Pageable pageable) {
+            long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+            int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+            int keep = (int) Math.min(Integer.MAX_VALUE, offset + limit);
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(RANKING);
+            int total = 0;
+            int[] candidates = candidates(tokens);
+            int candidateCount = candidates == null ? docCount : candidates.length;
+            for (int i = 0; i < candidateCount; i++) {
+                int doc = candidates == null ? i : candidates[i];
+                if (deleted.get(doc) || !containsAll(documents[doc], tokens)) continue;
+                total++;
+                Hit hit = new Hit(SearchText.score(documents[doc], tokens), docUserIds[doc]);
+                if (top.size() < keep) {
+                    top.add(hit);
+                } else if (RANKING.compare(hit, top.peek()) > 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING.reversed());
+            List<Long> ids = ranked.stream().skip(offset).map(Hit::userId).toList();
+            return new PageImpl<>(ids, pageable, total);
+        }
+
+        // Giao posting list của mọi trigram trong từ khóa (từ khóa < 3 ký tự không có trigram).
+        // null = không lọc được bằng trigram, phải duyệt mọi doc.
+        private int[] candidates(String[] tokens) {
+            int[] grams = Arrays.stream(tokens).map(SearchText::trigrams).flatMapToInt(Arrays::stream)
+                    .distinct().toArray();
+            if (grams.length == 0) return null;
+
+            Integer[] bySize = Arrays.stream(grams).boxed().toArray(Integer[]::new);
+            Arrays.sort(bySize, Comparator.comparingInt(g -> postingSizes[g]));
+            int first = bySize[0];
+            int[] result = postings[first] == null ? new int[0] : Arrays.copyOf(postings[first], postingSizes[first]);
+            int size = result.length;
+            for (int i = 1; i < bySize.length && size > 0; i++) {
+                size = intersect(result, size, postings[bySize[i]], postingSizes[bySize[i]]);
+            }
+            return Arrays.copyOf(result, size);
+        }
+
+        // Giao 2 dãy tăng dần, ghi kết quả vào đầu target
+        private static int intersect(int[] target, int targetSize, int[] other, int otherSize) {
+            if (other == null) return 0;
+            int i = 0, j = 0, size = 0;
+            while (i < targetSize && j < otherSize) {
+                if (target[i] < other[j]) i++;
+                else if (target[i] > other[j]) j++;
+                else {
+                    target[size++] = target[i];
+                    i++;
+                    j++;
+                }
+            }
+            return size;
+        }
+
+        private static boolean containsAll(String document, String[] tokens) {
+            for (String token : tokens) {
+                if (!document.contains(token)) return false;
+            }
+            return true;
+        }
+
+        private void add(long userId, String document) {
+            int doc = docCount++;
+            if (doc == docUserIds.length) {
+                docUserIds = Arrays.copyOf(docUserIds, doc * 2);
+                documents = Arrays.copyOf(documents, doc * 2);
+            }
+            docUserIds[doc] = userId;
+            documents[doc] = document;
+            docByUser.put(userId, doc);
+            for (int gram : SearchText.trigrams(document)) {
+                int[] list = postings[gram];
+                int size = postingSizes[gram];
+                if (list == null) {
+                    list = postings[gram] = new int[4];
+                } else if (size == list.length) {
+                    list = postings[gram] = Arrays.copyOf(list, size + (size >> 1) + 1);
+                }
+                list[size] = doc;
+                postingSizes[gram] = size + 1;
+            }
+        }
+
+        private void markDeleted(int doc) {
+            deleted.set(doc);
+            documents[doc] = null;
+            deletedCount++;
+        }
+
+        private void compactIfNeeded() {
+            if (deletedCount < MIN_COMPACT || deletedCount < liveCount()) return;
+
+            long[] oldUserIds = docUserIds;
+            String[] oldDocuments = documents;
+            int oldCount = docCount;
+            Arrays.fill(postings, null);
+            Arrays.fill(postingSizes, 0);
+            docUserIds = new long[Math.max(1024, liveCount() * 2)];
+            documents = new String[docUserIds.length];
+            docCount = 0;
+            deleted.clear();
+            deletedCount = 0;
+            docByUser.clear();
+            for (int doc = 0; doc < oldCount; doc++) {
+                if (oldDocuments[doc] != null) add(oldUserIds[doc], oldDocuments[doc]);
+            }
+        }
+    }
+}
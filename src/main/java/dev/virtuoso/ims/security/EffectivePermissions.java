@@ -0,0 +1,106 @@
+package dev.virtuoso.ims.security;
+
+import dev.virtuoso.ims.repository.projection.UserAssignmentRow;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Quyền hiệu lực của một user tại một ngày: OR bitset của các role có phân quyền còn hiệu lực,
+ * gộp chung (any) và theo từng khối (bank). Gắn với version của {@link RbacMatrix} đã dùng để tính
+ * và với khoảng ngày [date, validUntil) mà tập phân quyền còn hiệu lực không đổi.
+ */
+public final class EffectivePermissions {
+
+    private final long matrixVersion;
+    private final long[] any;
+    private final Map<String, long[]> byBank;
+    private final LocalDate date;
+    private final LocalDate validUntil;
+
+    private EffectivePermissions(long matrixVersion, long[] any, Map<String, long[]> byBank, LocalDate date,
+                                 LocalDate validUntil) {
+        this.matrixVersion = matrixVersion;
+        this.any = any;
+        this.byBank = byBank;
+        this.date = date;
+        this.validUntil = validUntil;
+    }
+
+    // Phân quyền còn hiệu lực khi fromDate <= date <= toDate (ngày trống = không giới hạn)
+    public static EffectivePermissions of(RbacMatrix matrix, Collection<UserAssignmentRow> assignments, LocalDate date) {
+        long[] any = new long[matrix.words()];
+        Map<String, long[]> byBank = new HashMap<>();
+        LocalDate validUntil = null;
+        for (UserAssignmentRow assignment : assignments) {
+            validUntil = earliest(validUntil, nextChange(assignment, date));
+            if (!isActive(assignment, date)) continue;
+            long[] roleBits = matrix.roleBits(assignment.roleId());
+            if (roleBits == null) continue;
+            or(any, roleBits);
+            if (assignment.bank() != null) {
+                or(byBank.computeIfAbsent(assignment.bank(), k -> new long[any.length]), roleBits);
+            }
+        }
+        return new EffectivePermissions(matrix.version(), any, Map.copyOf(byBank), date, validUntil);
+    }
+
+    static EffectivePermissions ofBits(RbacMatrix matrix, long[] bits) {
+        return new EffectivePermissions(matrix.version(), bits, Map.of(), null, null);
+    }
+
+    public static boolean isActive(UserAssignmentRow assignment, LocalDate date) {
+        return (assignment.fromDate() == null || !assignment.fromDate().isAfter(date))
+                && (assignment.toDate() == null || !assignment.toDate().isBefore(date));
+    }
+
+    // Có quyền ở ít nhất một khối
+    public boolean has(int bit) {
+        return RbacMatrix.test(any, bit);
+    }
+
+    public boolean has(int bit, String bank) {
+        long[] bits = byBank.get(bank);
+        return bits != null && RbacMatrix.test(bits, bit);
+    }
+
+    public long matrixVersion() {
+        return matrixVersion;
+    }
+
+    // Ngày đầu tiên sau date mà một phân quyền bắt đầu hoặc hết hiệu lực; null = không đổi theo ngày
+    public LocalDate validUntil() {
+        return validUntil;
+    }
+
+    // Kết quả vẫn đúng cho ngày day: cùng khoảng [date, validUntil)
+    public boolean isValidOn(LocalDate day) {
+        return date != null && !day.isBefore(date) && (validUntil == null || day.isBefore(validUntil));
+    }
+
+    // fromDate: có hiệu lực từ đầu ngày fromDate; toDate: hết hiệu lực từ đầu ngày hôm sau
+    private static LocalDate nextChange(UserAssignmentRow assignment, LocalDate date) {
+        LocalDate next = null;
+        if (assignment.fromDate() != null && assignment.fromDate().isAfter(date)) {
+            next = assignment.fromDate();
+        }
+        if (assignment.toDate() != null && !assignment.toDate().isBefore(date)) {
+            next = earliest(next, assignment.toDate().plusDays(1));
+        }
+        return next;
+    }
+
+    private static LocalDate earliest(LocalDate a, LocalDate b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static void or(long[] target, long[] bits) {
+        for (int i = 0; i < bits.length; i++) {
+            target[i] |= bits[i];
+        }
+    }
+}
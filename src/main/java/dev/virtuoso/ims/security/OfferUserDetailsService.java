@@ -0,0 +1,36 @@
+package dev.virtuoso.ims.security;
+
+import dev.virtuoso.ims.repository.UserOfferRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.AuthenticationUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Tài khoản của user đã được SSO xác thực (tên đăng nhập lấy từ header ims.security.user-header).
+// Mật khẩu do SSO kiểm tra; ở đây chỉ cần user có trong USER_OFFER và đang ACTIVE.
+// Quyền không nằm trong authorities mà do RbacAuthorizationEngine tra theo tên đăng nhập.
+@Component
+@RequiredArgsConstructor
+public class OfferUserDetailsService implements AuthenticationUserDetailsService<PreAuthenticatedAuthenticationToken> {
+
+    private static final String ACTIVE = "ACTIVE";
+
+    private final UserOfferRepository userRepository;
+
+    @Override
+    public UserDetails loadUserDetails(PreAuthenticatedAuthenticationToken token) {
+        String userName = token.getName();
+        String status = userRepository.findStatusByUserName(userName)
+                .orElseThrow(() -> new UsernameNotFoundException("User '" + userName + "' không tồn tại"));
+        return User.withUsername(userName)
+                .password("")
+                .authorities(List.of())
+                .disabled(!ACTIVE.equals(status))
+                .build();
+    }
+}
@@ -0,0 +1,197 @@
+package dev.virtuoso.ims.security;
+
+import dev.virtuoso.ims.dto.response.RbacBenchmarkResult;
+import dev.virtuoso.ims.dto.response.RbacMatrixStats;
+import dev.virtuoso.ims.entity.RoleOffer;
+import dev.virtuoso.ims.reference.RoleCatalog;
+import dev.virtuoso.ims.repository.rbac.ActionResourceRepository;
+import dev.virtuoso.ims.repository.rbac.RoleActResRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Kiểm tra quyền theo bảng RBAC (ROLE_ACT_RES x ACTION_RESOURCE) cho Spring Security.
+ * Ma trận role x quyền được biên dịch sẵn thành bitset ({@link RbacMatrix}); mỗi lần check chỉ là
+ * tra slug -> bit và AND trên bitset quyền hiệu lực của user, không query bảng RBAC.
+ * Quyền hiệu lực của user lấy từ {@link UserPermissionCache} (chỉ query phân quyền khi chưa có hoặc đã hết hạn).
+ * <p>
+ * Ma trận dựng lại khi RoleCatalog bị xóa (ghi vào bảng role/RBAC qua JPA), khi gọi {@link #rebuild()},
+ * hoặc sau ims.rbac.catalog.ttl-minutes.
+ * Tắt (ims.rbac.enabled=false) thì mọi check đều cho qua như permitAll trước đây.
+ */
+@Component
+@Slf4j
+public class RbacAuthorizationEngine {
+
+    private static final String ACTIVE = "ACTIVE";
+    private static final int BENCHMARK_SAMPLES = 1024;   // lũy thừa của 2 để lấy mẫu bằng phép AND
+
+    private final RoleCatalog roleCatalog;
+    private final ActionResourceRepository actionResourceRepo;
+    private final RoleActResRepository roleActResRepo;
+    private final UserPermissionCache permissionCache;
+    private final boolean enabled;
+    private final long ttlNanos;
+
+    private final AtomicLong versions = new AtomicLong();
+    private volatile RbacMatrix matrix;
+    private volatile long builtNanos;
+    private volatile boolean stale = true;
+
+    public RbacAuthorizationEngine(RoleCatalog roleCatalog, ActionResourceRepository actionResourceRepo,
+                                   RoleActResRepository roleActResRepo, UserPermissionCache permissionCache,
+                                   @Value("${ims.rbac.enabled:false}") boolean enabled,
+                                   @Value("${ims.rbac.catalog.ttl-minutes:30}") long ttlMinutes) {
+        this.roleCatalog = roleCatalog;
+        this.actionResourceRepo = actionResourceRepo;
+        this.roleActResRepo = roleActResRepo;
+        this.permissionCache = permissionCache;
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(ttlMinutes);
+        roleCatalog.onInvalidate(() -> stale = true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    public RbacMatrix matrix() {
+        RbacMatrix m = matrix;
+        if (m == null || stale || System.nanoTime() - builtNanos > ttlNanos) {
+            m = rebuildIfStale();
+        }
+        return m;
+    }
+
+    // Dựng lại ma trận (2 query + role từ RoleCatalog) rồi thay một lần
+    public synchronized RbacMatrixStats rebuild() {
+        // Đặt lại cờ trước khi đọc: nếu bị xóa trong lúc đang dựng thì lần check sau dựng lại
+        stale = false;
+        Set<Long> activeRoleIds = roleCatalog.current().roles().values().stream()
+                .filter(r -> r.getStatus() == null || ACTIVE.equals(r.getStatus()))
+                .map(RoleOffer::getId)
+                .collect(Collectors.toSet());
+        RbacMatrix built = RbacMatrix.compile(versions.incrementAndGet(), actionResourceRepo.findActiveRows(),
+                roleActResRepo.findGrantRows(), activeRoleIds);
+        matrix = built;
+        builtNanos = System.nanoTime();
+        log.info("RBAC matrix v{} built: {} permissions, {} roles, {} grants in {} ms", built.version(),
+                built.permissionCount(), built.roleCount(), built.grantCount(), built.buildMillis());
+        return stats(built);
+    }
+
+    public RbacMatrixStats stats() {
+        return stats(matrix());
+    }
+
+    // Quyền hiệu lực hôm nay của user (cache theo user; khi nạp chỉ 1 query phân quyền, không join bảng RBAC)
+    public EffectivePermissions permissionsOf(String userName) {
+        return permissionCache.get(userName, matrix());
+    }
+
+    public boolean isAllowed(String userName, String slug) {
+        if (!enabled) return true;
+        if (userName == null) return false;
+        // Bit và quyền hiệu lực phải lấy từ cùng một ma trận: nếu rebuild xen giữa, bit của ma trận cũ
+        // có thể trỏ tới quyền khác trong ma trận mới
+        RbacMatrix m = matrix();
+        int bit = m.bit(slug);
+        return bit >= 0 && permissionCache.get(userName, m).has(bit);
+    }
+
+    // Dùng trong SecurityConfig: .requestMatchers(...).access(rbac.require("USER_VIEW")).
+    // Tên đăng nhập (Authentication#getName) phải là USER_OFFER.USER_NAME.
+    public AuthorizationManager<RequestAuthorizationContext> require(String slug) {
+        return (authentication, context) -> {
+            if (!enabled) return new AuthorizationDecision(true);
+            Authentication auth = authentication.get();
+            boolean authenticated = auth != null && auth.isAuthenticated()
+                    && !(auth instanceof AnonymousAuthenticationToken);
+            return new AuthorizationDecision(authenticated && isAllowed(auth.getName(), slug));
+        };
+    }
+
+    // Đo riêng phần check (slug -> bit, AND bitset) trên ma trận hiện tại với quyền hiệu lực dựng từ 1-3 role ngẫu nhiên
+    public RbacBenchmarkResult benchmark(long iterations) {
+        RbacMatrix m = matrix();
+        SplittableRandom random = new SplittableRandom(42);
+        List<long[]> roles = new ArrayList<>(m.roleBitsets());
+        List<String> slugs = new ArrayList<>(m.slugs());
+        slugs.add("__unknown__");   // có cả trường hợp slug không tồn tại
+
+        EffectivePermissions[] users = new EffectivePermissions[BENCHMARK_SAMPLES];
+        String[] checks = new String[BENCHMARK_SAMPLES];
+        for (int i = 0; i < BENCHMARK_SAMPLES; i++) {
+            long[] bits = new long[m.words()];
+            for (int r = random.nextInt(1, 4); r > 0 && !roles.isEmpty(); r--) {
+                long[] roleBits = roles.get(random.nextInt(roles.size()));
+                for (int w = 0; w < bits.length; w++) bits[w] |= roleBits[w];
+            }
+            users[i] = EffectivePermissions.ofBits(m, bits);
+            checks[i] = slugs.get(random.nextInt(slugs.size()));
+        }
+
+        runChecks(m, users, checks, Math.min(iterations, 1_000_000));   // làm nóng JIT
+        long start = System.nanoTime();
+        long allowed = runChecks(m, users, checks, iterations);
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        return RbacBenchmarkResult.builder()
+                .iterations(iterations)
+                .elapsedNanos(elapsed)
+                .nanosPerCheck(Math.round(elapsed * 100.0 / iterations) / 100.0)
+                .checksPerSecond(Math.round(iterations * 1e9 / elapsed))
+                .allowed(allowed)
+                .matrixVersion(m.version())
+                .build();
+    }
+
+    private static long runChecks(RbacMatrix m, EffectivePermissions[] users, String[] checks, long iterations) {
+        long allowed = 0;
+        for (long i = 0; i < iterations; i++) {
+            int sample = (int) (i & (BENCHMARK_SAMPLES - 1));
+            int user = (int) ((i * 31) & (BENCHMARK_SAMPLES - 1));
+            if (users[user].has(m.bit(checks[sample]))) allowed++;
+        }
+        return allowed;
+    }
+
+    private synchronized RbacMatrix rebuildIfStale() {
+        if (matrix == null || stale || System.nanoTime() - builtNanos > ttlNanos) {
+            rebuild();
+        }
+        return matrix;
+    }
+
+    private RbacMatrixStats stats(RbacMatrix m) {
+        return RbacMatrixStats.builder()
+                .enabled(enabled)
+                .version(m.version())
+                .builtAt(m.builtAt())
+                .buildMillis(m.buildMillis())
+                .permissionCount(m.permissionCount())
+                .roleCount(m.roleCount())
+                .grantCount(m.grantCount())
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package dev.virtuoso.ims.security;
+
+import dev.virtuoso.ims.repository.projection.ActionResourceRow;
+import dev.virtuoso.ims.repository.projection.RoleGrantRow;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ROLE_ACT_RES đã biên dịch: mỗi quyền (action x resource, định danh bằng ACTION_RESOURCE.SLUG) là một bit,
+ * mỗi role là một bitset các quyền được cấp. Bất biến, dựng lại toàn bộ khi dữ liệu RBAC thay đổi;
+ * chỉ số bit chỉ có nghĩa trong cùng một version.
+ */
+public final class RbacMatrix {
+
+    private final long version;
+    private final Map<String, Integer> bitBySlug;
+    private final Map<Long, long[]> bitsByRole;
+    private final int words;
+    private final int grantCount;
+    private final LocalDateTime builtAt;
+    private final long buildMillis;
+
+    private RbacMatrix(long version, Map<String, Integer> bitBySlug, Map<Long, long[]> bitsByRole, int words,
+                       int grantCount, LocalDateTime builtAt, long buildMillis) {
+        this.version = version;
+        this.bitBySlug = bitBySlug;
+        this.bitsByRole = bitsByRole;
+        this.words = words;
+        this.grantCount = grantCount;
+        this.builtAt = builtAt;
+        this.buildMillis = buildMillis;
+    }
+
+    // activeRoleIds: role không ACTIVE không có quyền nào.
+    // Dòng ROLE_ACT_RES không khớp ACTION_RESOURCE đang dùng bị bỏ qua; slug trùng thì lấy dòng ID nhỏ nhất.
+    static RbacMatrix compile(long version, List<ActionResourceRow> permissions, Collection<RoleGrantRow> grants,
+                              Set<Long> activeRoleIds) {
+        long start = System.currentTimeMillis();
+        Map<String, Integer> bitBySlug = new HashMap<>();
+        Map<Long, Map<Long, Integer>> bitByActionResource = new HashMap<>();   // actionId -> resourceId -> bit
+        for (ActionResourceRow row : permissions) {
+            if (row.slug() == null || row.slug().isBlank() || bitBySlug.containsKey(row.slug().trim())) continue;
+            int bit = bitBySlug.size();
+            bitBySlug.put(row.slug().trim(), bit);
+            bitByActionResource.computeIfAbsent(row.actionId(), k -> new HashMap<>()).putIfAbsent(row.resourceId(), bit);
+        }
+
+        int words = Math.max(1, (bitBySlug.size() + 63) >>> 6);
+        Map<Long, long[]> bitsByRole = new HashMap<>();
+        int grantCount = 0;
+        for (RoleGrantRow grant : grants) {
+            if (!activeRoleIds.contains(grant.roleId())) continue;
+            Integer bit = bitByActionResource.getOrDefault(grant.actionId(), Map.of()).get(grant.resourceId());
+            if (bit == null) continue;
+            long[] bits = bitsByRole.computeIfAbsent(grant.roleId(), k -> new long[words]);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) grantCount++;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+        return new RbacMatrix(version, Map.copyOf(bitBySlug), Map.copyOf(bitsByRole), words, grantCount,
+                LocalDateTime.now(), System.currentTimeMillis() - start);
+    }
+
+    // -1 nếu slug không tồn tại (mọi check với bit -1 đều bị từ chối)
+    public int bit(String slug) {
+        Integer bit = slug == null ? null : bitBySlug.get(slug);
+        return bit == null ? -1 : bit;
+    }
+
+    // null nếu role không có quyền nào
+    public long[] roleBits(Long roleId) {
+        return roleId == null ? null : bitsByRole.get(roleId);
+    }
+
+    public static boolean test(long[] bits, int bit) {
+        return bit >= 0 && (bit >>> 6) < bits.length && (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int words() {
+        return words;
+    }
+
+    public int permissionCount() {
+        return bitBySlug.size();
+    }
+
+    public int roleCount() {
+        return bitsByRole.size();
+    }
+
+    public int grantCount() {
+        return grantCount;
+    }
+
+    public Set<String> slugs() {
+        return Collections.unmodifiableSet(bitBySlug.keySet());
+    }
+
+    public Collection<long[]> roleBitsets() {
+        return bitsByRole.values();
+    }
+
+    public LocalDateTime builtAt() {
+        return builtAt;
+    }
+
+    public long buildMillis() {
+        return buildMillis;
+    }
+}
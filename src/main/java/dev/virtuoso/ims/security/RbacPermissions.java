@@ -0,0 +1,17 @@
+package dev.virtuoso.ims.security;
+
+// Slug quyền mà các endpoint yêu cầu, phải khớp ACTION_RESOURCE.SLUG
+public final class RbacPermissions {
+
+    public static final String USER_VIEW = "USER_VIEW";
+    public static final String USER_CREATE = "USER_CREATE";
+    public static final String USER_UPDATE = "USER_UPDATE";
+    public static final String USER_DELETE = "USER_DELETE";
+    public static final String USER_IMPORT = "USER_IMPORT";
+    public static final String USER_EXPORT = "USER_EXPORT";
+    public static final String USER_BULK = "USER_BULK";
+    public static final String RBAC_ADMIN = "RBAC_ADMIN";
+
+    private RbacPermissions() {
+    }
+}
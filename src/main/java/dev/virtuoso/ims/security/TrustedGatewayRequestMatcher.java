@@ -0,0 +1,51 @@
+package dev.virtuoso.ims.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.List;
+
+// Request đi qua SSO/API gateway: chỉ những request này mới được đọc header tên đăng nhập.
+// Phải cấu hình ít nhất một trong hai điều kiện (chưa cấu hình gì thì không tin request nào),
+// cấu hình cả hai thì request phải thỏa cả hai:
+//  - trustedProxies: IP/dải CIDR của gateway (địa chỉ kết nối trực tiếp tới ứng dụng, không đọc X-Forwarded-For)
+//  - secret: gateway gửi kèm header secretHeader có giá trị bằng secret
+public class TrustedGatewayRequestMatcher implements RequestMatcher {
+
+    private final List<IpAddressMatcher> trustedProxies;
+    private final String secretHeader;
+    private final byte[] secret;
+
+    public TrustedGatewayRequestMatcher(Collection<String> trustedProxies, String secretHeader, String secret) {
+        this.trustedProxies = trustedProxies.stream()
+                .filter(StringUtils::isNotBlank)
+                .map(String::trim)
+                .map(IpAddressMatcher::new)
+                .toList();
+        this.secretHeader = secretHeader;
+        this.secret = StringUtils.isEmpty(secret) ? null : secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public boolean isConfigured() {
+        return !trustedProxies.isEmpty() || secret != null;
+    }
+
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        if (!isConfigured()) return false;
+        if (!trustedProxies.isEmpty() && trustedProxies.stream().noneMatch(m -> m.matches(request))) {
+            return false;
+        }
+        if (secret != null) {
+            String sent = request.getHeader(secretHeader);
+            // So sánh thời gian hằng để không lộ secret qua thời gian phản hồi
+            return sent != null && MessageDigest.isEqual(secret, sent.getBytes(StandardCharsets.UTF_8));
+        }
+        return true;
+    }
+}
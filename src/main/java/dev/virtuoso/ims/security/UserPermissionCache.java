@@ -0,0 +1,107 @@
+package dev.virtuoso.ims.security;
+
+import dev.virtuoso.ims.dto.response.UserPermissionCacheStats;
+import dev.virtuoso.ims.repository.UserRoleOfferRepository;
+import dev.virtuoso.ims.util.CoalescingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Quyền hiệu lực theo user (USER_NAME), giữ tối đa max-entries user (LRU), mỗi entry tối đa ttl-minutes.
+ * <p>
+ * Entry tự hết hạn khi:
+ * <ul>
+ *     <li>sang ngày có phân quyền bắt đầu (fromDate) hoặc vừa hết hiệu lực (toDate + 1)
+ *     - xem {@link EffectivePermissions#validUntil()}, nên không giữ kết quả cũ qua nửa đêm;</li>
+ *     <li>ma trận RBAC được biên dịch lại (khác version).</li>
+ * </ul>
+ * Nơi ghi phân quyền/trạng thái user (sửa user, import, thao tác hàng loạt) gọi {@link #invalidate(Collection)}
+ * cho đúng các user bị tác động; TTL chỉ để bắt thay đổi bằng SQL tay.
+ */
+@Component
+public class UserPermissionCache {
+
+    private record Entry(EffectivePermissions permissions, long loadedNanos) {
+    }
+
+    private final UserRoleOfferRepository userRoleRepo;
+    private final long ttlMinutes;
+    private final long ttlNanos;
+    private final CoalescingCache<String, Entry> cache;
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public UserPermissionCache(UserRoleOfferRepository userRoleRepo,
+                               @Value("${ims.rbac.permission-cache.max-entries:10000}") int maxEntries,
+                               @Value("${ims.rbac.permission-cache.ttl-minutes:10}") long ttlMinutes) {
+        this.userRoleRepo = userRoleRepo;
+        this.ttlMinutes = ttlMinutes;
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(ttlMinutes);
+        this.cache = new CoalescingCache<>(maxEntries);
+    }
+
+    public EffectivePermissions get(String userName, RbacMatrix matrix) {
+        LocalDate today = LocalDate.now();
+        Entry entry = cache.get(userName, () -> load(userName, matrix, today));
+        if (isValid(entry, matrix, today)) {
+            return entry.permissions();
+        }
+        expirations.increment();
+        cache.invalidate(userName);
+        entry = cache.get(userName, () -> load(userName, matrix, today));
+        // Request khác vừa nạp bằng ma trận cũ: tính riêng cho lần này, không chờ
+        return isValid(entry, matrix, today) ? entry.permissions() : load(userName, matrix, today).permissions();
+    }
+
+    public void invalidate(String userName) {
+        invalidate(List.of(userName));
+    }
+
+    // Xóa ngay và xóa lại khi transaction kết thúc: request đọc phân quyền cũ trong lúc transaction
+    // chưa commit không để lại entry cũ trong cache
+    public void invalidate(Collection<String> userNames) {
+        if (userNames.isEmpty()) return;
+        remove(userNames);
+        invalidations.add(userNames.size());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(userNames);
+                }
+            });
+        }
+    }
+
+    public UserPermissionCacheStats stats() {
+        return UserPermissionCacheStats.builder()
+                .ttlMinutes(ttlMinutes)
+                .invalidations(invalidations.sum())
+                .expirations(expirations.sum())
+                .cache(cache.stats())
+                .build();
+    }
+
+    private void remove(Collection<String> userNames) {
+        userNames.forEach(cache::invalidate);
+    }
+
+    private Entry load(String userName, RbacMatrix matrix, LocalDate today) {
+        return new Entry(EffectivePermissions.of(matrix, userRoleRepo.findAssignmentsOfActiveUser(userName), today),
+                System.nanoTime());
+    }
+
+    private boolean isValid(Entry entry, RbacMatrix matrix, LocalDate today) {
+        return entry.permissions().matrixVersion() == matrix.version()
+                && entry.permissions().isValidOn(today)
+                && System.nanoTime() - entry.loadedNanos() <= ttlNanos;
+    }
+}
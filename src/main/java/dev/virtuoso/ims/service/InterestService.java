@@ -1,8 +1,25 @@
 package dev.virtuoso.ims.service;
 
 import dev.virtuoso.ims.dto.request.TemplateRequest;
-import java.io.ByteArrayInputStream;
+import dev.virtuoso.ims.dto.response.CacheStats;
+import dev.virtuoso.ims.dto.response.ImportResult;
+import dev.virtuoso.ims.dto.response.ReferenceDataStats;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
 
 public interface InterestService {
-    ByteArrayInputStream generateInterestTemplate(TemplateRequest request);
+    // Ghi file template thẳng ra out (không buffer cả file trong bộ nhớ)
+    void writeInterestTemplate(TemplateRequest request, OutputStream out) throws IOException;
+
+    CacheStats getTemplateCacheStats();
+
+    // Import file template lãi suất đã điền (sheet "Import Template" + cột lãi suất)
+    ImportResult importInterestRates(MultipartFile file);
+
+    ReferenceDataStats getReferenceDataStats();
+
+    // Load lại snapshot tham số lãi suất (gọi khi dữ liệu tham số vừa thay đổi)
+    ReferenceDataStats refreshReferenceData();
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package dev.virtuoso.ims.service.impl;
+
+import dev.virtuoso.ims.dto.response.ImportResult;
+import dev.virtuoso.ims.importer.ImportCancelledException;
+import dev.virtuoso.ims.importer.ImportEngine;
+import dev.virtuoso.ims.importer.ImportJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Chạy import user dưới dạng job nền: request trả về jobId ngay, client poll trạng thái và lấy kết quả sau
+@Service
+@Slf4j
+public class ImportJobServiceImpl {
+
+    private final UserImportServiceImpl userImportService;
+    private final ThreadPoolTaskExecutor executor;
+    private final long retentionMinutes;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobServiceImpl(UserImportServiceImpl userImportService,
+                                @Qualifier("importJobExecutor") ThreadPoolTaskExecutor executor,
+                                @Value("${ims.import.jobs.retention-minutes:60}") long retentionMinutes) {
+        this.userImportService = userImportService;
+        this.executor = executor;
+        this.retentionMinutes = retentionMinutes;
+    }
+
+    public ImportJob submit(MultipartFile file, ImportEngine engine) {
+        purgeExpiredJobs();
+
+        // Lưu file ngay trong request thread vì MultipartFile không còn dùng được khi request kết thúc
+        Path tempFile = userImportService.saveTempFile(file);
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename());
+        jobs.put(job.getId(), job);
+
+        try {
+            executor.execute(() -> run(job, tempFile, engine));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            deleteQuietly(tempFile);
+            throw new IllegalStateException("Hệ thống đang xử lý quá nhiều file import, vui lòng thử lại sau");
+        }
+        return job;
+    }
+
+    public Optional<ImportJob> findJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    // Job đang chờ trong hàng đợi sẽ không chạy nữa, job đang chạy dừng ở dòng tiếp theo (trước bước lưu DB)
+    public Optional<ImportJob> cancel(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) return Optional.empty();
+        if (!job.getPhase().isFinished()) {
+            job.requestCancel();
+        }
+        return Optional.of(job);
+    }
+
+    private void run(ImportJob job, Path tempFile, ImportEngine engine) {
+        try {
+            if (job.isCancelled()) {
+                job.cancelled();
+                return;
+            }
+            job.start();
+            ImportResult result = userImportService.importFile(tempFile, engine, job);
+            job.complete(result);
+        } catch (ImportCancelledException e) {
+            log.info("Import job {} cancelled", job.getId());
+            job.cancelled();
+        } catch (Exception e) {
+            log.error("Import job {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    // Giữ kết quả của job đã xong trong retentionMinutes để client lấy lại
+    private void purgeExpiredJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.getFinishedTime() != null && job.getFinishedTime().isBefore(threshold));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Không xóa được file tạm {}", path, e);
+        }
+    }
+}
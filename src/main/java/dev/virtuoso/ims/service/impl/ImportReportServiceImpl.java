@@ -0,0 +1,125 @@
+package dev.virtuoso.ims.service.impl;
+
+import dev.virtuoso.ims.dto.response.ImportIssue;
+import dev.virtuoso.ims.importer.ImportReport;
+import dev.virtuoso.ims.importer.ImportRow;
+import dev.virtuoso.ims.importer.ImportReportStore;
+import dev.virtuoso.ims.importer.InterestRateImport;
+import dev.virtuoso.ims.importer.SheetReader;
+import dev.virtuoso.ims.importer.SheetReaders;
+import lombok.RequiredArgsConstructor;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Xem lỗi/cảnh báo của một lần import theo trang và xuất lại file gốc kèm cột lỗi
+@Service
+@RequiredArgsConstructor
+public class ImportReportServiceImpl {
+
+    // Bố cục các sheet có thể import. firstDataRow theo template xlsx (csv/tsv do reader tự xác định dòng tiêu đề);
+    // columnCount 0: số cột lấy theo dòng tiêu đề (template lãi suất có số cột thay đổi)
+    private record SheetLayout(String name, int firstDataRow, int columnCount) {
+    }
+
+    private static final List<SheetLayout> SHEETS = List.of(
+            new SheetLayout("User", 3, 7),
+            new SheetLayout("Thong_tin_phan_quyen", 3, 7),
+            new SheetLayout(InterestRateImport.SHEET_NAME, 1, 0));
+    private static final int MAX_COLUMNS = 256;         // giới hạn quét dòng tiêu đề khi columnCount = 0
+    private static final int ROW_ACCESS_WINDOW = 100;   // số dòng SXSSF giữ trong bộ nhớ
+
+    private final ImportReportStore reportStore;
+
+    public Optional<ImportReport> findReport(String importId) {
+        return reportStore.find(importId);
+    }
+
+    // severity null: cả lỗi và cảnh báo
+    public Page<ImportIssue> getIssues(ImportReport report, String severity, Pageable pageable) {
+        List<ImportIssue> issues = report.getIssues(severity);
+        int from = (int) Math.min(pageable.getOffset(), issues.size());
+        int to = Math.min(from + pageable.getPageSize(), issues.size());
+        return new PageImpl<>(issues.subList(from, to), pageable, issues.size());
+    }
+
+    public boolean hasAnnotatedWorkbook(ImportReport report) {
+        return report.getSourceFile() != null && Files.exists(report.getSourceFile());
+    }
+
+    // Đọc streaming file gốc (xlsx/csv/tsv) và ghi streaming (SXSSF) ra response: bộ nhớ chỉ giữ một cửa sổ dòng,
+    // cộng map thông báo lỗi theo dòng
+    public void writeAnnotatedWorkbook(ImportReport report, OutputStream out) throws IOException {
+        Map<String, Map<Integer, String>> messagesBySheet = report.messagesByRow();
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        try (SheetReader reader = SheetReaders.open(report.getSourceFile(), true)) {
+            CellStyle errorStyle = workbook.createCellStyle();
+            Font errorFont = workbook.createFont();
+            errorFont.setColor(Font.COLOR_RED);
+            errorStyle.setFont(errorFont);
+
+            for (SheetLayout layout : SHEETS) {
+                String sheetName = layout.name();
+                if (!reader.hasSheet(sheetName)) continue;
+                Sheet sheet = workbook.createSheet(sheetName);
+                Map<Integer, String> messages = messagesBySheet.getOrDefault(sheetName, Map.of());
+                int headerRow = reader.headerRow(sheetName, layout.firstDataRow());
+                int[] errorColumn = {layout.columnCount()};
+                boolean[] headerWritten = {false};
+
+                reader.readSheet(sheetName, 0, row -> {
+                    // Reader csv/tsv không trả dòng tiêu đề: tạo dòng đó trước dòng dữ liệu đầu tiên (SXSSF ghi theo thứ tự)
+                    if (!headerWritten[0] && row.getRowNum() > headerRow) {
+                        sheet.createRow(headerRow).createCell(errorColumn[0]).setCellValue("Lỗi");
+                        headerWritten[0] = true;
+                    }
+                    if (row.getRowNum() == headerRow && errorColumn[0] == 0) {
+                        errorColumn[0] = headerWidth(row);
+                    }
+                    Row target = sheet.createRow(row.getRowNum());
+                    int columns = errorColumn[0] > 0 ? errorColumn[0] : MAX_COLUMNS;
+                    for (int c = 0; c < columns; c++) {
+                        String value = row.getCellValue(c);
+                        if (!value.isEmpty()) target.createCell(c).setCellValue(value);
+                    }
+                    if (row.getRowNum() == headerRow) {
+                        target.createCell(errorColumn[0]).setCellValue("Lỗi");
+                        headerWritten[0] = true;
+                    }
+                    String message = messages.get(row.getRowNum());
+                    if (message != null) {
+                        target.createCell(errorColumn[0]).setCellValue(message);
+                        target.getCell(errorColumn[0]).setCellStyle(errorStyle);
+                    }
+                });
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();   // xóa file tạm của SXSSF
+            workbook.close();
+        }
+    }
+
+    // Cột lỗi đặt ngay sau ô tiêu đề cuối cùng có dữ liệu
+    private static int headerWidth(ImportRow header) {
+        int width = 0;
+        for (int c = 0; c < MAX_COLUMNS; c++) {
+            if (!header.getCellValue(c).isEmpty()) width = c + 1;
+        }
+        return width;
+    }
+}
@@ -1,35 +1,210 @@
 package dev.virtuoso.ims.service.impl;
 
 import dev.virtuoso.ims.dto.request.TemplateRequest;
-import dev.virtuoso.ims.entity.interest.LoanInterestParam;
+import dev.virtuoso.ims.dto.response.CacheStats;
+import dev.virtuoso.ims.dto.response.ImportResult;
+import dev.virtuoso.ims.dto.response.ReferenceDataStats;
 import dev.virtuoso.ims.entity.interest.LoanInterestParamType;
-import dev.virtuoso.ims.repository.interest.LoanInterestParamRepository;
-import dev.virtuoso.ims.repository.interest.LoanInterestParamTypeRepository;
+import dev.virtuoso.ims.importer.ImportReport;
+import dev.virtuoso.ims.importer.ImportReportStore;
+import dev.virtuoso.ims.importer.InterestRateImport;
+import dev.virtuoso.ims.importer.InterestRateWriter;
+import dev.virtuoso.ims.importer.SheetReader;
+import dev.virtuoso.ims.importer.StreamingXlsxSheetReader;
+import dev.virtuoso.ims.reference.InterestReferenceData;
 import dev.virtuoso.ims.service.InterestService;
+import dev.virtuoso.ims.util.CoalescingCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddressList;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.List;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
 
 @Service
+@Slf4j
 public class InterestServiceImpl implements InterestService {
 
     @Autowired
-    private LoanInterestParamTypeRepository typeRepo;
+    private InterestReferenceData referenceData;
 
     @Autowired
-    private LoanInterestParamRepository paramRepo;
+    private InterestRateWriter rateWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${ims.interest.import.batch-size:1000}")
+    private int importBatchSize;
+
+    @Autowired
+    private ImportReportStore reportStore;
+
+    private static final int ROW_ACCESS_WINDOW = 100;
+
+    // File template đã tạo (file tạm), theo (danh sách cột, version dữ liệu của các cột đó)
+    private final CoalescingCache<TemplateKey, Path> templateCache;
+
+    // Dữ liệu đầu vào của một template: các loại tham số theo thứ tự cột + giá trị ACTIVE của từng loại
+    private record TemplateData(List<LoanInterestParamType> types, Map<Integer, List<String>> valuesByType) {
+    }
+
+    // dataVersion: hash nội dung (tên cột + giá trị drop-down) => dữ liệu thay đổi thì key đổi, entry cũ tự bị đẩy ra
+    private record TemplateKey(List<Integer> typeIds, String dataVersion) {
+    }
+
+    public InterestServiceImpl(@Value("${ims.interest.template-cache.max-entries:20}") int templateCacheSize) {
+        this.templateCache = new CoalescingCache<>(templateCacheSize, InterestServiceImpl::deleteQuietly);
+    }
+
+    @PreDestroy
+    public void clearTemplateCache() {
+        templateCache.invalidateAll();
+    }
+
+    @Override
+    public void writeInterestTemplate(TemplateRequest request, OutputStream out) throws IOException {
+        TemplateData data = loadTemplateData(request.getParamTypeIds());
+        TemplateKey key = new TemplateKey(data.types().stream().map(LoanInterestParamType::getId).toList(), dataVersion(data));
+        Path file = templateCache.get(key, () -> buildTemplateFile(data));
+        try {
+            Files.copy(file, out);
+        } catch (NoSuchFileException e) {
+            // File vừa bị đẩy khỏi cache bởi request khác: ghi thẳng ra response
+            writeTemplate(data, out);
+        }
+    }
+
+    @Override
+    public CacheStats getTemplateCacheStats() {
+        return templateCache.stats();
+    }
 
     @Override
-    public ByteArrayInputStream generateInterestTemplate(TemplateRequest request) {
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    public ReferenceDataStats getReferenceDataStats() {
+        return referenceData.stats();
+    }
+
+    @Override
+    public ReferenceDataStats refreshReferenceData() {
+        referenceData.refresh();
+        return referenceData.stats();
+    }
 
+    // Đọc streaming (SAX) sheet "Import Template", kiểm tra từng ô bằng snapshot tham số,
+    // ghi các dòng hợp lệ theo lô JDBC batch. Cả file nằm trong một transaction: lỗi khi ghi thì không lưu dòng nào.
+    @Override
+    public ImportResult importInterestRates(MultipartFile file) {
+        String fileName = file.getOriginalFilename();
+        if (fileName == null || !fileName.toLowerCase(Locale.ROOT).endsWith(".xlsx")) {
+            throw new IllegalArgumentException("Định dạng file không hợp lệ (.xlsx)");
+        }
+
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile("ims-interest-import-", ".xlsx");
+            file.transferTo(tempFile);
+            try (SheetReader reader = new StreamingXlsxSheetReader(tempFile)) {
+                if (!reader.hasSheet(InterestRateImport.SHEET_NAME)) {
+                    throw new IllegalArgumentException("File không có sheet '" + InterestRateImport.SHEET_NAME + "'");
+                }
+                ImportReport report = reportStore.newReport();
+                ImportResult result = importRates(reader, report);
+                // Lưu báo cáo để xem lỗi theo trang / tải file có cột lỗi như import user
+                // (store giữ file gốc nếu có lỗi nên phải lưu trước khi xóa file tạm)
+                reportStore.save(report, tempFile);
+                return result;
+            }
+        } catch (IOException e) {
+            log.error("Error importing interest rate file", e);
+            throw new RuntimeException("Lỗi xử lý file: " + e.getMessage());
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    private ImportResult importRates(SheetReader reader, ImportReport report) {
+        long start = System.currentTimeMillis();
+        String importId = report.getId();
+        InterestRateImport rateImport = new InterestRateImport(referenceData.current(), rateWriter, report,
+                importId, importBatchSize);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try {
+                reader.readSheet(InterestRateImport.SHEET_NAME, 0, rateImport);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!rateImport.hasHeader()) {
+                throw new IllegalArgumentException("Sheet '" + InterestRateImport.SHEET_NAME + "' không có dữ liệu");
+            }
+            rateImport.flush();
+        });
+
+        log.info("Interest rate import {}: {} rows, {} saved, {} errors in {} ms", importId,
+                rateImport.getTotalRows(), rateImport.getSavedRows(), report.getErrorCount(),
+                System.currentTimeMillis() - start);
+        return ImportResult.builder()
+                .importId(importId)
+                .totalRows(rateImport.getTotalRows())
+                .successCount(rateImport.getSavedRows())
+                .errorCount(report.getErrorCount())
+                .errorDetails(report.getDetails())
+                .detailsTruncated(report.isTruncated())
+                .issuesTruncated(report.isIssuesTruncated())
+                .message("Import lãi suất " + importId + ": lưu " + rateImport.getSavedRows() + "/"
+                        + rateImport.getTotalRows() + " dòng")
+                .build();
+    }
+
+    // Đọc từ snapshot trong bộ nhớ, không query DB; id không tồn tại bị bỏ qua như trước
+    private TemplateData loadTemplateData(List<Integer> paramTypeIds) {
+        InterestReferenceData.Snapshot snapshot = referenceData.current();
+        List<LoanInterestParamType> types = paramTypeIds == null ? List.of()
+                : paramTypeIds.stream().map(snapshot::type).filter(Objects::nonNull).toList();
+
+        Map<Integer, List<String>> valuesByType = new HashMap<>();
+        for (LoanInterestParamType type : types) {
+            valuesByType.put(type.getId(), snapshot.values(type.getId()));
+        }
+        return new TemplateData(types, valuesByType);
+    }
+
+    // Tạo file template vào file tạm (cache giữ đường dẫn, request sau chỉ việc copy file ra response)
+    private Path buildTemplateFile(TemplateData data) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("ims-interest-template-", ".xlsx");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                writeTemplate(data, out);
+            }
+            return file;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new RuntimeException("Lỗi export excel template: " + e.getMessage());
+        }
+    }
+
+    // SXSSF: chỉ giữ một cửa sổ dòng trong bộ nhớ, phần còn lại ghi ra file tạm của POI
+    private void writeTemplate(TemplateData data, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        try {
             // 1. Tạo 2 Sheet: Một hiện (nhập liệu), Một ẩn (chứa data drop-down)
             Sheet mainSheet = workbook.createSheet("Import Template");
             String hiddenSheetName = "HiddenData";
@@ -42,37 +217,27 @@ public class InterestServiceImpl implements InterestService {
             headerStyle.setFont(font);
 
             Row headerRow = mainSheet.createRow(0);
+            List<LoanInterestParamType> types = data.types();
 
             int colIndex = 0;
-            // Duyệt qua danh sách ID các cột người dùng chọn
-            for (Integer typeId : request.getParamTypeIds()) {
-                LoanInterestParamType paramType = typeRepo.findById(typeId).orElse(null);
-                if (paramType == null) continue;
-
+            // Duyệt qua danh sách các cột người dùng chọn
+            for (LoanInterestParamType paramType : types) {
                 // A. Tạo Header trên Main Sheet
                 Cell cell = headerRow.createCell(colIndex);
                 cell.setCellValue(paramType.getName());
                 cell.setCellStyle(headerStyle);
                 mainSheet.setColumnWidth(colIndex, 6000); // Độ rộng cột
 
-                // B. Lấy dữ liệu từ DB
-                List<LoanInterestParam> params = paramRepo.findByTypeIdAndStatus(typeId, "ACTIVE");
-
-                if (!params.isEmpty()) {
-                    // C. Đổ dữ liệu vào Hidden Sheet (Mỗi loại tham số 1 cột)
-                    for (int i = 0; i < params.size(); i++) {
-                        Row row = hiddenSheet.getRow(i);
-                        if (row == null) row = hiddenSheet.createRow(i);
-                        row.createCell(colIndex).setCellValue(params.get(i).getValue());
-                    }
+                // B. Dữ liệu drop-down của cột
+                int valueCount = data.valuesByType().getOrDefault(paramType.getId(), List.of()).size();
 
+                if (valueCount > 0) {
                     // D. Tạo công thức tham chiếu trực tiếp (CÁCH 1)
                     // Cú pháp: 'HiddenData'!$A$1:$A$5
                     String colLetter = getExcelColumnName(colIndex + 1);
-                    int lastRow = params.size();
 
                     // Lưu ý: Tên sheet nên để trong dấu nháy đơn '' phòng trường hợp có khoảng trắng
-                    String formula = "'" + hiddenSheetName + "'!$" + colLetter + "$1:$" + colLetter + "$" + lastRow;
+                    String formula = "'" + hiddenSheetName + "'!$" + colLetter + "$1:$" + colLetter + "$" + valueCount;
 
                     // E. Tạo Data Validation
                     DataValidationHelper validationHelper = mainSheet.getDataValidationHelper();
@@ -95,6 +260,25 @@ public class InterestServiceImpl implements InterestService {
                 colIndex++;
             }
 
+            // Cột nhập lãi suất ở cuối (không có drop-down)
+            Cell rateCell = headerRow.createCell(colIndex);
+            rateCell.setCellValue(InterestRateImport.RATE_HEADER);
+            rateCell.setCellStyle(headerStyle);
+            mainSheet.setColumnWidth(colIndex, 4000);
+
+            // C. Đổ dữ liệu vào Hidden Sheet (Mỗi loại tham số 1 cột).
+            // SXSSF chỉ ghi được dòng theo thứ tự tăng dần nên ghi theo từng dòng, không theo từng cột
+            List<List<String>> columns = types.stream()
+                    .map(t -> data.valuesByType().getOrDefault(t.getId(), List.of()))
+                    .toList();
+            int maxValues = columns.stream().mapToInt(List::size).max().orElse(0);
+            for (int i = 0; i < maxValues; i++) {
+                Row row = hiddenSheet.createRow(i);
+                for (int c = 0; c < columns.size(); c++) {
+                    if (i < columns.get(c).size()) row.createCell(c).setCellValue(columns.get(c).get(i));
+                }
+            }
+
             // Ẩn sheet dữ liệu đi để người dùng đỡ rối
             workbook.setSheetHidden(workbook.getSheetIndex(hiddenSheet), true);
 
@@ -102,10 +286,39 @@ public class InterestServiceImpl implements InterestService {
             workbook.setActiveSheet(workbook.getSheetIndex(mainSheet));
 
             workbook.write(out);
-            return new ByteArrayInputStream(out.toByteArray());
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
 
+    private static String dataVersion(TemplateData data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (LoanInterestParamType type : data.types()) {
+                update(digest, String.valueOf(type.getId()));
+                update(digest, type.getName());
+                for (String value : data.valuesByType().getOrDefault(type.getId(), List.of())) {
+                    update(digest, value);
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);   // phân cách để "ab"+"c" khác "a"+"bc"
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
         } catch (IOException e) {
-            throw new RuntimeException("Lỗi export excel template: " + e.getMessage());
+            log.warn("Không xóa được file tạm {}", path, e);
         }
     }
 
@@ -119,4 +332,4 @@ public class InterestServiceImpl implements InterestService {
         }
         return result.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,314 @@
+package dev.virtuoso.ims.service.impl;
+
+import dev.virtuoso.ims.dto.request.BulkRoleRequest;
+import dev.virtuoso.ims.dto.request.UserRoleRequest;
+import dev.virtuoso.ims.dto.request.UserSelection;
+import dev.virtuoso.ims.dto.request.UserUpdateRequest;
+import dev.virtuoso.ims.dto.response.BulkResult;
+import dev.virtuoso.ims.entity.UserOffer;
+import dev.virtuoso.ims.entity.UserRoleOffer;
+import dev.virtuoso.ims.reference.RoleCatalog;
+import dev.virtuoso.ims.repository.RoleOfferRepository;
+import dev.virtuoso.ims.repository.UserOfferRepository;
+import dev.virtuoso.ims.repository.UserRoleOfferRepository;
+import dev.virtuoso.ims.search.UserSearchIndex;
+import dev.virtuoso.ims.security.UserPermissionCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+// Ghi user từ màn quản trị: sửa thông tin (đối chiếu phân quyền) và các thao tác hàng loạt
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserCommandServiceImpl {
+
+    public static final String INACTIVE = "INACTIVE";
+
+    private static final int CHUNK_SIZE = 1000;   // Oracle giới hạn 1000 phần tử trong IN (...)
+    private static final LocalDate MIN_DATE = LocalDate.of(1900, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    // Cấp role cho cả lô user bằng 1 câu INSERT ... SELECT; bỏ qua user đã có phân quyền giống hệt
+    // giao khoảng ngày (cùng điều kiện với UserRoleOfferRepository#existsDuplicatePermission)
+    private static final String GRANT_ROLE =
+            "INSERT INTO USER_ROLE_OFFER (ID, TYPE, ROLE_ID, BANK, BRANCH, FROM_DATE, TO_DATE, USER_ID) " +
+            "SELECT user_role_offer_seq.NEXTVAL, :type, :roleId, :bank, :branch, :fromDate, :toDate, u.ID " +
+            "FROM USER_OFFER u WHERE u.ID IN (:userIds) " +
+            "AND NOT EXISTS (SELECT 1 FROM USER_ROLE_OFFER ur WHERE ur.USER_ID = u.ID AND ur.ROLE_ID = :roleId " +
+            "    AND ur.BANK = :bank AND ur.BRANCH = :branch AND %s " +
+            "    AND (ur.TO_DATE IS NULL OR ur.TO_DATE >= :fromBound) " +
+            "    AND (ur.FROM_DATE IS NULL OR ur.FROM_DATE <= :toBound))";
+
+    private final UserOfferRepository userRepository;
+    private final UserRoleOfferRepository userRoleRepository;
+    private final RoleOfferRepository roleRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final RoleCatalog roleCatalog;
+    private final UserSearchIndex searchIndex;
+    private final UserPermissionCache permissionCache;
+
+    // Khóa so khớp phân quyền gửi lên với phân quyền đang có
+    private record RoleKey(Long roleId, String bank, String branch, String type, LocalDate fromDate, LocalDate toDate) {
+
+        static RoleKey of(UserRoleOffer role) {
+            return new RoleKey(role.getRole() == null ? null : role.getRole().getId(), role.getBank(),
+                    role.getBranch(), role.getType(), role.getFromDate(), role.getToDate());
+        }
+    }
+
+    @Transactional
+    public UserOffer updateUser(Long id, UserUpdateRequest request) {
+        UserOffer existingUser = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Resolve role trước khi sửa gì: role không tồn tại thì từ chối cả request
+        List<UserRoleOffer> incomingRoles = request.getUserRoles() == null ? null
+                : request.getUserRoles().stream().map(this::toUserRole).toList();
+
+        existingUser.setFullName(request.getFullName());
+        existingUser.setEmail(request.getEmail());
+        existingUser.setPhone(request.getPhone());
+        existingUser.setBirthDay(request.getBirthDay());
+        existingUser.setGender(request.getGender());
+        // Không gửi subSystem = giữ nguyên "Phân hệ" (thường đến từ file import)
+        if (request.getSubSystem() != null) {
+            existingUser.setSubSystem(request.getSubSystem());
+        }
+        existingUser.setStatus(request.getStatus());
+        existingUser.setUpdatedTime(LocalDateTime.now());
+        existingUser.setUpdatedBy("ADMIN");
+
+        // Không gửi userRoles = giữ nguyên phân quyền
+        if (incomingRoles != null) {
+            reconcileRoles(existingUser, incomingRoles);
+        }
+        // Trạng thái hoặc phân quyền có thể đã đổi
+        permissionCache.invalidate(existingUser.getUserName());
+        return userRepository.save(existingUser);
+    }
+
+    // Đối chiếu thay cho xóa hết rồi thêm lại: phân quyền không đổi thì không sinh câu lệnh nào,
+    // dòng bị bỏ được tái sử dụng cho dòng mới (UPDATE tại chỗ, không tốn DELETE + INSERT + sequence),
+    // chỉ phần chênh lệch mới INSERT hoặc DELETE.
+    // Phân quyền hiện có đọc bằng query riêng, không qua user.getUserRoles(): collection không được nạp nên
+    // orphanRemoval không xóa từng dòng; dòng thừa bị xóa bằng DELETE ... WHERE ID IN (...) theo lô CHUNK_SIZE.
+    // Sau commit, userRoles của user trả về được nạp lại từ DB.
+    private void reconcileRoles(UserOffer user, List<UserRoleOffer> incoming) {
+        // LinkedHashMap: dòng thừa được tái sử dụng theo thứ tự ID, không phụ thuộc hash của khóa
+        Map<RoleKey, Deque<UserRoleOffer>> existingByKey = new LinkedHashMap<>();
+        for (UserRoleOffer role : userRoleRepository.findByUserId(user.getId())) {
+            existingByKey.computeIfAbsent(RoleKey.of(role), k -> new ArrayDeque<>()).add(role);
+        }
+
+        List<UserRoleOffer> additions = new ArrayList<>();
+        for (UserRoleOffer role : incoming) {
+            Deque<UserRoleOffer> matches = existingByKey.get(RoleKey.of(role));
+            if (matches == null || matches.poll() == null) {
+                additions.add(role);
+            }
+        }
+
+        List<UserRoleOffer> unmatched = new ArrayList<>();
+        existingByKey.values().forEach(unmatched::addAll);
+        if (additions.isEmpty() && unmatched.isEmpty()) return;
+
+        int reused = Math.min(additions.size(), unmatched.size());
+        for (int i = 0; i < reused; i++) {
+            copyRole(additions.get(i), unmatched.get(i));
+        }
+        List<UserRoleOffer> created = new ArrayList<>();
+        for (UserRoleOffer role : additions.subList(reused, additions.size())) {
+            UserRoleOffer newRole = new UserRoleOffer();
+            copyRole(role, newRole);
+            newRole.setUserOffer(user);
+            created.add(newRole);
+        }
+        userRoleRepository.saveAll(created);
+        List<Long> removedIds = unmatched.subList(reused, unmatched.size()).stream()
+                .map(UserRoleOffer::getId)
+                .toList();
+        for (int from = 0; from < removedIds.size(); from += CHUNK_SIZE) {
+            userRoleRepository.deleteByIdIn(removedIds.subList(from, Math.min(from + CHUNK_SIZE, removedIds.size())));
+        }
+        log.debug("Reconciled roles of user {}: {} updated, {} added, {} removed",
+                user.getId(), reused, created.size(), removedIds.size());
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Thao tác hàng loạt: chọn ID user một lần, rồi chạy vài câu lệnh set-based trên từng lô CHUNK_SIZE ID,
+    // mỗi lô một transaction. Lô lỗi được ghi log và bỏ qua, các lô khác vẫn được lưu.
+    // Mọi thao tác đều đổi phân quyền hoặc trạng thái của user trong lô nên quyền hiệu lực cache của họ bị xóa.
+
+    public BulkResult deleteUsers(UserSelection selection) {
+        List<Long> userIds = resolveUsers(selection);
+        BulkResult result = runChunks("DELETE", userIds, (chunk, totals) -> {
+            totals[1] += userRoleRepository.deleteByUserIdIn(chunk);
+            totals[0] += userRepository.deleteByIdIn(chunk);
+        }, chunk -> chunk.forEach(searchIndex::remove));
+        log.info("Bulk delete: {} users, {} permissions", result.getAffectedUsers(), result.getAffectedRoles());
+        return result;
+    }
+
+    public BulkResult deactivateUsers(UserSelection selection) {
+        List<Long> userIds = resolveUsers(selection);
+        LocalDateTime now = LocalDateTime.now();
+        return runChunks("DEACTIVATE", userIds,
+                (chunk, totals) -> totals[0] += userRepository.updateStatusByIdIn(chunk, INACTIVE, now, "ADMIN"),
+                null);
+    }
+
+    public BulkResult grantRole(BulkRoleRequest request) {
+        Long roleId = resolveRole(request);
+        if (StringUtils.isBlank(request.getBank()) || StringUtils.isBlank(request.getBranch())) {
+            throw new IllegalArgumentException("Khối và Đơn vị không được để trống");
+        }
+        if (request.getFromDate() != null && request.getToDate() != null
+                && request.getFromDate().isAfter(request.getToDate())) {
+            throw new IllegalArgumentException("Từ ngày phải trước hoặc bằng Đến ngày");
+        }
+        List<Long> userIds = resolveUsers(request.getUsers());
+
+        String sql = GRANT_ROLE.formatted(request.getType() == null ? "ur.TYPE IS NULL" : "ur.TYPE = :type");
+        return runChunks("GRANT", userIds, (chunk, totals) -> {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("userIds", chunk)
+                    .addValue("roleId", roleId)
+                    .addValue("bank", request.getBank(), Types.VARCHAR)
+                    .addValue("branch", request.getBranch(), Types.VARCHAR)
+                    .addValue("type", request.getType(), Types.VARCHAR)
+                    .addValue("fromDate", request.getFromDate(), Types.DATE)
+                    .addValue("toDate", request.getToDate(), Types.DATE)
+                    .addValue("fromBound", request.getFromDate() != null ? request.getFromDate() : MIN_DATE, Types.DATE)
+                    .addValue("toBound", request.getToDate() != null ? request.getToDate() : MAX_DATE, Types.DATE);
+            totals[1] += jdbcTemplate.update(sql, params);
+        }, null);
+    }
+
+    public BulkResult revokeRole(BulkRoleRequest request) {
+        Long roleId = resolveRole(request);
+        List<Long> userIds = resolveUsers(request.getUsers());
+        return runChunks("REVOKE", userIds, (chunk, totals) -> totals[1] += userRoleRepository.revokeRole(chunk,
+                roleId, StringUtils.trimToNull(request.getBank()), StringUtils.trimToNull(request.getBranch()),
+                StringUtils.trimToNull(request.getType())), null);
+    }
+
+    // Chọn theo danh sách ID hoặc theo bộ lọc; bắt buộc có ít nhất một tiêu chí để tránh vô tình chọn toàn bộ user
+    private List<Long> resolveUsers(UserSelection selection) {
+        if (selection == null) {
+            throw new IllegalArgumentException("Chưa chọn user");
+        }
+        String bank = StringUtils.trimToNull(selection.getBank());
+        String branch = StringUtils.trimToNull(selection.getBranch());
+        String status = StringUtils.trimToNull(selection.getStatus());
+        boolean hasFilter = bank != null || branch != null || status != null;
+        boolean hasIds = selection.getUserIds() != null && !selection.getUserIds().isEmpty();
+        if (hasIds == hasFilter) {
+            throw new IllegalArgumentException(hasIds
+                    ? "Chỉ chọn user theo danh sách ID hoặc theo bộ lọc, không dùng cả hai"
+                    : "Chưa chọn user (danh sách ID hoặc bộ lọc khối/đơn vị/trạng thái)");
+        }
+        if (hasIds) {
+            return selection.getUserIds().stream().filter(Objects::nonNull).distinct().sorted().toList();
+        }
+        return userRepository.findIdsByFilter(status, bank, branch);
+    }
+
+    private Long resolveRole(BulkRoleRequest request) {
+        return resolveRole(request.getRoleId(), request.getRoleName());
+    }
+
+    // Role theo ID, hoặc theo tên (không phân biệt hoa thường) khi không có ID; tra trong RoleCatalog
+    private Long resolveRole(Long roleId, String roleName) {
+        if (roleId != null) {
+            if (!roleCatalog.current().roles().containsKey(roleId)) {
+                throw new IllegalArgumentException("Role ID " + roleId + " không tồn tại trong hệ thống");
+            }
+            return roleId;
+        }
+        if (StringUtils.isBlank(roleName)) {
+            throw new IllegalArgumentException("Role trống");
+        }
+        return roleCatalog.findByRoleNameIgnoreCase(roleName)
+                .orElseThrow(() -> new IllegalArgumentException("Role '" + roleName + "' không tồn tại trong hệ thống"))
+                .getId();
+    }
+
+    // Entity trong RoleCatalog dùng chung giữa các request nên chỉ gắn reference theo ID
+    private UserRoleOffer toUserRole(UserRoleRequest request) {
+        return UserRoleOffer.builder()
+                .role(roleRepository.getReferenceById(resolveRole(request.getRoleId(), request.getRoleName())))
+                .bank(request.getBank())
+                .branch(request.getBranch())
+                .type(request.getType())
+                .fromDate(request.getFromDate())
+                .toDate(request.getToDate())
+                .build();
+    }
+
+    // totals[0]: số user bị tác động, totals[1]: số phân quyền bị tác động.
+    // afterCommit chạy sau khi lô đã commit (vd: cập nhật index tìm kiếm)
+    private BulkResult runChunks(String operation, List<Long> userIds, BiConsumer<List<Long>, int[]> work,
+                                 Consumer<List<Long>> afterCommit) {
+        long start = System.currentTimeMillis();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int[] totals = new int[2];
+        int chunks = 0;
+        int failedChunks = 0;
+        for (int from = 0; from < userIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + CHUNK_SIZE, userIds.size()));
+            chunks++;
+            try {
+                int[] chunkTotals = new int[2];
+                transactionTemplate.executeWithoutResult(status -> {
+                    // Lấy tên trước khi ghi (lô xóa không còn user để tra sau commit)
+                    permissionCache.invalidate(userRepository.findUserNamesByIdIn(chunk));
+                    work.accept(chunk, chunkTotals);
+                });
+                totals[0] += chunkTotals[0];
+                totals[1] += chunkTotals[1];
+                if (afterCommit != null) afterCommit.accept(chunk);
+            } catch (RuntimeException e) {
+                failedChunks++;
+                log.error("Bulk {} failed for chunk {} ({} users)", operation, chunks, chunk.size(), e);
+            }
+        }
+        return BulkResult.builder()
+                .operation(operation)
+                .selectedUsers(userIds.size())
+                .affectedUsers(totals[0])
+                .affectedRoles(totals[1])
+                .chunks(chunks)
+                .failedChunks(failedChunks)
+                .elapsedMillis(System.currentTimeMillis() - start)
+                .build();
+    }
+
+    private static void copyRole(UserRoleOffer source, UserRoleOffer target) {
+        target.setType(source.getType());
+        target.setBank(source.getBank());
+        target.setBranch(source.getBranch());
+        target.setFromDate(source.getFromDate());
+        target.setToDate(source.getToDate());
+        target.setRole(source.getRole());
+    }
+}
@@ -0,0 +1,205 @@
+package dev.virtuoso.ims.service.impl;
+
+import dev.virtuoso.ims.repository.UserOfferRepository;
+import dev.virtuoso.ims.repository.UserRoleOfferRepository;
+import dev.virtuoso.ims.repository.projection.PermissionExportRow;
+import dev.virtuoso.ims.repository.projection.UserExportRow;
+import dev.virtuoso.ims.util.ExcelUtils;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// Xuất toàn bộ user và phân quyền theo đúng bố cục file import (sửa xong có thể import lại).
+// Dữ liệu được đọc bằng Stream một chiều (fetch size) và ghi thẳng ra response: bộ nhớ không phụ thuộc số user.
+@Service
+@RequiredArgsConstructor
+public class UserExportServiceImpl {
+
+    private static final String USER_SHEET = "User";
+    private static final String PERMISSION_SHEET = "Thong_tin_phan_quyen";
+    private static final int FIRST_DATA_ROW = 3;        // 3 dòng đầu là tiêu đề/hướng dẫn, giống file import
+    private static final int ROW_ACCESS_WINDOW = 100;   // số dòng SXSSF giữ trong bộ nhớ
+    private static final int MAX_XLSX_DATA_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows() - FIRST_DATA_ROW;
+
+    private static final List<String> USER_HEADERS =
+            List.of("Username", "Email", "Họ tên", "Ngày sinh", "Giới tính", "SĐT", "Phân hệ");
+    private static final List<String> PERMISSION_HEADERS =
+            List.of("Username", "Khối", "Đơn vị", "Role", "Loại", "Từ ngày", "Đến ngày");
+
+    @Getter
+    public enum Format {
+        XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+        CSV("csv", "text/csv; charset=UTF-8");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+    }
+
+    private final UserOfferRepository userRepository;
+    private final UserRoleOfferRepository userRoleRepository;
+
+    // Kiểm tra trước khi bắt đầu ghi response (sau đó không trả lỗi 400 được nữa)
+    public Format resolveFormat(String format) {
+        Format resolved;
+        try {
+            resolved = Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Định dạng xuất không hợp lệ (xlsx, csv)");
+        }
+        if (resolved == Format.XLSX
+                && Math.max(userRepository.count(), userRoleRepository.count()) > MAX_XLSX_DATA_ROWS) {
+            throw new IllegalArgumentException("Số dòng vượt giới hạn một sheet Excel (" + MAX_XLSX_DATA_ROWS
+                    + "), vui lòng xuất định dạng csv");
+        }
+        return resolved;
+    }
+
+    // Gọi trong StreamingResponseBody: transaction (và connection) chỉ mở trong lúc ghi file
+    @Transactional(readOnly = true)
+    public void exportUsers(Format format, OutputStream out) throws IOException {
+        if (format == Format.CSV) {
+            writeCsv(out);
+        } else {
+            writeXlsx(out);
+        }
+    }
+
+    private void writeXlsx(OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font font = workbook.createFont();
+            font.setBold(true);
+            headerStyle.setFont(font);
+
+            Sheet userSheet = createSheet(workbook, USER_SHEET, "Danh sách người dùng", USER_HEADERS, headerStyle);
+            try (Stream<UserExportRow> users = userRepository.streamExportRows()) {
+                int rowNum = FIRST_DATA_ROW;
+                for (Iterator<UserExportRow> it = users.iterator(); it.hasNext(); ) {
+                    UserExportRow user = it.next();
+                    writeRow(userSheet.createRow(rowNum++), user.userName(), user.email(), user.fullName(),
+                            formatDate(user.birthDay()), user.gender(), user.phone(), user.subSystem());
+                }
+            }
+
+            Sheet permissionSheet = createSheet(workbook, PERMISSION_SHEET, "Thông tin phân quyền",
+                    PERMISSION_HEADERS, headerStyle);
+            try (Stream<PermissionExportRow> permissions = userRoleRepository.streamExportRows()) {
+                int rowNum = FIRST_DATA_ROW;
+                for (Iterator<PermissionExportRow> it = permissions.iterator(); it.hasNext(); ) {
+                    PermissionExportRow p = it.next();
+                    writeRow(permissionSheet.createRow(rowNum++), p.userName(), p.bank(), p.branch(), p.roleName(),
+                            p.type(), formatDate(p.fromDate()), formatDate(p.toDate()));
+                }
+            }
+
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static Sheet createSheet(SXSSFWorkbook workbook, String name, String title, List<String> headers,
+                                     CellStyle headerStyle) {
+        Sheet sheet = workbook.createSheet(name);
+        sheet.createRow(0).createCell(0).setCellValue(title);
+        sheet.createRow(1).createCell(0).setCellValue("Ngày định dạng dd/MM/yyyy. Xuất ngày "
+                + LocalDate.now().format(ExcelUtils.DATE_FORMATTER));
+        Row headerRow = sheet.createRow(FIRST_DATA_ROW - 1);
+        for (int i = 0; i < headers.size(); i++) {
+            headerRow.createCell(i).setCellValue(headers.get(i));
+            headerRow.getCell(i).setCellStyle(headerStyle);
+            sheet.setColumnWidth(i, 5000);
+        }
+        return sheet;
+    }
+
+    // Ô null bỏ trống (không tạo cell); ngày ghi dạng text dd/MM/yyyy như file import
+    private static void writeRow(Row row, String... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) row.createCell(i).setCellValue(values[i]);
+        }
+    }
+
+    // Cùng định dạng DelimitedSheetReader đọc được: BOM UTF-8, mỗi sheet là một section "[Tên sheet]" + 1 dòng tiêu đề
+    private void writeCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write('\uFEFF');
+
+        writer.write("[" + USER_SHEET + "]\n");
+        writeCsvLine(writer, USER_HEADERS.toArray(new String[0]));
+        try (Stream<UserExportRow> users = userRepository.streamExportRows()) {
+            users.forEach(user -> writeCsvLine(writer, user.userName(), user.email(), user.fullName(),
+                    formatDate(user.birthDay()), user.gender(), user.phone(), user.subSystem()));
+        }
+
+        writer.write("[" + PERMISSION_SHEET + "]\n");
+        writeCsvLine(writer, PERMISSION_HEADERS.toArray(new String[0]));
+        try (Stream<PermissionExportRow> permissions = userRoleRepository.streamExportRows()) {
+            permissions.forEach(p -> writeCsvLine(writer, p.userName(), p.bank(), p.branch(), p.roleName(),
+                    p.type(), formatDate(p.fromDate()), formatDate(p.toDate())));
+        }
+        // Không đóng writer: output stream của response do container quản lý
+        writer.flush();
+    }
+
+    private static void writeCsvLine(Writer writer, String... values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) writer.write(',');
+                writeCsvValue(writer, values[i]);
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Chỉ đặt trong nháy kép khi cần; giá trị bắt đầu bằng '[' cũng quote để không bị hiểu là dòng section
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty()) return;
+        boolean quote = value.charAt(0) == '[';
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String formatDate(LocalDate date) {
+        return date == null ? null : date.format(ExcelUtils.DATE_FORMATTER);
+    }
+}
@@ -1,24 +1,49 @@
 package dev.virtuoso.ims.service.impl;
 
+import dev.virtuoso.ims.importer.ExistingPermissionIndex;
+import dev.virtuoso.ims.importer.ImportCancelledException;
+import dev.virtuoso.ims.importer.ImportEngine;
+import dev.virtuoso.ims.importer.ImportPhase;
+import dev.virtuoso.ims.importer.ImportProgress;
+import dev.virtuoso.ims.importer.ImportReport;
+import dev.virtuoso.ims.importer.ImportReportStore;
+import dev.virtuoso.ims.importer.ImportRow;
+import dev.virtuoso.ims.importer.ParallelRowProcessor;
+import dev.virtuoso.ims.importer.PermissionKey;
+import dev.virtuoso.ims.importer.RowResult;
+import dev.virtuoso.ims.importer.SheetReader;
+import dev.virtuoso.ims.importer.SheetReaders;
+import dev.virtuoso.ims.importer.SqlUserImportEngine;
+import dev.virtuoso.ims.importer.UserImportContext;
+import dev.virtuoso.ims.importer.UserImportWriter;
+import dev.virtuoso.ims.importer.ValidatedImport;
+import dev.virtuoso.ims.importer.ValidatedImportCache;
+import dev.virtuoso.ims.reference.RoleCatalog;
 import dev.virtuoso.ims.repository.UserRoleOfferRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import dev.virtuoso.ims.dto.response.ImportResult;
 import dev.virtuoso.ims.entity.RoleOffer;
 import dev.virtuoso.ims.entity.UserOffer;
 import dev.virtuoso.ims.entity.UserRoleOffer;
-import dev.virtuoso.ims.repository.RoleOfferRepository;
 import dev.virtuoso.ims.repository.UserOfferRepository;
-import dev.virtuoso.ims.util.ExcelUtils;
-
+import dev.virtuoso.ims.validation.ImportErrorCode;
+import dev.virtuoso.ims.validation.ImportRules;
+import dev.virtuoso.ims.validation.RowError;
+import dev.virtuoso.ims.validation.ValidatedRow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -30,291 +55,451 @@ import java.util.stream.Collectors;
 public class UserImportServiceImpl {
 
     private final UserOfferRepository userRepository;
-    private final RoleOfferRepository roleRepository;
+    private final RoleCatalog roleCatalog;
+    private final UserImportWriter importWriter;
+    private final ParallelRowProcessor rowProcessor;
+    private final SqlUserImportEngine sqlImportEngine;
+    private final ValidatedImportCache dryRunCache;
+    private final ImportReportStore reportStore;
+
+    private static final String USER_SHEET = "User";
+    private static final String PERMISSION_SHEET = "Thong_tin_phan_quyen";
+    private static final String USER_SHEET_LABEL = "Sheet User";
+    private static final String PERMISSION_SHEET_LABEL = "Sheet Phân quyền";
+    private static final int FIRST_DATA_ROW = 3; // 3 dòng đầu là tiêu đề/hướng dẫn
+
+    // true: đọc streaming (SAX), false: đọc toàn bộ workbook vào bộ nhớ
+    @Value("${ims.import.streaming:true}")
+    private boolean streamingReader;
+
+    // Số user mỗi lô khi lưu DB (mỗi lô commit riêng)
+    @Value("${ims.import.chunk-size:1000}")
+    private int chunkSize;
+
+    public ImportResult uploadUserFile(MultipartFile file, ImportEngine engine) {
+        Path tempFile = saveTempFile(file);
+        try {
+            return importFile(tempFile, engine, ImportProgress.NONE);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
 
-    private static final String EMAIL_REGEX = "^[A-Za-z0-9._]+@msb\\.com\\.vn$";
+    // Chạy thử: đọc + validate toàn bộ file, không ghi DB. Kết quả được cache theo hash nội dung file,
+    // token trả về dùng để xác nhận lưu (commitDryRun) mà không phải upload/đọc lại file.
+    public ImportResult dryRun(MultipartFile file) {
+        Path tempFile = saveTempFile(file);
+        try {
+            String token = hashFile(tempFile);
+            ValidatedImport validated = dryRunCache.get(token);
+            if (validated == null || !isStillValid(validated)) {
+                try (SheetReader reader = openReader(tempFile)) {
+                    validated = validateFile(reader, ImportProgress.NONE);
+                }
+                dryRunCache.put(token, validated);
+            }
+            reportStore.save(validated.getReport(), tempFile);
+            return dryRunResult(validated, token);
+        } catch (Exception e) {
+            log.error("Error dry run file", e);
+            throw new RuntimeException("Lỗi xử lý file: " + e.getMessage());
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    // Lưu kết quả dry run đã cache. Mỗi token chỉ dùng được một lần.
+    public ImportResult commitDryRun(String token) {
+        ValidatedImport validated = dryRunCache.remove(token);
+        if (validated == null) {
+            throw new NoSuchElementException("Kết quả chạy thử không tồn tại hoặc đã hết hạn, vui lòng upload lại file");
+        }
+        if (!isStillValid(validated)) {
+            throw new IllegalStateException("Dữ liệu role/user/phân quyền trên hệ thống đã thay đổi sau khi chạy thử, vui lòng upload lại file");
+        }
+        return persist(validated, ImportProgress.NONE);
+    }
 
-    public ImportResult uploadUserFile(MultipartFile file) {
-        if (!Objects.requireNonNull(file.getOriginalFilename()).endsWith(".xlsx")) {
-            throw new IllegalArgumentException("Định dạng file không hợp lệ (.xlsx)");
+    // Kiểm tra định dạng và ghi file upload ra đĩa để reader đọc trực tiếp,
+    // không giữ toàn bộ nội dung upload trong heap (và còn dùng được sau khi request kết thúc)
+    public Path saveTempFile(MultipartFile file) {
+        String extension = SheetReaders.extension(Objects.requireNonNull(file.getOriginalFilename()));
+        if (extension == null) {
+            throw new IllegalArgumentException("Định dạng file không hợp lệ (.xlsx, .csv, .tsv)");
         }
 
-        List<String> errorDetails = new ArrayList<>();
-        List<String> warningDetails = new ArrayList<>(); // Thêm list warning
-        List<UserOffer> newUsersToSave = new ArrayList<>();
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile("ims-user-import-", extension);
+            file.transferTo(tempFile);
+            return tempFile;
+        } catch (IOException e) {
+            deleteQuietly(tempFile);
+            log.error("Error saving upload file", e);
+            throw new RuntimeException("Lỗi lưu file upload: " + e.getMessage());
+        }
+    }
 
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet userSheet = workbook.getSheet("User");
-            Sheet permSheet = workbook.getSheet("Thong_tin_phan_quyen");
+    public ImportResult importFile(Path path, ImportProgress progress) {
+        return importFile(path, ImportEngine.JPA, progress);
+    }
 
-            if (userSheet == null || permSheet == null) {
-                throw new IllegalArgumentException("File thiếu sheet 'User' hoặc 'Thong_tin_phan_quyen'");
+    public ImportResult importFile(Path path, ImportEngine engine, ImportProgress progress) {
+        ImportReport report = reportStore.newReport();
+        ImportResult result;
+        try (SheetReader reader = openReader(path)) {
+            if (engine == ImportEngine.SQL) {
+                checkSheets(reader);
+                result = sqlImportEngine.importUsers(reader, USER_SHEET, PERMISSION_SHEET, FIRST_DATA_ROW, report, progress);
+            } else {
+                result = persist(validateFile(reader, report, progress), progress);
             }
+        } catch (ImportCancelledException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error import file", e);
+            throw new RuntimeException("Lỗi xử lý file: " + e.getMessage());
+        }
+        // Lưu sau khi đã đóng reader để chuyển được file gốc sang store
+        reportStore.save(report, path);
+        return result;
+    }
 
-            // --- BƯỚC 1 & 2: CHUẨN BỊ & XỬ LÝ SHEET USER ---
-            Map<String, RoleOffer> roleMap = roleRepository.findAll().stream()
-                    .collect(Collectors.toMap(r -> r.getRoleName().toUpperCase(), r -> r));
+    private SheetReader openReader(Path path) throws IOException {
+        return SheetReaders.open(path, streamingReader);
+    }
 
-            Set<String> allUsernamesInFile = new HashSet<>();
-            for (int i = 3; i <= userSheet.getLastRowNum(); i++) {
-                if (!ExcelUtils.isRowEmpty(userSheet.getRow(i))) {
-                    allUsernamesInFile.add(ExcelUtils.getCellValue(userSheet.getRow(i), 0));
-                }
-            }
+    private void checkSheets(SheetReader reader) {
+        if (!reader.hasSheet(USER_SHEET) || !reader.hasSheet(PERMISSION_SHEET)) {
+            throw new IllegalArgumentException("File thiếu sheet 'User' hoặc 'Thong_tin_phan_quyen'");
+        }
+    }
 
-            Map<String, UserOffer> existingUsersMap = new HashMap<>();
-            if (!allUsernamesInFile.isEmpty()) {
-                List<UserOffer> existingUsers = userRepository.findByUserNameIn(allUsernamesInFile);
-                existingUsersMap = existingUsers.stream()
-                        .collect(Collectors.toMap(UserOffer::getUserName, u -> u));
-            }
+    private ValidatedImport validateFile(SheetReader reader, ImportProgress progress) throws IOException {
+        return validateFile(reader, reportStore.newReport(), progress);
+    }
 
-            Map<String, UserOffer> validUserMap = new HashMap<>();
+    // Đọc + validate toàn bộ file, chưa ghi DB
+    private ValidatedImport validateFile(SheetReader reader, ImportReport report, ImportProgress progress) throws IOException {
+        List<UserOffer> newUsersToSave = new ArrayList<>();
 
-            for (int i = 3; i <= userSheet.getLastRowNum(); i++) {
-                Row row = userSheet.getRow(i);
-                if (ExcelUtils.isRowEmpty(row)) continue;
+        checkSheets(reader);
 
-                String username = ExcelUtils.getCellValue(row, 0);
+        // --- BƯỚC 1 & 2: CHUẨN BỊ & XỬ LÝ SHEET USER ---
+        Map<String, RoleOffer> roleMap = roleCatalog.rolesByName();
+
+        progress.phase(ImportPhase.READING);
+        Set<String> allUsernamesInFile = new HashSet<>();
+        reader.readSheet(USER_SHEET, FIRST_DATA_ROW, row -> {
+            progress.checkCancelled();
+            if (!row.isEmpty()) {
+                allUsernamesInFile.add(row.getCellValue(0));
+            }
+        });
+
+        Map<String, UserOffer> existingUsersMap = new HashMap<>();
+        if (!allUsernamesInFile.isEmpty()) {
+            List<UserOffer> existingUsers = userRepository.findByUserNameIn(allUsernamesInFile);
+            existingUsers.forEach(u -> existingUsersMap.put(u.getUserName(), u));
+        }
+
+        // Nạp trước toàn bộ phân quyền đang có của các user đã tồn tại (thay vì query từng dòng)
+        ExistingPermissionIndex existingPermissions = ExistingPermissionIndex.load(userRoleRepository,
+                existingUsersMap.values().stream().map(UserOffer::getId).toList());
+
+        UserImportContext context = new UserImportContext(roleMap, existingPermissions);
+        Map<String, UserOffer> validUserMap = context.getValidUserMap();
+        Map<String, List<UserRoleOffer>> newRolesByUser = context.getNewRolesByUser();
+
+        progress.phase(ImportPhase.VALIDATING_USERS);
+        rowProcessor.process(reader, USER_SHEET, FIRST_DATA_ROW, progress,
+                row -> {
+                    String username = row.getCellValue(0);
+                    // User đã tồn tại không cần validate các cột, bước gộp sẽ thêm cảnh báo
+                    return existingUsersMap.containsKey(username)
+                            ? RowResult.<String, UserOffer>skipped(row.getRowNum(), username)
+                            : parseAndValidateUser(row);
+                },
+                result -> {
+                    int i = result.getRowNum();
+                    String username = result.getKey();
+                    int errorsBefore = report.getErrorCount();
 
-                try {
                     if (existingUsersMap.containsKey(username)) {
                         // Thêm vào WARNING thay vì ERROR
-                        warningDetails.add("Sheet User - Dòng " + (i + 1) + ": Username '" + username + "' đã tồn tại trên hệ thống (sẽ thêm phân quyền nếu có)");
+                        report.rowWarning(USER_SHEET, USER_SHEET_LABEL, i, new RowError(0, ImportErrorCode.USER_EXISTS,
+                                "Username '" + username + "' đã tồn tại trên hệ thống (sẽ thêm phân quyền nếu có)"));
                         validUserMap.put(username, existingUsersMap.get(username));
+                    } else if (result.getUnexpectedError() != null) {
+                        report.rowErrors(USER_SHEET, USER_SHEET_LABEL, i, List.of(RowError.ofRow(
+                                ImportErrorCode.UNEXPECTED, "Lỗi không xác định - " + result.getUnexpectedError())));
                     } else {
-                        UserOffer user = parseAndValidateUser(row, existingUsersMap.keySet(), validUserMap);
-                        validUserMap.put(user.getUserName(), user);
-                        newUsersToSave.add(user);
+                        // CHỈ CHECK TRÙNG TRONG FILE (làm tuần tự ở bước gộp để đúng thứ tự dòng)
+                        List<RowError> rowErrors = new ArrayList<>();
+                        if (StringUtils.isNotBlank(username) && validUserMap.containsKey(username)) {
+                            rowErrors.add(new RowError(0, ImportErrorCode.DUPLICATE_IN_FILE,
+                                    "Username '" + username + "' bị trùng lặp trong file"));
+                        }
+                        rowErrors.addAll(result.getErrors());
+
+                        if (rowErrors.isEmpty()) {
+                            validUserMap.put(username, result.getValue());
+                            newUsersToSave.add(result.getValue());
+                        } else {
+                            report.rowErrors(USER_SHEET, USER_SHEET_LABEL, i, rowErrors);
+                        }
                     }
-                } catch (IllegalArgumentException e) {
-                    errorDetails.add("Sheet User - Dòng " + (i + 1) + ": " + e.getMessage());
-                } catch (Exception e) {
-                    errorDetails.add("Sheet User - Dòng " + (i + 1) + ": Lỗi không xác định - " + e.getMessage());
-                }
-            }
-
-            // --- BƯỚC 3: XỬ LÝ SHEET PHÂN QUYỀN ---
-            for (int i = 3; i <= permSheet.getLastRowNum(); i++) {
-                Row row = permSheet.getRow(i);
-                if (ExcelUtils.isRowEmpty(row)) continue;
-
-                try {
-                    parseAndValidatePermission(row, validUserMap, roleMap);
-                } catch (IllegalArgumentException e) {
-                    errorDetails.add("Sheet Phân quyền - Dòng " + (i + 1) + ": " + e.getMessage());
-                } catch (Exception e) {
-                    errorDetails.add("Sheet Phân quyền - Dòng " + (i + 1) + ": Lỗi không xác định - " + e.getMessage());
-                }
-            }
-
-            // --- BƯỚC 4: LƯU DB ---
-            if (!validUserMap.isEmpty()) {
-                userRepository.saveAll(validUserMap.values());
-            }
-
-            int totalProcessed = validUserMap.size();
-            int newUsers = newUsersToSave.size();
-            int updatedUsers = totalProcessed - newUsers;
+                    progress.rowProcessed(report.getErrorCount() > errorsBefore);
+                });
+
+        // --- BƯỚC 3: XỬ LÝ SHEET PHÂN QUYỀN ---
+        progress.phase(ImportPhase.VALIDATING_PERMISSIONS);
+        int permissionRows = rowProcessor.process(reader, PERMISSION_SHEET, FIRST_DATA_ROW, progress,
+                row -> parseAndValidatePermission(row, context),
+                result -> {
+                    int i = result.getRowNum();
+                    int errorsBefore = report.getErrorCount();
+
+                    if (result.getUnexpectedError() != null) {
+                        report.rowErrors(PERMISSION_SHEET, PERMISSION_SHEET_LABEL, i, List.of(RowError.ofRow(
+                                ImportErrorCode.UNEXPECTED, "Lỗi không xác định - " + result.getUnexpectedError())));
+                    } else if (result.hasErrors()) {
+                        report.rowErrors(PERMISSION_SHEET, PERMISSION_SHEET_LABEL, i, result.getErrors());
+                    } else if (!context.addPermission(result.getKey(), result.getValue())) {
+                        // Check trùng với roles đang được thêm trong file hiện tại (tra hash theo khóa ghép, null-safe)
+                        UserRoleOffer permission = result.getValue();
+                        report.rowErrors(PERMISSION_SHEET, PERMISSION_SHEET_LABEL, i, List.of(RowError.ofRow(
+                                ImportErrorCode.DUPLICATE_IN_FILE,
+                                String.format("Phân quyền [%s - %s - %s - %s] bị trùng lặp trong file cho user '%s'",
+                                        permission.getRole().getRoleName(), permission.getBank(), permission.getBranch(),
+                                        permission.getType(), result.getKey().userName()))));
+                    }
+                    progress.rowProcessed(report.getErrorCount() > errorsBefore);
+                });
+
+        Map<String, Long> existingUserIds = existingUsersMap.values().stream()
+                .collect(Collectors.toMap(UserOffer::getUserName, UserOffer::getId));
+        return new ValidatedImport(context, report, newUsersToSave.size(),
+                allUsernamesInFile.size() + permissionRows,
+                allUsernamesInFile, existingUserIds, roleIds(roleMap));
+    }
 
-            // Ghép warning và error lại (hoặc tách riêng)
-            List<String> allMessages = new ArrayList<>();
-            if (!warningDetails.isEmpty()) {
-                allMessages.addAll(warningDetails);
-            }
-            if (!errorDetails.isEmpty()) {
-                allMessages.addAll(errorDetails);
+    // --- BƯỚC 4: LƯU DB (theo lô, mỗi lô một transaction) ---
+    private ImportResult persist(ValidatedImport validated, ImportProgress progress) {
+        // Hủy trước bước này thì chưa có gì được ghi xuống DB; đã bắt đầu lưu thì chạy đến hết
+        progress.checkCancelled();
+        progress.phase(ImportPhase.SAVING);
+
+        Map<String, UserOffer> validUserMap = validated.getContext().getValidUserMap();
+        Map<String, List<UserRoleOffer>> newRolesByUser = validated.getContext().getNewRolesByUser();
+        ImportReport report = validated.getReport();
+
+        // User đã tồn tại mà không có phân quyền mới thì không cần ghi
+        List<UserOffer> usersToWrite = validUserMap.values().stream()
+                .filter(u -> u.getId() == null || newRolesByUser.containsKey(u.getUserName()))
+                .toList();
+
+        int failedChunks = 0;
+        int failedUsers = 0;
+        int failedNewUsers = 0;
+        for (int from = 0; from < usersToWrite.size(); from += chunkSize) {
+            List<UserOffer> chunk = usersToWrite.subList(from, Math.min(from + chunkSize, usersToWrite.size()));
+            int newUsersInChunk = (int) chunk.stream().filter(u -> u.getId() == null).count();
+            try {
+                importWriter.writeChunk(chunk, newRolesByUser);
+            } catch (Exception e) {
+                log.error("Error saving import chunk {}", from / chunkSize + 1, e);
+                failedChunks++;
+                failedUsers += chunk.size();
+                failedNewUsers += newUsersInChunk;
+                report.error(ImportErrorCode.SAVE_FAILED, String.format("Lưu DB - Lô %d (user '%s' đến '%s'): %s",
+                        from / chunkSize + 1, chunk.get(0).getUserName(), chunk.get(chunk.size() - 1).getUserName(),
+                        NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
             }
-
-            return ImportResult.builder()
-                    .totalRows(allUsernamesInFile.size() + (permSheet.getLastRowNum() - 2))
-                    .successCount(totalProcessed)
-                    .errorCount(errorDetails.size()) // Chỉ tính error thật
-                    .errorDetails(allMessages) // Hiển thị cả warning và error
-                    .message(String.format("Tạo mới: %d user, Cập nhật phân quyền: %d user, Cảnh báo: %d",
-                            newUsers, updatedUsers, warningDetails.size()))
-                    .build();
-
-        } catch (Exception e) {
-            log.error("Error import file", e);
-            throw new RuntimeException("Lỗi xử lý file: " + e.getMessage());
         }
-    }
 
+        int totalProcessed = validUserMap.size() - failedUsers;
+        int newUsers = validated.getNewUserCount() - failedNewUsers;
+        int updatedUsers = totalProcessed - newUsers;
+
+        return ImportResult.builder()
+                .importId(report.getId())
+                .totalRows(validated.getTotalRows())
+                .successCount(totalProcessed)
+                .errorCount(report.getErrorCount()) // Chỉ tính error thật
+                .warningCount(report.getWarningCount())
+                .failedChunks(failedChunks)
+                .errorDetails(report.getDetails()) // Hiển thị cả warning và error (tối đa N dòng mỗi loại)
+                .detailsTruncated(report.isTruncated())
+                .issuesTruncated(report.isIssuesTruncated())
+                .message(String.format("Tạo mới: %d user, Cập nhật phân quyền: %d user, Cảnh báo: %d",
+                        newUsers, updatedUsers, report.getWarningCount()))
+                .build();
+    }
 
-    //update: lưu thông báo lỗi vào list đưa ra 1 lần
-    private UserOffer parseAndValidateUser(Row row, Set<String> existingUsernamesDb, Map<String, UserOffer> validUserMap) {
-        List<String> rowErrors = new ArrayList<>();
-
-        String username = ExcelUtils.getCellValue(row, 0);
-        String email = ExcelUtils.getCellValue(row, 1);
-        String fullName = ExcelUtils.getCellValue(row, 2);
-        String rawGender = ExcelUtils.getCellValue(row, 4);
-        String phone = ExcelUtils.getCellValue(row, 5);
-        String department = ExcelUtils.getCellValue(row, 6);
-
-        // 1. Validate Username
-        if (StringUtils.isBlank(username)) {
-            rowErrors.add("Username trống");
-        } else {
-            // CHỈ CHECK TRÙNG TRONG FILE
-            if (validUserMap.containsKey(username)) {
-                rowErrors.add("Username '" + username + "' bị trùng lặp trong file");
-            }
-            // KHÔNG CHECK existingUsernamesDb nữa (đã check ở uploadUserFile)
+    // Kết quả validate chỉ còn đúng khi danh sách role và các user đã tồn tại (trong số user của file) không đổi,
+    // và phân quyền mới của user đã tồn tại vẫn không giao với phân quyền hiện có trong DB
+    private boolean isStillValid(ValidatedImport validated) {
+        if (!roleIds(roleCatalog.rolesByName()).equals(validated.getRoleIds())) {
+            return false;
         }
+        Map<String, Long> existingUserIds = validated.getUsernamesInFile().isEmpty()
+                ? Map.of()
+                : userRepository.findByUserNameIn(validated.getUsernamesInFile()).stream()
+                        .collect(Collectors.toMap(UserOffer::getUserName, UserOffer::getId));
+        return existingUserIds.equals(validated.getExistingUserIds()) && !hasNewOverlaps(validated);
+    }
 
-        // 2. Validate Email & Match Username
-        boolean isEmailValid = true;
-        if (StringUtils.isBlank(email)) {
-            rowErrors.add("Email trống");
-            isEmailValid = false;
-        } else if (!email.matches(EMAIL_REGEX)) {
-            rowErrors.add("Email sai định dạng (@msb.com.vn)");
-            isEmailValid = false;
-        }
+    // Phân quyền có thể đã được thêm sau lúc chạy thử (sửa user, cấp role hàng loạt, import khác):
+    // nạp lại phân quyền của các user đã tồn tại được thêm phân quyền và chạy lại check trùng với DB
+    private boolean hasNewOverlaps(ValidatedImport validated) {
+        Map<String, List<UserRoleOffer>> newRolesByUser = validated.getContext().getNewRolesByUser();
+        Map<String, Long> affectedUsers = validated.getExistingUserIds().entrySet().stream()
+                .filter(e -> newRolesByUser.containsKey(e.getKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (affectedUsers.isEmpty()) return false;
+
+        ExistingPermissionIndex current = ExistingPermissionIndex.load(userRoleRepository, affectedUsers.values());
+        return affectedUsers.keySet().stream()
+                .flatMap(username -> newRolesByUser.get(username).stream()
+                        .filter(p -> current.hasOverlap(username, p.getRole().getId(), p.getBank(), p.getBranch(),
+                                p.getType(), p.getFromDate(), p.getToDate())))
+                .findAny()
+                .isPresent();
+    }
 
-        if (isEmailValid && StringUtils.isNotBlank(username)) {
-            String emailPrefix = email.substring(0, email.indexOf("@"));
-            if (!username.equals(emailPrefix)) {
-                rowErrors.add("Username (" + username + ") không khớp prefix email (" + emailPrefix + ")");
-            }
-        }
+    private static Map<String, Long> roleIds(Map<String, RoleOffer> roleMap) {
+        return roleMap.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getId()));
+    }
 
-        // 3. Validate Fullname
-        if (StringUtils.isBlank(fullName)) {
-            rowErrors.add("Tên đầy đủ trống");
-        }
+    private ImportResult dryRunResult(ValidatedImport validated, String token) {
+        ImportReport report = validated.getReport();
+        int validUsers = validated.getContext().getValidUserMap().size();
+        return ImportResult.builder()
+                .importId(report.getId())
+                .totalRows(validated.getTotalRows())
+                .successCount(validUsers)
+                .errorCount(report.getErrorCount())
+                .warningCount(report.getWarningCount())
+                .errorDetails(report.getDetails())
+                .detailsTruncated(report.isTruncated())
+                .issuesTruncated(report.isIssuesTruncated())
+                .message(String.format("Chạy thử (chưa lưu) - Tạo mới: %d user, Cập nhật phân quyền: %d user, Cảnh báo: %d",
+                        validated.getNewUserCount(), validUsers - validated.getNewUserCount(),
+                        report.getWarningCount()))
+                .dryRunToken(token)
+                .build();
+    }
 
-        // 4. Validate Gender
-        String gender = null;
-        if (StringUtils.isNotBlank(rawGender)) {
-            String upperGender = rawGender.trim().toUpperCase();
-            if ("MALE".equals(upperGender) || "FEMALE".equals(upperGender)) {
-                gender = upperGender;
+    private static String hashFile(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
             }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
+    }
 
-        // 5. Validate Phone
-        if (StringUtils.isNotBlank(phone)) {
-            phone = phone.trim().replaceAll("\\s+", "");
-            if (phone.matches("^\\d{9}$")) {
-                phone = "0" + phone;
-            }
-            if (!phone.matches("^0\\d{9}$")) {
-                rowErrors.add("Số điện thoại không hợp lệ");
-            }
+    private void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Không xóa được file tạm {}", path, e);
         }
+    }
 
-        // 6. Validate Department
-        if (StringUtils.isBlank(department)) {
-            rowErrors.add("Phân hệ trống");
+    //update: lưu thông báo lỗi vào list đưa ra 1 lần
+    // Không đọc/ghi trạng thái dùng chung nên chạy song song được; check trùng trong file nằm ở bước gộp
+    private RowResult<String, UserOffer> parseAndValidateUser(ImportRow row) {
+        String username = row.getCellValue(0);
+        try {
+            return validateUser(row, username);
+        } catch (IllegalArgumentException e) {
+            return RowResult.invalid(row.getRowNum(), username, List.of(RowError.ofRow(ImportErrorCode.INVALID, e.getMessage())));
+        } catch (Exception e) {
+            return RowResult.unexpected(row.getRowNum(), username, e.getMessage());
         }
+    }
 
-        if (!rowErrors.isEmpty()) {
-            throw new IllegalArgumentException(String.join("; ", rowErrors));
+    private RowResult<String, UserOffer> validateUser(ImportRow row, String username) {
+        // Luật từng cột khai báo ở ImportRules.USER
+        ValidatedRow values = ImportRules.USER.validate(row, null);
+        if (values.hasErrors()) {
+            return RowResult.invalid(row.getRowNum(), username, values.getRowErrors());
         }
 
-        return UserOffer.builder()
-                .userName(username)
-                .email(email)
-                .fullName(fullName)
-                .birthDay(ExcelUtils.getDateCellValue(row, 3))
-                .gender(gender)
-                .phone(phone)
+        return RowResult.valid(row.getRowNum(), username, UserOffer.builder()
+                .userName(values.get(0))
+                .email(values.get(1))
+                .fullName(values.get(2))
+                .birthDay(values.getDate(3))
+                .gender(values.get(4))
+                .phone(values.get(5))
+                .subSystem(values.get(6))
                 .status("ACTIVE")
                 .createdTime(LocalDateTime.now())
                 .createdBy("SYSTEM_IMPORT")
                 .userRoles(new ArrayList<>())
-                .build();
+                .build());
     }
 
     @Autowired
     private UserRoleOfferRepository userRoleRepository;
 
-    private void parseAndValidatePermission(Row row, Map<String, UserOffer> validUserMap, Map<String, RoleOffer> roleMap) {
-        List<String> rowErrors = new ArrayList<>();
-
-        String username = ExcelUtils.getCellValue(row, 0);
-        String bank = ExcelUtils.getCellValue(row, 1);
-        String branch = ExcelUtils.getCellValue(row, 2);
-        String roleName = ExcelUtils.getCellValue(row, 3);
-        String type = ExcelUtils.getCellValue(row, 4);
-        LocalDate fromDate = ExcelUtils.getDateCellValue(row, 5);
-        LocalDate toDate = ExcelUtils.getDateCellValue(row, 6);
-
-        if (StringUtils.isBlank(username)) {
-            rowErrors.add("Username trống");
+    // Chạy song song: chỉ đọc context (user hợp lệ, role, phân quyền trong DB); check trùng trong file nằm ở bước gộp
+    private RowResult<PermissionKey, UserRoleOffer> parseAndValidatePermission(ImportRow row, UserImportContext context) {
+        try {
+            return validatePermission(row, context);
+        } catch (IllegalArgumentException e) {
+            return RowResult.invalid(row.getRowNum(), null, List.of(RowError.ofRow(ImportErrorCode.INVALID, e.getMessage())));
+        } catch (Exception e) {
+            return RowResult.unexpected(row.getRowNum(), null, e.getMessage());
         }
+    }
 
-        UserOffer user = validUserMap.get(username);
-        if (user == null) {
-            rowErrors.add("Username '" + username + "' không có trong Sheet User hoặc bị lỗi");
+    private RowResult<PermissionKey, UserRoleOffer> validatePermission(ImportRow row, UserImportContext context) {
+        // Luật từng cột khai báo ở ImportRules.PERMISSION (kể cả user/role phải tồn tại)
+        ValidatedRow values = ImportRules.PERMISSION.validate(row, context);
+        if (values.hasErrors()) {
+            return RowResult.invalid(row.getRowNum(), null, values.getRowErrors());
         }
 
-        if (StringUtils.isBlank(bank)) rowErrors.add("Khối trống");
-        if (StringUtils.isBlank(branch)) rowErrors.add("Đơn vị trống");
-
-        RoleOffer role;
-        if (StringUtils.isBlank(roleName)) {
-            role = null;
-            rowErrors.add("Role trống");
-        } else {
-            role = roleMap.get(roleName.toUpperCase());
-            if (role == null) {
-                rowErrors.add("Role '" + roleName + "' không tồn tại trong hệ thống");
+        String username = values.get(0);
+        String bank = values.get(1);
+        String branch = values.get(2);
+        String type = values.get(4);
+        LocalDate fromDate = values.getDate(5);
+        LocalDate toDate = values.getDate(6);
+        UserOffer user = context.getValidUserMap().get(username);
+        RoleOffer role = context.getRoleMap().get(values.get(3).toUpperCase());
+
+        // --- CHECK TRÙNG LẶP PHÂN QUYỀN VỚI DB (nếu user đã tồn tại) ---
+        if (user.getId() != null) {
+            boolean isDuplicate = context.getExistingPermissions().hasOverlap(
+                    username, role.getId(), bank, branch, type, fromDate, toDate);
+
+            if (isDuplicate) {
+                return RowResult.invalid(row.getRowNum(), null, List.of(RowError.ofRow(ImportErrorCode.ALREADY_EXISTS,
+                        String.format("Phân quyền [%s - %s - %s - %s] đã tồn tại cho user '%s' trong hệ thống",
+                                role.getRoleName(), bank, branch, type, username))));
             }
         }
 
-        if (!rowErrors.isEmpty()) {
-            throw new IllegalArgumentException(String.join("; ", rowErrors));
-        }
-
-        // --- CHECK TRÙNG LẶP PHÂN QUYỀN ---
-        if (user != null && role != null) {
-            // 1. Check trùng với roles đang có trong DB (nếu user đã tồn tại)
-            if (user.getId() != null) { // User đã tồn tại trong DB
-                boolean isDuplicate = userRoleRepository.existsDuplicatePermission(
-                        user, role, bank, branch, type,
-                        fromDate != null ? fromDate : LocalDate.of(1900, 1, 1),
-                        toDate != null ? toDate : LocalDate.of(9999, 12, 31)
-                );
-
-                if (isDuplicate) {
-                    throw new IllegalArgumentException(
-                            String.format("Phân quyền [%s - %s - %s - %s] đã tồn tại cho user '%s' trong hệ thống",
-                                    role.getRoleName(), bank, branch, type, username)
-                    );
-                }
-            }
-
-            // 2. Check trùng với roles đang được thêm trong file hiện tại
-            boolean isDuplicateInFile = user.getUserRoles().stream()
-                    .anyMatch(existingRole ->
-                            existingRole.getRole().equals(role) &&
-                                    existingRole.getBank().equals(bank) &&
-                                    existingRole.getBranch().equals(branch) &&
-                                    existingRole.getType().equals(type)
-                    );
-
-            if (isDuplicateInFile) {
-                throw new IllegalArgumentException(
-                        String.format("Phân quyền [%s - %s - %s - %s] bị trùng lặp trong file cho user '%s'",
-                                role.getRoleName(), bank, branch, type, username)
-                );
-            }
-
-            // Thêm role mới nếu không trùng
-            UserRoleOffer roleOffer = UserRoleOffer.builder()
-                    .bank(bank)
-                    .branch(branch)
-                    .role(role)
-                    .type(type)
-                    .fromDate(fromDate)
-                    .toDate(toDate)
-                    .userOffer(user)
-                    .build();
-            user.getUserRoles().add(roleOffer);
-        }
+        UserRoleOffer roleOffer = UserRoleOffer.builder()
+                .bank(bank)
+                .branch(branch)
+                .role(role)
+                .type(type)
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .userOffer(user)
+                .build();
+        return RowResult.valid(row.getRowNum(), new PermissionKey(username, role.getId(), bank, branch, type), roleOffer);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package dev.virtuoso.ims.service.impl;
+
+import dev.virtuoso.ims.dto.request.UserCursor;
+import dev.virtuoso.ims.dto.response.CursorPage;
+import dev.virtuoso.ims.dto.response.UserRoleView;
+import dev.virtuoso.ims.dto.response.UserView;
+import dev.virtuoso.ims.repository.UserOfferRepository;
+import dev.virtuoso.ims.repository.projection.UserViewRow;
+import dev.virtuoso.ims.search.UserSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+// Đọc user cho màn danh sách/chi tiết: chỉ lấy ID theo trang rồi load read model (DTO) của đúng các ID đó
+@Service
+@RequiredArgsConstructor
+public class UserQueryServiceImpl {
+
+    public static final int MAX_SCROLL_SIZE = 1000;
+
+    // Thứ tự danh sách phân trang offset, cùng thứ tự với scrollUsers: user không có createdTime (dữ liệu cũ)
+    // nằm cuối. Phải ghi rõ NULLS LAST vì Oracle mặc định xếp NULL lên đầu khi DESC.
+    // Thêm id để thứ tự ổn định khi nhiều user cùng createdTime (tránh lặp/sót user giữa các trang).
+    public static final Sort LIST_ORDER = Sort.by(Sort.Order.desc("createdTime").nullsLast(), Sort.Order.desc("id"));
+
+    private final UserOfferRepository userRepository;
+    private final UserSearchIndex searchIndex;
+
+    public Page<UserView> getUsers(String keyword, Pageable pageable) {
+        Page<Long> ids;
+        if (keyword != null && !keyword.isBlank()) {
+            // Tìm qua index trigram (bỏ dấu, xếp theo độ khớp); index chưa dựng xong thì dùng câu LIKE
+            ids = searchIndex.isReady()
+                    ? searchIndex.search(keyword.trim(), pageable)
+                    : userRepository.searchIdsByKeyword(keyword.trim(), pageable);
+        } else {
+            ids = userRepository.findPageIds(pageable);
+        }
+        return new PageImpl<>(loadViews(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+    }
+
+    // Phân trang keyset: lấy dư 1 ID để biết còn trang sau hay không (thay cho COUNT)
+    public CursorPage<UserView> scrollUsers(String cursor, int size) {
+        UserCursor after = cursor == null || cursor.isBlank() ? null : UserCursor.decode(cursor);
+        int limit = Math.min(Math.max(size, 1), MAX_SCROLL_SIZE);
+
+        List<Long> ids = userRepository.scrollIds(after, limit + 1);
+        boolean hasNext = ids.size() > limit;
+        List<UserView> users = loadViews(hasNext ? ids.subList(0, limit) : ids);
+
+        UserView last = users.isEmpty() ? null : users.get(users.size() - 1);
+        return CursorPage.<UserView>builder()
+                .content(users)
+                .size(users.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext && last != null ? new UserCursor(last.getCreatedTime(), last.getId()).encode() : null)
+                .build();
+    }
+
+    public Optional<UserView> getUser(Long id) {
+        return loadViews(List.of(id)).stream().findFirst();
+    }
+
+    // Gom các dòng JOIN theo user, trả về đúng thứ tự của ids (câu IN không đảm bảo thứ tự)
+    private List<UserView> loadViews(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<Long, UserView> byId = new HashMap<>();
+        for (UserViewRow row : userRepository.findViewRowsByIdIn(ids)) {
+            UserView user = byId.computeIfAbsent(row.id(), k -> UserView.from(row));
+            if (row.userRoleId() != null) {
+                user.getUserRoles().add(UserRoleView.from(row));
+            }
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+}
@@ -0,0 +1,130 @@
+package dev.virtuoso.ims.util;
+
+import dev.virtuoso.ims.dto.response.CacheStats;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Cache LRU giới hạn số entry. Các request cùng key đến khi đang tạo giá trị sẽ chờ và dùng chung
+// kết quả của lần tạo đó (chỉ tạo một lần), thay vì mỗi request tự tạo.
+public class CoalescingCache<K, V> {
+
+    private final int maxEntries;
+    private final Consumer<V> onRemoval;   // dọn tài nguyên của giá trị bị đẩy ra (vd: xóa file tạm)
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CoalescingCache(int maxEntries) {
+        this(maxEntries, value -> {
+        });
+    }
+
+    public CoalescingCache(int maxEntries, Consumer<V> onRemoval) {
+        this.maxEntries = maxEntries;
+        this.onRemoval = onRemoval;
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, loading);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+
+        try {
+            // Có thể request khác vừa tạo xong giữa lúc check cache và lúc đăng ký
+            V value = getIfPresent(key);
+            if (value != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                value = loader.get();
+                putIfStillLoading(key, value, loading);
+            }
+            loading.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, loading);
+        }
+    }
+
+    // Xóa một key. Lần tạo đang chạy cho key này (có thể đã đọc dữ liệu cũ) vẫn trả kết quả cho các request
+    // đang chờ nhưng không được lưu vào cache; request đến sau sẽ tạo lại
+    public synchronized void invalidate(K key) {
+        inFlight.remove(key);
+        V removed = entries.remove(key);
+        if (removed != null) onRemoval.accept(removed);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.values().forEach(onRemoval);
+        entries.clear();
+    }
+
+    public synchronized CacheStats stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        long c = coalesced.sum();
+        long total = h + m + c;
+        return CacheStats.builder()
+                .size(entries.size())
+                .maxSize(maxEntries)
+                .hits(h)
+                .misses(m)
+                .coalesced(c)
+                .evictions(evictions.sum())
+                .hitRate(total == 0 ? 0 : Math.round((h + c) * 1000.0 / total) / 1000.0)
+                .build();
+    }
+
+    private synchronized V getIfPresent(K key) {
+        return entries.get(key);
+    }
+
+    private synchronized void putIfStillLoading(K key, V value, CompletableFuture<V> loading) {
+        if (inFlight.get(key) == loading) put(key, value);
+    }
+
+    private synchronized void put(K key, V value) {
+        V previous = entries.put(key, value);
+        if (previous != null && previous != value) onRemoval.accept(previous);
+        Iterator<Map.Entry<K, V>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            V evicted = eldest.next().getValue();
+            eldest.remove();
+            evictions.increment();
+            onRemoval.accept(evicted);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+}
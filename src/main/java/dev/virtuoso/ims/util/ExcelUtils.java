@@ -10,7 +10,8 @@ import java.util.Date;
 
 public class ExcelUtils {
 
-    private static final DataFormatter DATA_FORMATTER = new DataFormatter();
+    // DataFormatter không thread-safe: mỗi thread dùng một instance riêng (import validate song song)
+    private static final ThreadLocal<DataFormatter> DATA_FORMATTER = ThreadLocal.withInitial(DataFormatter::new);
     public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
     // Lấy giá trị chuỗi từ Cell, tự động trim, xử lý null
@@ -20,7 +21,7 @@ public class ExcelUtils {
         if (cell == null) return "";
 
         // Dùng DataFormatter để lấy giá trị hiển thị (String) của mọi loại cell (số, text, formula)
-        return DATA_FORMATTER.formatCellValue(cell).trim();
+        return DATA_FORMATTER.get().formatCellValue(cell).trim();
     }
 
     // Lấy giá trị Date từ Cell (Xử lý cả trường hợp nhập text hoặc nhập date chuẩn Excel)
@@ -37,7 +38,7 @@ public class ExcelUtils {
             }
 
             // Trường hợp 2: Cell nhập Text "01/01/2000"
-            String dateStr = DATA_FORMATTER.formatCellValue(cell).trim();
+            String dateStr = DATA_FORMATTER.get().formatCellValue(cell).trim();
             if (StringUtils.isNotBlank(dateStr)) {
                 return LocalDate.parse(dateStr, DATE_FORMATTER);
             }
@@ -47,6 +48,31 @@ public class ExcelUtils {
         return null;
     }
 
+    // Parse chuỗi ngày dd/MM/yyyy (dùng cho dữ liệu đọc dạng text), trả về null nếu trống
+    public static LocalDate parseDate(String dateStr) {
+        if (StringUtils.isBlank(dateStr)) return null;
+        try {
+            return LocalDate.parse(dateStr.trim(), DATE_FORMATTER);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Sai định dạng ngày tháng (dd/MM/yyyy)");
+        }
+    }
+
+    // Giá trị hiển thị của mọi ô trong dòng (ô ngày format dd/MM/yyyy như chế độ streaming),
+    // để xử lý tiếp mà không còn giữ tham chiếu tới workbook
+    public static String[] getRowValues(Row row) {
+        if (row == null || row.getLastCellNum() <= 0) return new String[0];
+        String[] values = new String[row.getLastCellNum()];
+        for (int c = Math.max(0, row.getFirstCellNum()); c < values.length; c++) {
+            Cell cell = row.getCell(c);
+            if (cell == null) continue;
+            values[c] = cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)
+                    ? cell.getLocalDateTimeCellValue().toLocalDate().format(DATE_FORMATTER)
+                    : DATA_FORMATTER.get().formatCellValue(cell);
+        }
+        return values;
+    }
+
     // Kiểm tra dòng trống
     public static boolean isRowEmpty(Row row) {
         if (row == null) return true;
@@ -0,0 +1,14 @@
+package dev.virtuoso.ims.validation;
+
+// Mã lỗi/cảnh báo của file import, frontend dùng để lọc/hiển thị thay vì parse thông báo
+public enum ImportErrorCode {
+    REQUIRED,            // ô bắt buộc bị trống
+    INVALID_FORMAT,      // sai định dạng (email, SĐT, ngày, ...)
+    NOT_FOUND,           // không có trong dữ liệu tham chiếu (role, user của sheet User)
+    INVALID,             // luật trên nhiều cột (vd: username không khớp email)
+    DUPLICATE_IN_FILE,   // trùng với một dòng hợp lệ phía trước trong file
+    ALREADY_EXISTS,      // phân quyền đã có trên hệ thống
+    USER_EXISTS,         // cảnh báo: user đã có, chỉ thêm phân quyền
+    UNEXPECTED,          // lỗi không xác định khi xử lý dòng
+    SAVE_FAILED          // lỗi khi lưu DB
+}
@@ -0,0 +1,63 @@
+package dev.virtuoso.ims.validation;
+
+import dev.virtuoso.ims.importer.UserImportContext;
+import org.apache.commons.lang3.StringUtils;
+
+// Luật validate cho file import user. Thêm/sửa luật ở đây, không cần sửa UserImportServiceImpl.
+public final class ImportRules {
+
+    public static final String EMAIL_REGEX = "^[A-Za-z0-9._]+@msb\\.com\\.vn$";
+
+    // Sheet "User": 0 Username | 1 Email | 2 Họ tên | 3 Ngày sinh | 4 Giới tính | 5 SĐT | 6 Phân hệ
+    public static final SheetRules<Void> USER = SheetRules.<Void>builder()
+            .text(0).required("Username trống")
+            .text(1).required("Email trống").matches(EMAIL_REGEX, "Email sai định dạng (@msb.com.vn)")
+            .check(ImportRules::usernameMatchesEmail)
+            .text(2).required("Tên đầy đủ trống")
+            .date(3)
+            .text(4).upperCase().oneOfOrNull("MALE", "FEMALE")
+            .text(5).removeWhitespace().prefixIfMatches("^\\d{9}$", "0").matches("^0\\d{9}$", "Số điện thoại không hợp lệ")
+            .text(6).required("Phân hệ trống")
+            .build();
+
+    // Sheet "Thong_tin_phan_quyen": 0 Username | 1 Khối | 2 Đơn vị | 3 Role | 4 Loại | 5 Từ ngày | 6 Đến ngày
+    public static final SheetRules<UserImportContext> PERMISSION = SheetRules.<UserImportContext>builder()
+            .text(0).required("Username trống")
+            .check(ImportErrorCode.NOT_FOUND, (row, ctx) -> ctx.getValidUserMap().containsKey(row.get(0))
+                    ? null : "Username '" + row.get(0) + "' không có trong Sheet User hoặc bị lỗi")
+            .text(1).required("Khối trống")
+            .text(2).required("Đơn vị trống")
+            .text(3).required("Role trống")
+            .exists((ctx, roleName) -> ctx.getRoleMap().containsKey(roleName.toUpperCase()),
+                    roleName -> "Role '" + roleName + "' không tồn tại trong hệ thống")
+            .text(4)
+            .date(5)
+            .date(6)
+            .build();
+
+    // Chỉ các luật trên từng cột của sheet phân quyền (không cần context).
+    // Dùng cho engine SQL: user/role tồn tại và trùng lặp được check bằng câu lệnh set-based.
+    public static final SheetRules<Void> PERMISSION_COLUMNS = SheetRules.<Void>builder()
+            .text(0).required("Username trống")
+            .text(1).required("Khối trống")
+            .text(2).required("Đơn vị trống")
+            .text(3).required("Role trống")
+            .text(4)
+            .date(5)
+            .date(6)
+            .build();
+
+    private ImportRules() {
+    }
+
+    // Username phải trùng phần trước @ của email (chỉ check khi email hợp lệ)
+    private static String usernameMatchesEmail(ValidatedRow row, Void context) {
+        String username = row.get(0);
+        String email = row.get(1);
+        if (!row.isValid(1) || StringUtils.isBlank(username)) return null;
+
+        String emailPrefix = email.substring(0, email.indexOf('@'));
+        return username.equals(emailPrefix)
+                ? null : "Username (" + username + ") không khớp prefix email (" + emailPrefix + ")";
+    }
+}
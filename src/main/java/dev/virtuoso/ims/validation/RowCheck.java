@@ -0,0 +1,7 @@
+package dev.virtuoso.ims.validation;
+
+// Luật trên nhiều cột hoặc cần dữ liệu ngoài (context). Trả về thông báo lỗi, null nếu hợp lệ.
+@FunctionalInterface
+public interface RowCheck<C> {
+    String check(ValidatedRow row, C context);
+}
@@ -0,0 +1,9 @@
+package dev.virtuoso.ims.validation;
+
+// Một lỗi của dòng: cột (0-based, -1 nếu là lỗi trên cả dòng), mã lỗi và thông báo
+public record RowError(int column, ImportErrorCode code, String message) {
+
+    public static RowError ofRow(ImportErrorCode code, String message) {
+        return new RowError(-1, code, message);
+    }
+}
@@ -0,0 +1,192 @@
+package dev.virtuoso.ims.validation;
+
+import dev.virtuoso.ims.importer.ImportRow;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+// Bộ luật validate của một sheet: khai báo một lần, build thành mảng step (regex đã compile sẵn),
+// sau đó dùng lại cho mọi dòng. Immutable nên dùng chung được giữa các thread.
+// Các step chạy đúng thứ tự khai báo => thứ tự thông báo lỗi theo thứ tự khai báo.
+//
+// Quy ước cho luật trên một cột: ô trống thì chỉ required() báo lỗi, các luật khác bỏ qua;
+// cột đã có lỗi thì các luật sau của cột đó cũng bỏ qua.
+public class SheetRules<C> {
+
+    private final int columnCount;
+    private final int[] textColumns;
+    private final Step<C>[] steps;
+
+    private SheetRules(int columnCount, int[] textColumns, Step<C>[] steps) {
+        this.columnCount = columnCount;
+        this.textColumns = textColumns;
+        this.steps = steps;
+    }
+
+    public static <C> Builder<C> builder() {
+        return new Builder<>();
+    }
+
+    public ValidatedRow validate(ImportRow row, C context) {
+        ValidatedRow result = new ValidatedRow(row.getRowNum(), columnCount);
+        for (int column : textColumns) {
+            result.set(column, row.getCellValue(column));
+        }
+        for (Step<C> step : steps) {
+            step.apply(row, result, context);
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface Step<C> {
+        void apply(ImportRow row, ValidatedRow result, C context);
+    }
+
+    public static class Builder<C> {
+
+        private final List<Step<C>> steps = new ArrayList<>();
+        private final List<Integer> textColumns = new ArrayList<>();
+        private int maxColumn = -1;
+        private int column = -1;
+
+        // Bắt đầu khai báo luật cho một cột dạng chuỗi
+        public Builder<C> text(int column) {
+            select(column);
+            if (!textColumns.contains(column)) textColumns.add(column);
+            return this;
+        }
+
+        // Cột ngày (dd/MM/yyyy hoặc ô kiểu Date), lỗi định dạng được báo như lỗi của cột
+        public Builder<C> date(int column) {
+            select(column);
+            steps.add((row, result, ctx) -> {
+                try {
+                    result.setDate(column, row.getDateCellValue(column));
+                } catch (IllegalArgumentException e) {
+                    result.reject(column, ImportErrorCode.INVALID_FORMAT, e.getMessage());
+                }
+            });
+            return this;
+        }
+
+        public Builder<C> required(String message) {
+            int col = column;
+            steps.add((row, result, ctx) -> {
+                if (StringUtils.isBlank(result.get(col))) result.reject(col, ImportErrorCode.REQUIRED, message);
+            });
+            return this;
+        }
+
+        public Builder<C> matches(String regex, String message) {
+            int col = column;
+            Pattern pattern = Pattern.compile(regex);
+            steps.add((row, result, ctx) -> {
+                String value = result.get(col);
+                if (shouldCheck(result, col) && !pattern.matcher(value).matches()) {
+                    result.reject(col, ImportErrorCode.INVALID_FORMAT, message);
+                }
+            });
+            return this;
+        }
+
+        // Chuẩn hóa giá trị (chỉ áp dụng khi ô không trống)
+        public Builder<C> normalize(UnaryOperator<String> normalizer) {
+            int col = column;
+            steps.add((row, result, ctx) -> {
+                String value = result.get(col);
+                if (StringUtils.isNotBlank(value)) result.set(col, normalizer.apply(value));
+            });
+            return this;
+        }
+
+        public Builder<C> removeWhitespace() {
+            return normalize(SheetRules::removeWhitespace);
+        }
+
+        public Builder<C> upperCase() {
+            return normalize(String::toUpperCase);
+        }
+
+        // Thêm tiền tố nếu giá trị khớp regex (vd: số điện thoại 9 chữ số -> thêm số 0 ở đầu)
+        public Builder<C> prefixIfMatches(String regex, String prefix) {
+            Pattern pattern = Pattern.compile(regex);
+            return normalize(value -> pattern.matcher(value).matches() ? prefix + value : value);
+        }
+
+        // Giá trị ngoài tập cho phép thì bỏ đi (null), không báo lỗi
+        public Builder<C> oneOfOrNull(String... allowed) {
+            int col = column;
+            Set<String> allowedValues = Set.of(allowed);
+            steps.add((row, result, ctx) -> {
+                if (!allowedValues.contains(result.get(col))) result.set(col, null);
+            });
+            return this;
+        }
+
+        // Giá trị phải tồn tại trong dữ liệu tham chiếu lấy từ context (vd: role trong hệ thống)
+        public Builder<C> exists(BiPredicate<C, String> lookup, Function<String, String> message) {
+            int col = column;
+            steps.add((row, result, ctx) -> {
+                String value = result.get(col);
+                if (shouldCheck(result, col) && !lookup.test(ctx, value)) {
+                    result.reject(col, ImportErrorCode.NOT_FOUND, message.apply(value));
+                }
+            });
+            return this;
+        }
+
+        // Luật trên cả dòng, chạy đúng vị trí khai báo
+        public Builder<C> check(RowCheck<C> check) {
+            return check(ImportErrorCode.INVALID, check);
+        }
+
+        public Builder<C> check(ImportErrorCode code, RowCheck<C> check) {
+            steps.add((row, result, ctx) -> {
+                String message = check.check(result, ctx);
+                if (message != null) result.addError(RowError.ofRow(code, message));
+            });
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        public SheetRules<C> build() {
+            int[] columns = textColumns.stream().mapToInt(Integer::intValue).toArray();
+            return new SheetRules<>(maxColumn + 1, columns, steps.toArray(new Step[0]));
+        }
+
+        // Trạng thái lỗi từng cột của ValidatedRow là bitmask long: chặn ngay lúc khai báo luật
+        private void select(int column) {
+            if (column < 0 || column >= Long.SIZE) {
+                throw new IllegalArgumentException("SheetRules hỗ trợ cột từ 0 đến " + (Long.SIZE - 1) + ": " + column);
+            }
+            this.column = column;
+            this.maxColumn = Math.max(maxColumn, column);
+        }
+
+        private static boolean shouldCheck(ValidatedRow result, int column) {
+            return result.isValid(column) && StringUtils.isNotBlank(result.get(column));
+        }
+    }
+
+    // Bỏ mọi khoảng trắng mà không dùng regex; không cấp phát nếu chuỗi không có khoảng trắng
+    static String removeWhitespace(String value) {
+        int i = 0;
+        while (i < value.length() && !Character.isWhitespace(value.charAt(i))) i++;
+        if (i == value.length()) return value;
+
+        StringBuilder sb = new StringBuilder(value.length());
+        sb.append(value, 0, i);
+        for (; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!Character.isWhitespace(c)) sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package dev.virtuoso.ims.validation;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Giá trị đã chuẩn hóa + lỗi của một dòng sau khi chạy SheetRules.
+// List lỗi chỉ được tạo khi có lỗi đầu tiên (dòng hợp lệ không cấp phát thêm).
+public class ValidatedRow {
+
+    private final int rowNum;
+    private final String[] values;
+    private final LocalDate[] dates;
+    private long invalidColumns;   // bit i = 1: cột i đã có lỗi
+    private List<RowError> errors;
+
+    ValidatedRow(int rowNum, int columnCount) {
+        this.rowNum = rowNum;
+        this.values = new String[columnCount];
+        this.dates = new LocalDate[columnCount];
+    }
+
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    public String get(int column) {
+        return values[column];
+    }
+
+    public LocalDate getDate(int column) {
+        return dates[column];
+    }
+
+    // Cột không có lỗi (trống mà không bắt buộc vẫn được coi là hợp lệ)
+    public boolean isValid(int column) {
+        return (invalidColumns & (1L << column)) == 0;
+    }
+
+    public boolean hasErrors() {
+        return errors != null;
+    }
+
+    public List<String> getErrors() {
+        return errors != null ? errors.stream().map(RowError::message).toList() : List.of();
+    }
+
+    public List<RowError> getRowErrors() {
+        return errors != null ? errors : List.of();
+    }
+
+    void set(int column, String value) {
+        values[column] = value;
+    }
+
+    void setDate(int column, LocalDate date) {
+        dates[column] = date;
+    }
+
+    void reject(int column, ImportErrorCode code, String message) {
+        invalidColumns |= 1L << column;
+        addError(new RowError(column, code, message));
+    }
+
+    void addError(RowError error) {
+        if (errors == null) errors = new ArrayList<>(2);
+        errors.add(error);
+    }
+}
@@ -0,0 +1,36 @@
+-- Bảng staging cho engine import SQL (ims: SqlUserImportEngine).
+-- Dữ liệu thô của file được nạp vào đây bằng JDBC batch, validate bằng câu lệnh set-based rồi MERGE sang bảng chính.
+-- Mỗi lần import có IMPORT_ID riêng, dữ liệu staging bị xóa khi import xong.
+CREATE TABLE IMP_USER_STAGE (
+    IMPORT_ID        VARCHAR2(36)   NOT NULL,
+    ROW_NUM          NUMBER(10)     NOT NULL,
+    USER_NAME        VARCHAR2(1000),
+    EMAIL            VARCHAR2(1000),
+    FULL_NAME        VARCHAR2(1000),
+    BIRTH_DAY        DATE,
+    GENDER           VARCHAR2(50),
+    PHONE            VARCHAR2(1000),
+    SUB_SYSTEM       VARCHAR2(1000),
+    EXISTING_USER_ID NUMBER(19),
+    ERROR_MSG        VARCHAR2(4000),
+    CONSTRAINT PK_IMP_USER_STAGE PRIMARY KEY (IMPORT_ID, ROW_NUM)
+);
+
+CREATE INDEX IX_IMP_USER_STAGE_NAME ON IMP_USER_STAGE (IMPORT_ID, USER_NAME);
+
+CREATE TABLE IMP_PERMISSION_STAGE (
+    IMPORT_ID  VARCHAR2(36)   NOT NULL,
+    ROW_NUM    NUMBER(10)     NOT NULL,
+    USER_NAME  VARCHAR2(1000),
+    BANK       VARCHAR2(1000),
+    BRANCH     VARCHAR2(1000),
+    ROLE_NAME  VARCHAR2(1000),
+    ROLE_ID    NUMBER(19),
+    TYPE       VARCHAR2(1000),
+    FROM_DATE  DATE,
+    TO_DATE    DATE,
+    ERROR_MSG  VARCHAR2(4000),
+    CONSTRAINT PK_IMP_PERMISSION_STAGE PRIMARY KEY (IMPORT_ID, ROW_NUM)
+);
+
+CREATE INDEX IX_IMP_PERM_STAGE_USER ON IMP_PERMISSION_STAGE (IMPORT_ID, USER_NAME, ROLE_ID);
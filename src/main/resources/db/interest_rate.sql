@@ -0,0 +1,20 @@
+-- Bảng lãi suất import từ file template lãi suất (ims: InterestRateWriter, ghi bằng JDBC batch).
+-- Mỗi dòng file là một tổ hợp giá trị tham số + lãi suất; PARAM_KEY là danh sách param ID đã sắp xếp ("10,20,31").
+CREATE TABLE LOAN_INTEREST_RATE (
+    IMPORT_ID     VARCHAR2(36)   NOT NULL,
+    ROW_NUM       NUMBER(10)     NOT NULL,
+    PARAM_KEY     VARCHAR2(1000) NOT NULL,
+    RATE          NUMBER(9, 4)   NOT NULL,
+    CREATED_TIME  TIMESTAMP      NOT NULL,
+    CONSTRAINT PK_LOAN_INTEREST_RATE PRIMARY KEY (IMPORT_ID, ROW_NUM)
+);
+
+CREATE TABLE LOAN_INTEREST_RATE_PARAM (
+    IMPORT_ID  VARCHAR2(36)  NOT NULL,
+    ROW_NUM    NUMBER(10)    NOT NULL,
+    TYPE_ID    NUMBER(10)    NOT NULL,
+    PARAM_ID   NUMBER(10)    NOT NULL,
+    CONSTRAINT PK_LOAN_INTEREST_RATE_PARAM PRIMARY KEY (IMPORT_ID, ROW_NUM, TYPE_ID)
+);
+
+CREATE INDEX IX_LOAN_INTEREST_RATE_PARAM ON LOAN_INTEREST_RATE_PARAM (PARAM_ID);
@@ -0,0 +1,8 @@
+-- Các entity dùng @SequenceGenerator(allocationSize = 50) (pooled optimizer):
+-- chạy một lần khi deploy để Hibernate cấp ID theo khối 50 (mỗi 50 insert mới gọi NEXTVAL một lần).
+-- Chưa chạy thì ứng dụng vẫn khởi động được (increment_size_mismatch_strategy=fix) nhưng mỗi insert gọi NEXTVAL.
+ALTER SEQUENCE user_offer_seq INCREMENT BY 50;
+ALTER SEQUENCE user_role_offer_seq INCREMENT BY 50;
+ALTER SEQUENCE role_offer_seq INCREMENT BY 50;
+ALTER SEQUENCE action_resource_seq INCREMENT BY 50;
+ALTER SEQUENCE ROLE_ACT_RES_SEQ INCREMENT BY 50;
@@ -0,0 +1,3 @@
+-- Index cho danh sách user (GET /api/users): sắp xếp CREATED_TIME DESC, ID DESC.
+-- Trang đầu chỉ cần đọc N entry đầu của index thay vì sort cả bảng => thời gian không tăng theo số user.
+CREATE INDEX IX_USER_OFFER_CREATED ON USER_OFFER (CREATED_TIME DESC, ID DESC);
@@ -0,0 +1,4 @@
+-- Cột "Phân hệ" của user (ims: UserOffer.subSystem). Trước đây giá trị trong file import chỉ được check bắt buộc
+-- rồi bỏ đi nên file xuất ra luôn để trống cột này và không import lại được.
+-- Chạy trước khi deploy bản mới (ddl-auto=validate); user cũ để NULL.
+ALTER TABLE USER_OFFER ADD SUB_SYSTEM VARCHAR2(200);
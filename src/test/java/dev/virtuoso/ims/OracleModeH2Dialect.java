@@ -0,0 +1,14 @@
+package dev.virtuoso.ims;
+
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.NullOrdering;
+
+// H2 trong test chạy với DEFAULT_NULL_ORDERING=HIGH (NULL lớn hơn mọi giá trị như Oracle).
+// Hibernate bỏ NULLS FIRST/LAST khi trùng thứ tự mặc định của dialect nên phải khai báo đúng thứ tự này.
+public class OracleModeH2Dialect extends H2Dialect {
+
+    @Override
+    public NullOrdering getNullOrdering() {
+        return NullOrdering.GREATEST;
+    }
+}
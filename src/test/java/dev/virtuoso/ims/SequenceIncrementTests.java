@@ -0,0 +1,30 @@
+package dev.virtuoso.ims;
+
+import dev.virtuoso.ims.entity.UserOffer;
+import dev.virtuoso.ims.repository.UserOfferRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// DB chưa chạy sequence_increment_50.sql: ứng dụng vẫn khởi động và cấp ID theo bước 1 của sequence
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ims_seq1;MODE=Oracle;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.jpa.hibernate.ddl-auto=update",
+        "spring.sql.init.schema-locations=classpath:db/sequence_increment_1.sql"
+})
+class SequenceIncrementTests {
+
+    @Autowired
+    private UserOfferRepository userRepository;
+
+    @Test
+    void startsWithSequenceIncrementOne() {
+        UserOffer first = userRepository.save(UserOffer.builder().userName("seq1").fullName("Seq 1")
+                .email("seq1@msb.com.vn").status("ACTIVE").build());
+        UserOffer second = userRepository.save(UserOffer.builder().userName("seq2").fullName("Seq 2")
+                .email("seq2@msb.com.vn").status("ACTIVE").build());
+        assertEquals(first.getId() + 1, second.getId());
+    }
+}
@@ -0,0 +1,104 @@
+package dev.virtuoso.ims.benchmark;
+
+import dev.virtuoso.ims.importer.SheetReader;
+import dev.virtuoso.ims.importer.SheetReaders;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static dev.virtuoso.ims.benchmark.XlsxReaderBenchmarkTests.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Đọc cùng một dữ liệu import từ file csv (DelimitedSheetReader) và xlsx (SAX / DOM), qua SheetReaders như khi import.
+// Mỗi dòng đọc đủ 7 ô. alloc: số byte cấp phát trên thread đọc (gồm cả rác đã được thu).
+// Chạy: mvn test -Pbenchmark -Dtest=CsvReaderBenchmarkTests
+@Tag("benchmark")
+class CsvReaderBenchmarkTests {
+
+    private static final int[] ROW_COUNTS = {10_000, 50_000, 100_000};
+    private static final int REPEATS = 3;
+    private static final int COLUMN_COUNT = 7;
+    private static final long MB = 1024 * 1024;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void csvVersusXlsxOnSameData() throws Exception {
+        Path warmUpCsv = writeCsv(1_000);
+        Path warmUpXlsx = writeImportFile(1_000);
+        try {
+            for (int i = 0; i < 5; i++) {
+                read(warmUpCsv, true, 1_000);
+                read(warmUpXlsx, true, 1_000);
+                read(warmUpXlsx, false, 1_000);
+            }
+        } finally {
+            Files.deleteIfExists(warmUpCsv);
+            Files.deleteIfExists(warmUpXlsx);
+        }
+
+        System.out.printf("%-10s %-5s %10s %10s %10s%n", "rows/sheet", "mode", "file KB", "ms", "alloc MB");
+        for (int rows : ROW_COUNTS) {
+            Path csv = writeCsv(rows);
+            Path xlsx = writeImportFile(rows);
+            try {
+                measure("CSV", csv, true, rows);
+                measure("SAX", xlsx, true, rows);
+                measure("DOM", xlsx, false, rows);
+            } finally {
+                Files.deleteIfExists(csv);
+                Files.deleteIfExists(xlsx);
+            }
+        }
+    }
+
+    // Lấy lần nhanh nhất trong REPEATS lần đọc
+    private void measure(String mode, Path file, boolean streaming, int rows) throws IOException {
+        long bestNanos = Long.MAX_VALUE;
+        long allocated = 0;
+        for (int r = 0; r < REPEATS; r++) {
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            read(file, streaming, rows);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+            allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        }
+        System.out.printf("%-10d %-5s %10d %10d %10d%n", rows, mode, Files.size(file) / 1024,
+                bestNanos / 1_000_000, allocated / MB);
+    }
+
+    private static void read(Path file, boolean streaming, int rows) throws IOException {
+        int[] cells = {0};
+        try (SheetReader reader = SheetReaders.open(file, streaming)) {
+            for (String sheet : new String[]{"User", "Thong_tin_phan_quyen"}) {
+                reader.readSheet(sheet, FIRST_DATA_ROW, row -> {
+                    for (int c = 0; c < COLUMN_COUNT; c++) {
+                        if (row.getCellValue(c) != null) cells[0]++;
+                    }
+                });
+            }
+        }
+        assertEquals(2 * rows * COLUMN_COUNT, cells[0]);
+    }
+
+    // Cùng dữ liệu với XlsxReaderBenchmarkTests#writeImportFile, dạng section [Tên sheet] + dòng tiêu đề
+    static Path writeCsv(int rows) throws IOException {
+        Path file = Files.createTempFile("csv-reader-benchmark-", ".csv");
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("[User]\n");
+            out.write(String.join(",", USER_HEADERS) + "\n");
+            for (int i = 0; i < rows; i++) out.write(String.join(",", userRow(i)) + "\n");
+            out.write("[Thong_tin_phan_quyen]\n");
+            out.write(String.join(",", PERMISSION_HEADERS) + "\n");
+            for (int i = 0; i < rows; i++) out.write(String.join(",", permissionRow(i)) + "\n");
+        }
+        return file;
+    }
+}
@@ -0,0 +1,147 @@
+package dev.virtuoso.ims.benchmark;
+
+import dev.virtuoso.ims.ImsApplication;
+import dev.virtuoso.ims.entity.RoleOffer;
+import dev.virtuoso.ims.entity.UserOffer;
+import dev.virtuoso.ims.entity.UserRoleOffer;
+import dev.virtuoso.ims.importer.UserImportWriter;
+import dev.virtuoso.ims.repository.RoleOfferRepository;
+import dev.virtuoso.ims.repository.UserOfferRepository;
+import dev.virtuoso.ims.repository.UserRoleOfferRepository;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Tốc độ ghi import xuống DB: cách cũ (sequence bước 1, không JDBC batch, saveAll cả file trong 1 transaction)
+// so với UserImportWriter (sequence pooled bước 50, JDBC batch, mỗi lô ims.import.chunk-size user một transaction).
+// Chạy trên H2 chế độ Oracle, cả nhúng trong JVM lẫn qua TCP (loopback) để mỗi câu lệnh/NEXTVAL tốn một lượt mạng.
+// Lưu ý: driver H2 gửi từng dòng của JDBC batch thành một lượt riêng, còn driver Oracle gửi cả batch trong một lượt,
+// nên trên Oracle thật chênh lệch lớn hơn ở đây. Mỗi cách dùng một Spring context và một DB riêng.
+// Chạy: mvn test -Pbenchmark -Dtest=ImportPersistenceBenchmarkTests
+@Tag("benchmark")
+class ImportPersistenceBenchmarkTests {
+
+    private static final int USERS = 10_000;
+    private static final int WARM_UP_USERS = 2_000;
+    private static final int ROLES_PER_USER = 2;
+    private static final int CHUNK_SIZE = 1_000;
+    private static final String H2_OPTIONS = ";MODE=Oracle;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    @Test
+    void rowsPerSecondBeforeAndAfterBatching() throws Exception {
+        Server server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        try {
+            Map<String, String> urls = new LinkedHashMap<>();
+            urls.put("in-JVM", "jdbc:h2:mem:");
+            urls.put("TCP", "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:");
+
+            // Làm nóng JIT cả 2 cách (DB riêng, không in)
+            run(null, "before", urls.get("in-JVM") + "ims_persist_warm_before", false, WARM_UP_USERS);
+            run(null, "after", urls.get("in-JVM") + "ims_persist_warm_after", true, WARM_UP_USERS);
+
+            System.out.printf("%-7s %-9s %8s %10s %10s%n", "H2", "mode", "rows", "ms", "rows/s");
+            for (Map.Entry<String, String> url : urls.entrySet()) {
+                long before = run(url.getKey(), "before", url.getValue() + "ims_persist_before", false, USERS);
+                long after = run(url.getKey(), "after", url.getValue() + "ims_persist_after", true, USERS);
+                System.out.printf("%-7s speedup %.1fx%n", url.getKey(), (double) before / after);
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    // Trả về thời gian ghi (ms); transport null = chạy làm nóng, không in
+    private static long run(String transport, String mode, String url, boolean batched, int users) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=" + url + H2_OPTIONS,
+                // DB qua TCP không được Spring coi là DB nhúng: phải bật chạy script khởi tạo
+                "spring.sql.init.mode=always",
+                "logging.level.root=WARN"));
+        if (!batched) {
+            // Như trước user-003: sequence bước 1 (mỗi insert một NEXTVAL), không gom JDBC batch
+            properties.add("spring.jpa.hibernate.ddl-auto=update");
+            properties.add("spring.sql.init.schema-locations=classpath:db/sequence_increment_1.sql");
+            properties.add("spring.jpa.properties.hibernate.jdbc.batch_size=0");
+            properties.add("spring.jpa.properties.hibernate.order_inserts=false");
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ImsApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(String[]::new))
+                .run()) {
+            RoleOffer role = context.getBean(RoleOfferRepository.class)
+                    .save(RoleOffer.builder().roleName("RM").status("ACTIVE").build());
+
+            long start = System.nanoTime();
+            if (batched) {
+                writeInChunks(context.getBean(UserImportWriter.class), role, users);
+            } else {
+                saveAllAtOnce(context, role, users);
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            long rows = context.getBean(UserOfferRepository.class).count()
+                    + context.getBean(UserRoleOfferRepository.class).count();
+            assertEquals((long) users * (1 + ROLES_PER_USER), rows);
+            if (transport != null) {
+                System.out.printf("%-7s %-9s %8d %10d %10d%n", transport, mode, rows, millis,
+                        rows * 1000 / Math.max(1, millis));
+            }
+            return millis;
+        }
+    }
+
+    // Cách cũ: userRepository.saveAll(validUserMap.values()), phân quyền cascade qua userRoles
+    private static void saveAllAtOnce(ConfigurableApplicationContext context, RoleOffer role, int count) {
+        List<UserOffer> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UserOffer user = user(i);
+            for (int p = 0; p < ROLES_PER_USER; p++) user.addUserRole(permission(role, p));
+            users.add(user);
+        }
+        UserOfferRepository userRepository = context.getBean(UserOfferRepository.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class))
+                .executeWithoutResult(status -> userRepository.saveAll(users));
+    }
+
+    // Cách mới: như UserImportServiceImpl, phân quyền mới để riêng theo username
+    private static void writeInChunks(UserImportWriter writer, RoleOffer role, int count) {
+        for (int from = 0; from < count; from += CHUNK_SIZE) {
+            List<UserOffer> chunk = new ArrayList<>();
+            Map<String, List<UserRoleOffer>> newRolesByUser = new HashMap<>();
+            for (int i = from; i < Math.min(from + CHUNK_SIZE, count); i++) {
+                UserOffer user = user(i);
+                List<UserRoleOffer> roles = new ArrayList<>();
+                for (int p = 0; p < ROLES_PER_USER; p++) roles.add(permission(role, p));
+                newRolesByUser.put(user.getUserName(), roles);
+                chunk.add(user);
+            }
+            writer.writeChunk(chunk, newRolesByUser);
+        }
+    }
+
+    private static UserOffer user(int i) {
+        return UserOffer.builder().userName("bench" + i).fullName("Bench " + i)
+                .email("bench" + i + "@msb.com.vn").phone("09" + (10_000_000 + i)).subSystem("LOS")
+                .status("ACTIVE").build();
+    }
+
+    private static UserRoleOffer permission(RoleOffer role, int p) {
+        return UserRoleOffer.builder().role(role).bank("KHCN").branch("CN" + p).type("CHINH")
+                .fromDate(LocalDate.of(2024, 1, 1)).toDate(LocalDate.of(2030, 12, 31)).build();
+    }
+}
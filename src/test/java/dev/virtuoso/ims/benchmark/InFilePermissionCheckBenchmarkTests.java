@@ -0,0 +1,104 @@
+package dev.virtuoso.ims.benchmark;
+
+import dev.virtuoso.ims.entity.RoleOffer;
+import dev.virtuoso.ims.entity.UserRoleOffer;
+import dev.virtuoso.ims.importer.ExistingPermissionIndex;
+import dev.virtuoso.ims.importer.PermissionKey;
+import dev.virtuoso.ims.importer.UserImportContext;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Check trùng phân quyền trong file cho một user có nhiều phân quyền:
+// duyệt anyMatch trên các phân quyền đã đọc của user (cách cũ) so với UserImportContext#addPermission (HashMap).
+// Chạy: mvn test -Pbenchmark -Dtest=InFilePermissionCheckBenchmarkTests
+@Tag("benchmark")
+class InFilePermissionCheckBenchmarkTests {
+
+    private static final int[] PERMISSION_COUNTS = {10, 1_000, 5_000, 20_000};
+    private static final int REPEATS = 3;
+
+    private final RoleOffer role = RoleOffer.builder().id(1L).roleName("RM").status("ACTIVE").build();
+
+    @Test
+    void linearScanVersusHashedKey() {
+        // Làm nóng cả 2 cách trước khi đo
+        for (int i = 0; i < 20; i++) {
+            linearScan(1_000);
+            hashed(1_000);
+        }
+
+        System.out.printf("%-12s %12s %12s %10s%n", "permissions", "scan ms", "hashed ms", "speedup");
+        for (int count : PERMISSION_COUNTS) {
+            double scanMillis = Double.MAX_VALUE;
+            double hashedMillis = Double.MAX_VALUE;
+            // Lấy lần nhanh nhất trong REPEATS lần đo để bớt nhiễu GC
+            for (int r = 0; r < REPEATS; r++) {
+                long start = System.nanoTime();
+                int scanAccepted = linearScan(count);
+                scanMillis = Math.min(scanMillis, (System.nanoTime() - start) / 1e6);
+
+                start = System.nanoTime();
+                int hashedAccepted = hashed(count);
+                hashedMillis = Math.min(hashedMillis, (System.nanoTime() - start) / 1e6);
+
+                // Mỗi phân quyền xuất hiện 2 lần trong file: lần 2 bị coi là trùng
+                assertEquals(count, scanAccepted);
+                assertEquals(count, hashedAccepted);
+            }
+            System.out.printf("%-12d %12.2f %12.2f %9.0fx%n", count, scanMillis, hashedMillis,
+                    scanMillis / Math.max(0.01, hashedMillis));
+        }
+    }
+
+    // Cách cũ: mỗi dòng duyệt toàn bộ phân quyền đã nhận của user
+    private int linearScan(int count) {
+        Map<String, List<UserRoleOffer>> newRolesByUser = new HashMap<>();
+        int accepted = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < count; i++) {
+                String bank = "KHCN";
+                String branch = "CN" + i;
+                String type = "CHINH";
+                List<UserRoleOffer> rolesInFile = newRolesByUser.computeIfAbsent("user1", k -> new ArrayList<>());
+                boolean isDuplicateInFile = rolesInFile.stream()
+                        .anyMatch(existingRole ->
+                                existingRole.getRole().equals(role) &&
+                                        existingRole.getBank().equals(bank) &&
+                                        existingRole.getBranch().equals(branch) &&
+                                        existingRole.getType().equals(type)
+                        );
+                if (!isDuplicateInFile) {
+                    rolesInFile.add(permission(branch));
+                    accepted++;
+                }
+            }
+        }
+        return accepted;
+    }
+
+    private int hashed(int count) {
+        UserImportContext context = new UserImportContext(Map.of("RM", role), new ExistingPermissionIndex());
+        int accepted = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < count; i++) {
+                String branch = "CN" + i;
+                PermissionKey key = new PermissionKey("user1", role.getId(), "KHCN", branch, "CHINH");
+                if (context.addPermission(key, permission(branch))) {
+                    accepted++;
+                }
+            }
+        }
+        return accepted;
+    }
+
+    private UserRoleOffer permission(String branch) {
+        return UserRoleOffer.builder().role(role).bank("KHCN").branch(branch).type("CHINH").build();
+    }
+}
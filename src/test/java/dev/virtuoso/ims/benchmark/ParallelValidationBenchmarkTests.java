@@ -0,0 +1,77 @@
+package dev.virtuoso.ims.benchmark;
+
+import dev.virtuoso.ims.importer.ImportProgress;
+import dev.virtuoso.ims.importer.ParallelRowProcessor;
+import dev.virtuoso.ims.importer.SheetReader;
+import dev.virtuoso.ims.importer.SheetReaders;
+import dev.virtuoso.ims.validation.ImportRules;
+import dev.virtuoso.ims.validation.ValidatedRow;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Validate sheet User (ImportRules.USER) qua ParallelRowProcessor với số luồng khác nhau.
+// Đọc từ file csv để thời gian đọc không lấn át phần validate.
+// Kết quả phụ thuộc số CPU của máy chạy: máy 1 CPU không thể nhanh hơn khi tăng số luồng.
+// Chạy: mvn test -Pbenchmark -Dtest=ParallelValidationBenchmarkTests
+@Tag("benchmark")
+class ParallelValidationBenchmarkTests {
+
+    private static final int ROWS = 200_000;
+    private static final int BATCH_SIZE = 5_000;
+    private static final int REPEATS = 3;
+
+    @Test
+    void validationTimeByParallelism() throws Exception {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        Path csv = CsvReaderBenchmarkTests.writeCsv(ROWS);
+        try {
+            for (int i = 0; i < 3; i++) validate(csv, 1);
+
+            System.out.printf("CPU: %d, rows: %d, batch: %d%n", cpus, ROWS, BATCH_SIZE);
+            System.out.printf("%-12s %10s %10s%n", "parallelism", "ms", "speedup");
+            long baseline = 0;
+            int baselineErrors = -1;
+            for (int parallelism : new int[]{1, 2, 4, Math.max(8, cpus)}) {
+                long bestNanos = Long.MAX_VALUE;
+                int errors = 0;
+                for (int r = 0; r < REPEATS; r++) {
+                    long start = System.nanoTime();
+                    errors = validate(csv, parallelism);
+                    bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+                }
+                if (parallelism == 1) {
+                    baseline = bestNanos;
+                    baselineErrors = errors;
+                }
+                assertEquals(baselineErrors, errors);
+                System.out.printf("%-12d %10d %9.2fx%n", parallelism, bestNanos / 1_000_000,
+                        (double) baseline / bestNanos);
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    // Trả về số dòng lỗi (để chắc chắn mọi mức song song cho cùng kết quả)
+    private static int validate(Path csv, int parallelism) throws IOException {
+        ParallelRowProcessor processor = new ParallelRowProcessor(parallelism, BATCH_SIZE);
+        int[] errors = {0};
+        try (SheetReader reader = SheetReaders.open(csv, true)) {
+            int rows = processor.process(reader, "User", 3, ImportProgress.NONE,
+                    row -> ImportRules.USER.validate(row, null),
+                    (ValidatedRow row) -> {
+                        if (row.hasErrors()) errors[0]++;
+                    });
+            assertEquals(ROWS, rows);
+        } finally {
+            processor.shutdown();
+        }
+        return errors[0];
+    }
+}
@@ -0,0 +1,124 @@
+package dev.virtuoso.ims.benchmark;
+
+import dev.virtuoso.ims.entity.RoleOffer;
+import dev.virtuoso.ims.entity.UserOffer;
+import dev.virtuoso.ims.entity.UserRoleOffer;
+import dev.virtuoso.ims.importer.ExistingPermissionIndex;
+import dev.virtuoso.ims.repository.RoleOfferRepository;
+import dev.virtuoso.ims.repository.UserOfferRepository;
+import dev.virtuoso.ims.repository.UserRoleOfferRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Check trùng phân quyền khi import: query existsDuplicatePermission cho từng dòng (cách cũ)
+// so với nạp ExistingPermissionIndex một lần rồi tra trong bộ nhớ.
+// H2 in-memory không có độ trễ mạng nên chênh lệch thực tế trên Oracle còn lớn hơn.
+// Chạy: mvn test -Pbenchmark -Dtest=PermissionDuplicateCheckBenchmarkTests
+@Tag("benchmark")
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:ims_benchmark;MODE=Oracle;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE;DEFAULT_NULL_ORDERING=HIGH")
+class PermissionDuplicateCheckBenchmarkTests {
+
+    private static final int[] USER_COUNTS = {1_000, 5_000, 20_000};
+    private static final int PERMISSIONS_PER_USER = 2;
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2030, 12, 31);
+
+    @Autowired
+    private UserOfferRepository userRepository;
+
+    @Autowired
+    private RoleOfferRepository roleRepository;
+
+    @Autowired
+    private UserRoleOfferRepository userRoleRepository;
+
+    @AfterEach
+    void tearDown() {
+        userRoleRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        roleRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void perRowQueryVersusPrefetchedIndex() {
+        RoleOffer role = roleRepository.save(RoleOffer.builder().roleName("RM").status("ACTIVE").build());
+
+        System.out.printf("%-8s %12s %12s %12s %8s%n", "users", "check rows", "per-row ms", "index ms", "speedup");
+        for (int users : USER_COUNTS) {
+            List<UserOffer> seeded = seed(users, role);
+            // Làm nóng query và index trên một phần nhỏ trước khi đo
+            if (users == USER_COUNTS[0]) {
+                perRow(seeded.subList(0, 100), role);
+                prefetched(seeded.subList(0, 100), role);
+            }
+
+            long start = System.nanoTime();
+            int perRowDuplicates = perRow(seeded, role);
+            long perRowMillis = (System.nanoTime() - start) / 1_000_000;
+
+            start = System.nanoTime();
+            int indexDuplicates = prefetched(seeded, role);
+            long indexMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertEquals(users, perRowDuplicates);
+            assertEquals(perRowDuplicates, indexDuplicates);
+            System.out.printf("%-8d %12d %12d %12d %7.1fx%n", users, 2 * users, perRowMillis, indexMillis,
+                    (double) perRowMillis / Math.max(1, indexMillis));
+
+            userRoleRepository.deleteAllInBatch();
+            userRepository.deleteAllInBatch();
+        }
+    }
+
+    // Mỗi user có PERMISSIONS_PER_USER phân quyền ở các đơn vị CN0, CN1, ...
+    private List<UserOffer> seed(int users, RoleOffer role) {
+        List<UserOffer> batch = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            UserOffer user = UserOffer.builder().userName("bench" + i).fullName("Bench " + i)
+                    .email("bench" + i + "@msb.com.vn").status("ACTIVE").build();
+            for (int p = 0; p < PERMISSIONS_PER_USER; p++) {
+                user.addUserRole(UserRoleOffer.builder().role(role).bank("KHCN").branch("CN" + p)
+                        .type("CHINH").fromDate(FROM).toDate(TO).build());
+            }
+            batch.add(user);
+        }
+        return userRepository.saveAll(batch);
+    }
+
+    // Mỗi user 2 dòng trong file: một dòng trùng phân quyền đã có (CN0), một dòng mới (đơn vị NEW)
+    private int perRow(List<UserOffer> users, RoleOffer role) {
+        int duplicates = 0;
+        for (UserOffer user : users) {
+            for (String branch : new String[]{"CN0", "NEW"}) {
+                if (userRoleRepository.existsDuplicatePermission(user, role, "KHCN", branch, "CHINH", FROM, TO)) {
+                    duplicates++;
+                }
+            }
+        }
+        return duplicates;
+    }
+
+    private int prefetched(List<UserOffer> users, RoleOffer role) {
+        ExistingPermissionIndex index = ExistingPermissionIndex.load(userRoleRepository,
+                users.stream().map(UserOffer::getId).toList());
+        int duplicates = 0;
+        for (UserOffer user : users) {
+            for (String branch : new String[]{"CN0", "NEW"}) {
+                if (index.hasOverlap(user.getUserName(), role.getId(), "KHCN", branch, "CHINH", FROM, TO)) {
+                    duplicates++;
+                }
+            }
+        }
+        return duplicates;
+    }
+}
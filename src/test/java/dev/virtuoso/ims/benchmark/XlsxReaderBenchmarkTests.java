@@ -0,0 +1,167 @@
+package dev.virtuoso.ims.benchmark;
+
+import dev.virtuoso.ims.importer.SheetReader;
+import dev.virtuoso.ims.importer.StreamingXlsxSheetReader;
+import dev.virtuoso.ims.importer.XssfSheetReader;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Heap khi đọc file import xlsx: SAX (StreamingXlsxSheetReader) so với DOM (XssfSheetReader, XSSFWorkbook).
+// live: heap còn dùng sau GC giữa lúc đọc (dữ liệu reader đang giữ); peak: heap dùng cao nhất kể cả rác chưa thu.
+// Chạy: mvn test -Pbenchmark -Dtest=XlsxReaderBenchmarkTests
+@Tag("benchmark")
+class XlsxReaderBenchmarkTests {
+
+    private static final int[] ROW_COUNTS = {10_000, 50_000, 100_000};
+    static final int FIRST_DATA_ROW = 3;
+    private static final long MB = 1024 * 1024;
+    static final String[] USER_HEADERS = {"Username", "Email", "Họ tên", "Ngày sinh", "Giới tính", "SĐT", "Phân hệ"};
+    static final String[] PERMISSION_HEADERS = {"Username", "Khối", "Đơn vị", "Role", "Loại", "Từ ngày", "Đến ngày"};
+
+    private interface ReaderFactory {
+        SheetReader open(Path path) throws IOException;
+    }
+
+    @Test
+    void peakHeapByRowCount() throws Exception {
+        Path warmUp = writeImportFile(1_000);
+        try {
+            measure(null, 1_000, warmUp, StreamingXlsxSheetReader::new);
+            measure(null, 1_000, warmUp, XssfSheetReader::new);
+        } finally {
+            Files.deleteIfExists(warmUp);
+        }
+
+        System.out.printf("%-6s %10s %12s %12s %8s%n", "mode", "rows/sheet", "live MB", "peak MB", "ms");
+        for (int rows : ROW_COUNTS) {
+            Path file = writeImportFile(rows);
+            try {
+                measure("SAX", rows, file, StreamingXlsxSheetReader::new);
+                measure("DOM", rows, file, XssfSheetReader::new);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // mode null: chạy làm nóng, không in
+    private static void measure(String mode, int rows, Path file, ReaderFactory factory) throws Exception {
+        HeapSampler sampler = new HeapSampler();
+        long[] live = {0};
+        long start = System.nanoTime();
+        long pausedNanos;
+        try (SheetReader reader = factory.open(file)) {
+            int[] count = {0};
+            reader.readSheet("User", FIRST_DATA_ROW, row -> count[0]++);
+            // Giữa 2 sheet: GC rồi đo phần reader còn giữ (không tính vào thời gian)
+            long pause = System.nanoTime();
+            live[0] = sampler.liveAfterGc();
+            pausedNanos = System.nanoTime() - pause;
+            reader.readSheet("Thong_tin_phan_quyen", FIRST_DATA_ROW, row -> count[0]++);
+            assertEquals(2 * rows, count[0]);
+        } catch (OutOfMemoryError e) {
+            sampler.stop();
+            if (mode != null) System.out.printf("%-6s %10d %12s %12s %8s%n", mode, rows, "OOM", "OOM", "-");
+            return;
+        }
+        long millis = (System.nanoTime() - start - pausedNanos) / 1_000_000;
+        long peak = sampler.stop();
+        if (mode != null) {
+            System.out.printf("%-6s %10d %12d %12d %8d%n", mode, rows, live[0] / MB, peak / MB, millis);
+        }
+    }
+
+    static Path writeImportFile(int rows) throws IOException {
+        Path file = Files.createTempFile("xlsx-reader-benchmark-", ".xlsx");
+        // Dùng bảng shared strings như file Excel thật (SAX reader giữ bảng này trong bộ nhớ)
+        SXSSFWorkbook workbook = new SXSSFWorkbook(null, 100, false, true);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            Sheet users = header(workbook.createSheet("User"), USER_HEADERS);
+            Sheet permissions = header(workbook.createSheet("Thong_tin_phan_quyen"), PERMISSION_HEADERS);
+            for (int i = 0; i < rows; i++) {
+                fill(users.createRow(FIRST_DATA_ROW + i), userRow(i));
+                fill(permissions.createRow(FIRST_DATA_ROW + i), permissionRow(i));
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+        return file;
+    }
+
+    // Dữ liệu dòng thứ i của 2 sheet (dùng chung với CsvReaderBenchmarkTests để so trên cùng dữ liệu)
+    static String[] userRow(int i) {
+        String userName = "user" + i;
+        return new String[]{userName, userName + "@msb.com.vn", "Nguyễn Văn " + i, "01/01/1990",
+                i % 2 == 0 ? "MALE" : "FEMALE", "09" + (10_000_000 + i), "LOS"};
+    }
+
+    static String[] permissionRow(int i) {
+        return new String[]{"user" + i, "KHCN", "CN" + (i % 300), "RM", "CHINH", "01/01/2024", "31/12/2030"};
+    }
+
+    private static Sheet header(Sheet sheet, String... headers) {
+        fill(sheet.createRow(FIRST_DATA_ROW - 1), headers);
+        return sheet;
+    }
+
+    private static void fill(Row row, String... values) {
+        for (int i = 0; i < values.length; i++) row.createCell(i).setCellValue(values[i]);
+    }
+
+    // Lấy mẫu heap đang dùng mỗi 2 ms, tính từ mức sau GC lúc bắt đầu
+    private static final class HeapSampler {
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final long baseline;
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile long peak;
+
+        HeapSampler() {
+            System.gc();
+            baseline = used();
+            thread = new Thread(() -> {
+                while (running) {
+                    peak = Math.max(peak, used());
+                    try {
+                        Thread.sleep(2);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        long liveAfterGc() {
+            System.gc();
+            return Math.max(0, used() - baseline);
+        }
+
+        long stop() throws InterruptedException {
+            running = false;
+            thread.join();
+            peak = Math.max(peak, used());
+            return Math.max(0, peak - baseline);
+        }
+
+        private long used() {
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+}
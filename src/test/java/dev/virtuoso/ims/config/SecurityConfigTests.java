@@ -0,0 +1,147 @@
+package dev.virtuoso.ims.config;
+
+import dev.virtuoso.ims.entity.RoleOffer;
+import dev.virtuoso.ims.entity.UserOffer;
+import dev.virtuoso.ims.entity.UserRoleOffer;
+import dev.virtuoso.ims.entity.rbac.ActionOffer;
+import dev.virtuoso.ims.entity.rbac.ActionResource;
+import dev.virtuoso.ims.entity.rbac.ResourceOffer;
+import dev.virtuoso.ims.entity.rbac.RoleActRes;
+import dev.virtuoso.ims.repository.RoleOfferRepository;
+import dev.virtuoso.ims.repository.UserOfferRepository;
+import dev.virtuoso.ims.repository.rbac.ActionOfferRepository;
+import dev.virtuoso.ims.repository.rbac.ActionResourceRepository;
+import dev.virtuoso.ims.repository.rbac.ResourceOfferRepository;
+import dev.virtuoso.ims.repository.rbac.RoleActResRepository;
+import dev.virtuoso.ims.security.RbacAuthorizationEngine;
+import dev.virtuoso.ims.security.RbacPermissions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Đi qua filter chain thật với RBAC bật: đăng nhập bằng header SSO, quyền theo bảng RBAC
+@SpringBootTest(properties = {
+        "ims.rbac.enabled=true",
+        "ims.security.trusted-proxies=127.0.0.1",
+        "ims.security.gateway-secret=" + SecurityConfigTests.GATEWAY_SECRET,
+        "spring.datasource.url=jdbc:h2:mem:ims_rbac;MODE=Oracle;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE;DEFAULT_NULL_ORDERING=HIGH"
+})
+@AutoConfigureMockMvc
+class SecurityConfigTests {
+
+    static final String GATEWAY_SECRET = "test-gateway-secret";
+    private static final String USER_HEADER = "X-Auth-User";
+    private static final String SECRET_HEADER = "X-Gateway-Secret";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RbacAuthorizationEngine rbac;
+
+    @Autowired
+    private ActionOfferRepository actionRepository;
+
+    @Autowired
+    private ResourceOfferRepository resourceRepository;
+
+    @Autowired
+    private ActionResourceRepository actionResourceRepository;
+
+    @Autowired
+    private RoleActResRepository roleActResRepository;
+
+    @Autowired
+    private RoleOfferRepository roleRepository;
+
+    @Autowired
+    private UserOfferRepository userRepository;
+
+    private Long viewerId;
+
+    @BeforeEach
+    void setUp() {
+        ActionOffer view = actionRepository.save(ActionOffer.builder().id(1L).actionName("VIEW").build());
+        ActionOffer admin = actionRepository.save(ActionOffer.builder().id(2L).actionName("ADMIN").build());
+        ResourceOffer user = resourceRepository.save(ResourceOffer.builder().id(1L).resourceName("USER").build());
+        ResourceOffer rbacResource = resourceRepository.save(ResourceOffer.builder().id(2L).resourceName("RBAC").build());
+        actionResourceRepository.save(ActionResource.builder().action(view).resource(user)
+                .slug(RbacPermissions.USER_VIEW).status("ACTIVE").build());
+        actionResourceRepository.save(ActionResource.builder().action(admin).resource(rbacResource)
+                .slug(RbacPermissions.RBAC_ADMIN).status("ACTIVE").build());
+
+        RoleOffer viewerRole = roleRepository.save(RoleOffer.builder().roleName("RM").status("ACTIVE").build());
+        RoleOffer adminRole = roleRepository.save(RoleOffer.builder().roleName("ADMIN").status("ACTIVE").build());
+        roleActResRepository.save(RoleActRes.builder().role(viewerRole).action(view).resource(user).build());
+        roleActResRepository.save(RoleActRes.builder().role(adminRole).action(admin).resource(rbacResource).build());
+
+        viewerId = userRepository.save(user("viewer", viewerRole, "ACTIVE")).getId();
+        userRepository.save(user("admin", adminRole, "ACTIVE"));
+        userRepository.save(user("locked", viewerRole, "INACTIVE"));
+        rbac.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        roleActResRepository.deleteAll();
+        actionResourceRepository.deleteAll();
+        actionRepository.deleteAll();
+        resourceRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void userApiFollowsRbacGrants() throws Exception {
+        mockMvc.perform(asUser(get("/api/users"), "viewer")).andExpect(status().isOk());
+        mockMvc.perform(asUser(delete("/api/users/" + viewerId), "viewer")).andExpect(status().isForbidden());
+        mockMvc.perform(asUser(get("/api/users"), "admin")).andExpect(status().isForbidden());
+        // Không đăng nhập, user không tồn tại hoặc không ACTIVE
+        mockMvc.perform(get("/api/users")).andExpect(status().isForbidden());
+        mockMvc.perform(asUser(get("/api/users"), "khong_co")).andExpect(status().isForbidden());
+        mockMvc.perform(asUser(get("/api/users"), "locked")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void rbacAdminApiNeedsRbacAdmin() throws Exception {
+        mockMvc.perform(asUser(get("/api/rbac/permission-cache"), "admin")).andExpect(status().isOk());
+        mockMvc.perform(asUser(get("/api/rbac/permission-cache"), "viewer")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void userHeaderIsIgnoredUnlessSentByGateway() throws Exception {
+        // Đúng IP nhưng thiếu/sai secret
+        mockMvc.perform(get("/api/rbac/permission-cache").header(USER_HEADER, "admin"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/rbac/permission-cache").header(USER_HEADER, "admin").header(SECRET_HEADER, "sai"))
+                .andExpect(status().isForbidden());
+        // Đúng secret nhưng không đến từ IP của gateway
+        mockMvc.perform(get("/api/rbac/permission-cache").header(USER_HEADER, "admin").header(SECRET_HEADER, GATEWAY_SECRET)
+                        .with(request -> {
+                            request.setRemoteAddr("10.9.9.9");
+                            return request;
+                        }))
+                .andExpect(status().isForbidden());
+    }
+
+    // Request đi qua gateway: kèm secret, từ 127.0.0.1 (địa chỉ mặc định của MockMvc)
+    private static MockHttpServletRequestBuilder asUser(MockHttpServletRequestBuilder request, String userName) {
+        return request.header(USER_HEADER, userName).header(SECRET_HEADER, GATEWAY_SECRET);
+    }
+
+    private static UserOffer user(String userName, RoleOffer role, String status) {
+        UserOffer user = UserOffer.builder().userName(userName).fullName(userName)
+                .email(userName + "@msb.com.vn").status(status).build();
+        user.addUserRole(UserRoleOffer.builder().role(role).bank("KHCN").branch("HN").build());
+        return user;
+    }
+}
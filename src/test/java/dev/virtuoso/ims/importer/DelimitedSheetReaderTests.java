@@ -0,0 +1,94 @@
+package dev.virtuoso.ims.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DelimitedSheetReaderTests {
+
+    @Test
+    void bracketedValuesAreNotSectionMarkers() throws Exception {
+        Path csv = Files.createTempFile("delimited-reader-test-", ".csv");
+        try {
+            Files.writeString(csv, "[User]\n" +
+                    "Username,Khoi\n" +
+                    "[HN]\n" +              // không phải tên sheet
+                    "[HN],KHCN\n" +         // có dấu phân tách
+                    "u1,KHCN\n" +
+                    "[Thong_tin_phan_quyen]\n" +
+                    "Username,Khoi\n" +
+                    "u1,KHCN\n");
+
+            List<ImportRow> users = new ArrayList<>();
+            try (DelimitedSheetReader reader = new DelimitedSheetReader(csv, ',', 2,
+                    Set.of("User", "Thong_tin_phan_quyen"))) {
+                assertFalse(reader.hasSheet("HN"));
+                assertEquals(1, reader.headerRow("User", 3));
+                reader.readSheet("User", 3, users::add);
+            }
+
+            assertEquals(List.of("[HN]", "[HN]", "u1"), users.stream().map(r -> r.getCellValue(0)).toList());
+            assertEquals(List.of(2, 3, 4), users.stream().map(ImportRow::getRowNum).toList());
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    @Test
+    void longQuotedCellKeepsAllBytes() throws Exception {
+        Path csv = Files.createTempFile("delimited-reader-test-", ".csv");
+        // Dài hơn bộ đệm ban đầu (256 byte), có dấu nháy kép và xuống dòng
+        String note = "Ghi chú \"dài\"\n" + "Nguyễn Văn A ".repeat(40);
+        try {
+            Files.writeString(csv, "[User]\n" +
+                    "Username,Ghi chu\n" +
+                    "u1,\"" + note.replace("\"", "\"\"") + "\"\n" +
+                    "u2,ngắn\n");
+
+            List<ImportRow> users = new ArrayList<>();
+            try (DelimitedSheetReader reader = new DelimitedSheetReader(csv, ',', 2, Set.of("User"))) {
+                reader.readSheet("User", 3, users::add);
+            }
+
+            assertEquals(note.trim(), users.get(0).getCellValue(1));
+            assertEquals("ngắn", users.get(1).getCellValue(1));
+            assertEquals(List.of(2, 4), users.stream().map(ImportRow::getRowNum).toList());
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    @Test
+    void blankLinesAreNotRows() throws Exception {
+        Path csv = Files.createTempFile("delimited-reader-test-", ".csv");
+        try {
+            Files.writeString(csv, "[User]\n" +
+                    "Username,Khoi\n" +
+                    "u1,KHCN\n" +
+                    "\r\n" +
+                    ",\n" +
+                    "u2,KHDN\n" +
+                    "\n" +
+                    "[Thong_tin_phan_quyen]\n" +
+                    "Username,Khoi\n" +
+                    "u1,KHCN\n");
+
+            List<ImportRow> users = new ArrayList<>();
+            try (DelimitedSheetReader reader = new DelimitedSheetReader(csv, ',', 2,
+                    Set.of("User", "Thong_tin_phan_quyen"))) {
+                reader.readSheet("User", 3, users::add);
+            }
+
+            assertEquals(List.of("u1", "u2"), users.stream().map(r -> r.getCellValue(0)).toList());
+            assertEquals(List.of(2, 5), users.stream().map(ImportRow::getRowNum).toList());
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package dev.virtuoso.ims.importer;
+
+import dev.virtuoso.ims.validation.ImportErrorCode;
+import dev.virtuoso.ims.validation.RowError;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportReportTests {
+
+    @Test
+    void issuesAreCappedButRowsAreStillCounted() {
+        ImportReport report = new ImportReport("r1", 1, 3);
+        for (int row = 3; row < 8; row++) {
+            report.rowErrors("User", "Sheet User", row, List.of(
+                    new RowError(0, ImportErrorCode.REQUIRED, "Username trống"),
+                    new RowError(1, ImportErrorCode.REQUIRED, "Email trống")));
+        }
+
+        assertEquals(5, report.getErrorCount());
+        assertEquals(3, report.getIssues(null).size());
+        assertTrue(report.isIssuesTruncated());
+        assertEquals(1, report.getDetails().size());
+        assertTrue(report.isTruncated());
+    }
+}
@@ -0,0 +1,45 @@
+package dev.virtuoso.ims.importer;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingXlsxSheetReaderTests {
+
+    @Test
+    void skippedHeaderDoesNotFillBlankCellsOfFirstDataRow() throws Exception {
+        Path file = Files.createTempFile("streaming-reader-test-", ".xlsx");
+        try {
+            try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+                Sheet sheet = workbook.createSheet("User");
+                Row header = sheet.createRow(2);
+                for (int c = 0; c < 7; c++) header.createCell(c).setCellValue("H" + c);
+                Row row = sheet.createRow(3);
+                row.createCell(0).setCellValue("u1");
+                row.createCell(6).setCellValue("LOS");
+                workbook.write(out);
+            }
+
+            List<ImportRow> rows = new ArrayList<>();
+            try (StreamingXlsxSheetReader reader = new StreamingXlsxSheetReader(file)) {
+                reader.readSheet("User", 3, rows::add);
+            }
+
+            assertEquals(1, rows.size());
+            assertEquals("u1", rows.get(0).getCellValue(0));
+            assertEquals("", rows.get(0).getCellValue(5));
+            assertEquals("LOS", rows.get(0).getCellValue(6));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package dev.virtuoso.ims.importer;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XssfSheetReaderTests {
+
+    @Test
+    void rowsAreDetachedFromWorkbook() throws Exception {
+        Path file = Files.createTempFile("xssf-reader-test-", ".xlsx");
+        try {
+            try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+                CellStyle dateStyle = workbook.createCellStyle();
+                dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("m/d/yy"));
+                Row row = workbook.createSheet("User").createRow(3);
+                row.createCell(0).setCellValue(" u1 ");
+                row.createCell(3).setCellValue(LocalDate.of(1990, 2, 1));
+                row.getCell(3).setCellStyle(dateStyle);
+                row.createCell(5).setCellValue(912345678);
+                workbook.write(out);
+            }
+
+            List<ImportRow> rows = new ArrayList<>();
+            try (XssfSheetReader reader = new XssfSheetReader(file)) {
+                reader.readSheet("User", 3, rows::add);
+            }
+
+            // Đọc sau khi đã đóng workbook: dòng chỉ còn giá trị chuỗi, dùng được trên thread khác
+            ImportRow row = rows.get(0);
+            assertInstanceOf(StreamingImportRow.class, row);
+            assertEquals(3, row.getRowNum());
+            assertEquals("u1", row.getCellValue(0));
+            assertEquals("", row.getCellValue(1));
+            assertEquals(LocalDate.of(1990, 2, 1), row.getDateCellValue(3));
+            assertEquals("912345678", row.getCellValue(5));
+            assertFalse(row.isEmpty());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package dev.virtuoso.ims.reference;
+
+import dev.virtuoso.ims.entity.RoleOffer;
+import dev.virtuoso.ims.repository.RoleOfferRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RoleCatalogTests {
+
+    @Autowired
+    private RoleCatalog roleCatalog;
+
+    @Autowired
+    private RoleOfferRepository roleRepository;
+
+    @AfterEach
+    void tearDown() {
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void writesThroughRepositoryEvictCatalog() {
+        assertTrue(roleCatalog.findByRoleNameIgnoreCase("rm").isEmpty());
+        long hits = roleCatalog.stats().getCache().getHits();
+        roleCatalog.findByRoleNameIgnoreCase("rm");
+        assertTrue(roleCatalog.stats().getCache().getHits() > hits);
+
+        RoleOffer role = roleRepository.save(RoleOffer.builder().roleName("RM").status("ACTIVE").build());
+        assertEquals(role.getId(), roleCatalog.findByRoleNameIgnoreCase("rm").orElseThrow().getId());
+
+        role.setRoleName("CSO");
+        roleRepository.save(role);
+        assertTrue(roleCatalog.findByRoleNameIgnoreCase("rm").isEmpty());
+        assertTrue(roleCatalog.rolesByName().containsKey("CSO"));
+
+        roleRepository.delete(role);
+        assertTrue(roleCatalog.rolesByName().isEmpty());
+    }
+}
@@ -0,0 +1,52 @@
+package dev.virtuoso.ims.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSearchIndexTests {
+
+    private final UserSearchIndex index = new UserSearchIndex(null);
+
+    @Test
+    void matchesAccentFoldedKeywordsRankedByRelevance() {
+        index.index(1L, "hoanglan", "Hoàng Thị Lan", "lan.ht@msb.com.vn");
+        index.index(2L, "nguyen", "Trần Văn Nam", "nam.tv@msb.com.vn");
+        index.index(3L, "anhnv", "Nguyễn Văn Anh", "anh.nv@msb.com.vn");
+        index.index(4L, "tuandd", "Đỗ Đức Tuấn", "tuan.dd@msb.com.vn");
+
+        assertEquals(List.of(2L, 3L), ids("NGUYEN", 10));
+        assertEquals(List.of(3L), ids("nguyễn anh", 10));
+        assertEquals(List.of(4L), ids("do duc", 10));
+        assertEquals(List.of(1L), ids("lan.ht@", 10));
+
+        Page<Long> page = index.search("msb", PageRequest.of(1, 3));
+        assertEquals(4, page.getTotalElements());
+        assertEquals(List.of(1L), page.getContent());   // cùng điểm: user mới hơn (ID lớn hơn) trước
+    }
+
+    @Test
+    void updatesAndRemovalsAreVisibleAcrossCompaction() {
+        for (long id = 1; id <= 2000; id++) {
+            index.index(id, "user" + id, "Người dùng " + id, "user" + id + "@msb.com.vn");
+        }
+        for (long id = 1; id <= 1500; id++) {
+            index.index(id, "user" + id, "Phạm Minh " + id, "user" + id + "@msb.com.vn");
+        }
+        index.remove(1999L);
+
+        assertEquals(1999, index.size());
+        assertEquals(List.of(42L), ids("pham minh 42", 1));
+        assertFalse(ids("nguoi dung 42", 100).contains(42L));
+        assertEquals(List.of(199L, 1998L), ids("user199", 2));   // trùng username trước, 1999 đã xóa
+        assertFalse(ids("user1999", 10).contains(1999L));
+    }
+
+    private List<Long> ids(String keyword, int size) {
+        return index.search(keyword, PageRequest.of(0, size)).getContent();
+    }
+}
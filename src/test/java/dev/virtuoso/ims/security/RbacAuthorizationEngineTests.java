@@ -0,0 +1,170 @@
+package dev.virtuoso.ims.security;
+
+import dev.virtuoso.ims.controller.UserImportController;
+import dev.virtuoso.ims.dto.request.BulkRoleRequest;
+import dev.virtuoso.ims.dto.request.UserSelection;
+import dev.virtuoso.ims.dto.response.RbacBenchmarkResult;
+import dev.virtuoso.ims.entity.RoleOffer;
+import dev.virtuoso.ims.entity.UserOffer;
+import dev.virtuoso.ims.entity.UserRoleOffer;
+import dev.virtuoso.ims.entity.rbac.ActionOffer;
+import dev.virtuoso.ims.entity.rbac.ActionResource;
+import dev.virtuoso.ims.entity.rbac.ResourceOffer;
+import dev.virtuoso.ims.entity.rbac.RoleActRes;
+import dev.virtuoso.ims.repository.RoleOfferRepository;
+import dev.virtuoso.ims.repository.UserOfferRepository;
+import dev.virtuoso.ims.repository.rbac.ActionOfferRepository;
+import dev.virtuoso.ims.repository.rbac.ActionResourceRepository;
+import dev.virtuoso.ims.repository.rbac.ResourceOfferRepository;
+import dev.virtuoso.ims.repository.rbac.RoleActResRepository;
+import dev.virtuoso.ims.service.impl.UserCommandServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RbacAuthorizationEngineTests {
+
+    @Autowired
+    private RbacAuthorizationEngine engine;
+
+    @Autowired
+    private ActionOfferRepository actionRepository;
+
+    @Autowired
+    private ResourceOfferRepository resourceRepository;
+
+    @Autowired
+    private ActionResourceRepository actionResourceRepository;
+
+    @Autowired
+    private RoleActResRepository roleActResRepository;
+
+    @Autowired
+    private RoleOfferRepository roleRepository;
+
+    @Autowired
+    private UserOfferRepository userRepository;
+
+    @Autowired
+    private UserCommandServiceImpl userCommandService;
+
+    @Autowired
+    private UserImportController userImportController;
+
+    @AfterEach
+    void tearDown() {
+        roleActResRepository.deleteAll();
+        actionResourceRepository.deleteAll();
+        actionRepository.deleteAll();
+        resourceRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void compiledMatrixCombinesActiveAssignments() {
+        ActionOffer view = actionRepository.save(ActionOffer.builder().id(1L).actionName("VIEW").build());
+        ActionOffer delete = actionRepository.save(ActionOffer.builder().id(2L).actionName("DELETE").build());
+        ResourceOffer user = resourceRepository.save(ResourceOffer.builder().id(1L).resourceName("USER").build());
+        actionResourceRepository.save(ActionResource.builder().action(view).resource(user)
+                .slug(RbacPermissions.USER_VIEW).status("ACTIVE").build());
+        actionResourceRepository.save(ActionResource.builder().action(delete).resource(user)
+                .slug(RbacPermissions.USER_DELETE).status("ACTIVE").build());
+
+        RoleOffer rm = roleRepository.save(RoleOffer.builder().roleName("RM").status("ACTIVE").build());
+        RoleOffer admin = roleRepository.save(RoleOffer.builder().roleName("ADMIN").status("ACTIVE").build());
+        roleActResRepository.save(RoleActRes.builder().role(rm).action(view).resource(user).build());
+        roleActResRepository.save(RoleActRes.builder().role(admin).action(view).resource(user).build());
+        roleActResRepository.save(RoleActRes.builder().role(admin).action(delete).resource(user).build());
+
+        UserOffer u1 = UserOffer.builder().userName("u1").fullName("U1").email("u1@msb.com.vn").status("ACTIVE").build();
+        u1.addUserRole(UserRoleOffer.builder().role(rm).bank("KHCN").branch("HN").build());
+        u1.addUserRole(UserRoleOffer.builder().role(admin).bank("KHCN").branch("HN")
+                .toDate(LocalDate.now().minusDays(1)).build());   // đã hết hiệu lực
+        userRepository.save(u1);
+
+        RbacMatrix matrix = engine.matrix();
+        assertEquals(2, matrix.permissionCount());
+        assertEquals(3, matrix.grantCount());
+
+        EffectivePermissions permissions = engine.permissionsOf("u1");
+        int viewBit = matrix.bit(RbacPermissions.USER_VIEW);
+        assertTrue(permissions.has(viewBit));
+        assertTrue(permissions.has(viewBit, "KHCN"));
+        assertFalse(permissions.has(viewBit, "KHDN"));
+        assertFalse(permissions.has(matrix.bit(RbacPermissions.USER_DELETE)));
+        assertFalse(permissions.has(matrix.bit("UNKNOWN")));
+        assertFalse(engine.permissionsOf("khong_co").has(viewBit));
+
+        RbacBenchmarkResult benchmark = engine.benchmark(100_000);
+        assertEquals(matrix.version(), benchmark.getMatrixVersion());
+        assertTrue(benchmark.getChecksPerSecond() > 0);
+    }
+
+    @Test
+    void cachedPermissionsExpireAtDateBoundaryAndOnBulkGrant() {
+        ActionOffer view = actionRepository.save(ActionOffer.builder().id(1L).actionName("VIEW").build());
+        ResourceOffer user = resourceRepository.save(ResourceOffer.builder().id(1L).resourceName("USER").build());
+        actionResourceRepository.save(ActionResource.builder().action(view).resource(user)
+                .slug(RbacPermissions.USER_VIEW).status("ACTIVE").build());
+        RoleOffer rm = roleRepository.save(RoleOffer.builder().roleName("RM").status("ACTIVE").build());
+        roleActResRepository.save(RoleActRes.builder().role(rm).action(view).resource(user).build());
+
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        UserOffer u2 = UserOffer.builder().userName("u2").fullName("U2").email("u2@msb.com.vn").status("ACTIVE").build();
+        u2.addUserRole(UserRoleOffer.builder().role(rm).bank("KHCN").branch("HN").fromDate(tomorrow).build());
+        u2 = userRepository.save(u2);
+
+        int viewBit = engine.matrix().bit(RbacPermissions.USER_VIEW);
+        EffectivePermissions before = engine.permissionsOf("u2");
+        assertFalse(before.has(viewBit));
+        assertEquals(tomorrow, before.validUntil());   // phân quyền bắt đầu từ ngày mai
+        assertFalse(before.isValidOn(tomorrow));
+        assertSame(before, engine.permissionsOf("u2"));
+
+        BulkRoleRequest grant = new BulkRoleRequest();
+        UserSelection selection = new UserSelection();
+        selection.setUserIds(List.of(u2.getId()));
+        grant.setUsers(selection);
+        grant.setRoleId(rm.getId());
+        grant.setBank("KHDN");
+        grant.setBranch("HCM");
+        grant.setToDate(LocalDate.now());
+        userCommandService.grantRole(grant);
+
+        EffectivePermissions after = engine.permissionsOf("u2");
+        assertNotSame(before, after);
+        assertTrue(after.has(viewBit, "KHDN"));
+        assertFalse(after.has(viewBit, "KHCN"));
+        assertEquals(tomorrow, after.validUntil());
+    }
+
+    // Tên đăng nhập đã được tra trước khi user được tạo (vd. SSO đăng nhập trước khi có tài khoản):
+    // entry rỗng trong cache phải bị xóa khi tạo user
+    @Test
+    void createdUserDoesNotKeepCachedEmptyPermissions() {
+        ActionOffer view = actionRepository.save(ActionOffer.builder().id(1L).actionName("VIEW").build());
+        ResourceOffer user = resourceRepository.save(ResourceOffer.builder().id(1L).resourceName("USER").build());
+        actionResourceRepository.save(ActionResource.builder().action(view).resource(user)
+                .slug(RbacPermissions.USER_VIEW).status("ACTIVE").build());
+        RoleOffer rm = roleRepository.save(RoleOffer.builder().roleName("RM").status("ACTIVE").build());
+        roleActResRepository.save(RoleActRes.builder().role(rm).action(view).resource(user).build());
+
+        int viewBit = engine.matrix().bit(RbacPermissions.USER_VIEW);
+        assertFalse(engine.permissionsOf("u3").has(viewBit));
+
+        UserOffer u3 = UserOffer.builder().userName("u3").fullName("U3").email("u3@msb.com.vn").build();
+        u3.setUserRoles(new ArrayList<>(List.of(UserRoleOffer.builder().role(rm).bank("KHCN").branch("HN").build())));
+        assertEquals(200, userImportController.createUser(u3).getStatusCode().value());
+
+        assertTrue(engine.permissionsOf("u3").has(viewBit));
+    }
+}
@@ -0,0 +1,168 @@
+package dev.virtuoso.ims.service.impl;
+
+import dev.virtuoso.ims.dto.request.TemplateRequest;
+import dev.virtuoso.ims.dto.response.CacheStats;
+import dev.virtuoso.ims.dto.response.ImportResult;
+import dev.virtuoso.ims.entity.interest.LoanInterestParam;
+import dev.virtuoso.ims.entity.interest.LoanInterestParamType;
+import dev.virtuoso.ims.importer.ImportReport;
+import dev.virtuoso.ims.reference.InterestReferenceData;
+import dev.virtuoso.ims.repository.interest.LoanInterestParamRepository;
+import dev.virtuoso.ims.repository.interest.LoanInterestParamTypeRepository;
+import dev.virtuoso.ims.service.InterestService;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class InterestServiceImplTests {
+
+    @Autowired
+    private InterestService interestService;
+
+    @Autowired
+    private LoanInterestParamTypeRepository typeRepo;
+
+    @Autowired
+    private LoanInterestParamRepository paramRepo;
+
+    @Autowired
+    private InterestReferenceData referenceData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ImportReportServiceImpl importReportService;
+
+    @BeforeEach
+    void setUp() {
+        typeRepo.saveAll(List.of(type(1, "Kỳ hạn"), type(2, "Sản phẩm")));
+        paramRepo.saveAll(List.of(param(10, 1, "6 tháng"), param(11, 1, "12 tháng"), param(20, 2, "Vay mua nhà")));
+        referenceData.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM LOAN_INTEREST_RATE_PARAM");
+        jdbcTemplate.update("DELETE FROM LOAN_INTEREST_RATE");
+        paramRepo.deleteAll();
+        typeRepo.deleteAll();
+    }
+
+    @Test
+    void templateIsCachedUntilParameterDataChanges() throws Exception {
+        TemplateRequest request = new TemplateRequest();
+        request.setParamTypeIds(List.of(2, 1, 99));   // 99 không tồn tại -> bỏ qua
+        CacheStats before = interestService.getTemplateCacheStats();
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(template(request)))) {
+            assertEquals("Sản phẩm", workbook.getSheet("Import Template").getRow(0).getCell(0).getStringCellValue());
+            assertEquals("12 tháng", workbook.getSheet("HiddenData").getRow(1).getCell(1).getStringCellValue());
+        }
+        template(request);
+
+        // Snapshot chưa làm mới -> vẫn dùng template cũ
+        paramRepo.save(param(12, 1, "24 tháng"));
+        template(request);
+        referenceData.refresh();
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(template(request)))) {
+            assertEquals("24 tháng", workbook.getSheet("HiddenData").getRow(2).getCell(1).getStringCellValue());
+        }
+
+        CacheStats after = interestService.getTemplateCacheStats();
+        assertEquals(2, after.getMisses() - before.getMisses());
+        assertEquals(2, after.getHits() - before.getHits());
+    }
+
+    @Test
+    void importsFilledTemplate() throws Exception {
+        TemplateRequest request = new TemplateRequest();
+        request.setParamTypeIds(List.of(2, 1));
+
+        ByteArrayOutputStream filled = new ByteArrayOutputStream();
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(template(request)))) {
+            Sheet sheet = workbook.getSheet("Import Template");
+            assertEquals("Lãi suất (%)", sheet.getRow(0).getCell(2).getStringCellValue());
+            fill(sheet, 1, "Vay mua nhà", "6 tháng", "7,5");
+            fill(sheet, 2, "Vay mua nhà", "12 tháng", "8.25%");
+            fill(sheet, 3, "Vay mua nhà", "6 tháng", "9");      // trùng dòng 2
+            fill(sheet, 4, "Vay tiêu dùng", "6 tháng", "9");    // giá trị không có
+            fill(sheet, 5, "Vay mua nhà", "12 tháng", "abc");   // lãi suất sai
+            workbook.write(filled);
+        }
+
+        ImportResult result = interestService.importInterestRates(new MockMultipartFile("file", "rates.xlsx",
+                "application/octet-stream", filled.toByteArray()));
+
+        assertEquals(5, result.getTotalRows());
+        assertEquals(2, result.getSuccessCount());
+        assertEquals(3, result.getErrorCount());
+        assertTrue(result.getErrorDetails().get(0).contains("Dòng 4"));
+        assertEquals(List.of("10,20", "11,20"), jdbcTemplate.queryForList(
+                "SELECT PARAM_KEY FROM LOAN_INTEREST_RATE ORDER BY ROW_NUM", String.class));
+        assertEquals(0, new BigDecimal("8.25").compareTo(jdbcTemplate.queryForObject(
+                "SELECT RATE FROM LOAN_INTEREST_RATE WHERE ROW_NUM = 2", BigDecimal.class)));
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM LOAN_INTEREST_RATE_PARAM", Integer.class));
+
+        // Báo cáo được lưu theo importId: xem lỗi theo trang và tải file có cột lỗi như import user
+        ImportReport report = importReportService.findReport(result.getImportId()).orElseThrow();
+        assertEquals(3, importReportService.getIssues(report, null, PageRequest.of(0, 10)).getTotalElements());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importReportService.writeAnnotatedWorkbook(report, out);
+        try (XSSFWorkbook annotated = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = annotated.getSheet("Import Template");
+            assertEquals("Lỗi", sheet.getRow(0).getCell(3).getStringCellValue());
+            assertNull(sheet.getRow(1).getCell(3));
+            assertTrue(sheet.getRow(3).getCell(3).getStringCellValue().contains("Trùng tổ hợp"));
+            assertEquals("abc", sheet.getRow(5).getCell(2).getStringCellValue());
+        }
+    }
+
+    private static void fill(Sheet sheet, int rowNum, String... values) {
+        Row row = sheet.createRow(rowNum);
+        for (int i = 0; i < values.length; i++) {
+            row.createCell(i).setCellValue(values[i]);
+        }
+    }
+
+    private static LoanInterestParamType type(int id, String name) {
+        LoanInterestParamType type = new LoanInterestParamType();
+        type.setId(id);
+        type.setName(name);
+        type.setCode("T" + id);
+        return type;
+    }
+
+    private static LoanInterestParam param(int id, int typeId, String value) {
+        LoanInterestParam param = new LoanInterestParam();
+        param.setId(id);
+        param.setTypeId(typeId);
+        param.setValue(value);
+        param.setStatus("ACTIVE");
+        return param;
+    }
+
+    private byte[] template(TemplateRequest request) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        interestService.writeInterestTemplate(request, out);
+        return out.toByteArray();
+    }
+}
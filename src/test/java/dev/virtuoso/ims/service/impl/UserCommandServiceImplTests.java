@@ -0,0 +1,202 @@
+package dev.virtuoso.ims.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.virtuoso.ims.dto.request.BulkRoleRequest;
+import dev.virtuoso.ims.dto.request.UserRoleRequest;
+import dev.virtuoso.ims.dto.request.UserSelection;
+import dev.virtuoso.ims.dto.request.UserUpdateRequest;
+import dev.virtuoso.ims.dto.response.BulkResult;
+import dev.virtuoso.ims.entity.RoleOffer;
+import dev.virtuoso.ims.entity.UserOffer;
+import dev.virtuoso.ims.entity.UserRoleOffer;
+import dev.virtuoso.ims.repository.RoleOfferRepository;
+import dev.virtuoso.ims.repository.UserOfferRepository;
+import dev.virtuoso.ims.repository.UserRoleOfferRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserCommandServiceImplTests {
+
+    @Autowired
+    private UserCommandServiceImpl userCommandService;
+
+    @Autowired
+    private UserOfferRepository userRepository;
+
+    @Autowired
+    private UserRoleOfferRepository userRoleRepository;
+
+    @Autowired
+    private RoleOfferRepository roleRepository;
+
+    @Autowired
+    private UserQueryServiceImpl userQueryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void updateKeepsUnchangedRolesAndReusesRemovedRows() throws Exception {
+        RoleOffer rm = roleRepository.save(RoleOffer.builder().roleName("RM").status("ACTIVE").build());
+        UserOffer user = UserOffer.builder().userName("user1").fullName("User 1")
+                .email("user1@msb.com.vn").status("ACTIVE").build();
+        user.addUserRole(permission(rm, "KHCN"));
+        user.addUserRole(permission(rm, "KHDN"));
+        user.addUserRole(permission(rm, "DCTC"));
+        user = userRepository.save(user);
+        Map<String, Long> before = roleIdsByBank(user.getId());
+
+        // Role gửi lên theo roleId hoặc roleName (JSON như client gửi, UserRoleOffer.role không nhận từ JSON)
+        UserUpdateRequest data = objectMapper.readValue("""
+                {"fullName": "User 1 (sửa)", "email": "user1@msb.com.vn", "status": "ACTIVE", "userRoles": [
+                  {"roleId": %d, "bank": "KHCN", "branch": "HN"},
+                  {"roleName": "rm", "bank": "KHDN", "branch": "HN"},
+                  {"roleId": %d, "bank": "TCDN", "branch": "HN"},
+                  {"roleName": "RM", "bank": "HO", "branch": "HN"}]}
+                """.formatted(rm.getId(), rm.getId()), UserUpdateRequest.class);
+        userCommandService.updateUser(user.getId(), data);
+
+        Map<String, Long> after = roleIdsByBank(user.getId());
+        assertEquals(Set.of("KHCN", "KHDN", "TCDN", "HO"), after.keySet());
+        assertEquals(before.get("KHCN"), after.get("KHCN"));
+        assertEquals(before.get("KHDN"), after.get("KHDN"));
+        assertEquals(before.get("DCTC"), after.get("TCDN"));   // dòng bị bỏ được sửa tại chỗ
+        assertNotNull(after.get("HO"));
+        assertEquals("User 1 (sửa)", userRepository.findById(user.getId()).orElseThrow().getFullName());
+    }
+
+    @Test
+    void updateRemovesDroppedRolesAndKeepsTheRest() throws Exception {
+        RoleOffer rm = roleRepository.save(RoleOffer.builder().roleName("RM").status("ACTIVE").build());
+        UserOffer user = UserOffer.builder().userName("user1").fullName("User 1")
+                .email("user1@msb.com.vn").status("ACTIVE").build();
+        user.addUserRole(permission(rm, "KHCN"));
+        user.addUserRole(permission(rm, "KHDN"));
+        user.addUserRole(permission(rm, "DCTC"));
+        user = userRepository.save(user);
+        Long kept = roleIdsByBank(user.getId()).get("KHDN");
+
+        // Dòng bị bỏ xóa bằng DELETE ... IN, không qua orphanRemoval của collection userRoles
+        userCommandService.updateUser(user.getId(), objectMapper.readValue("""
+                {"fullName": "User 1", "email": "user1@msb.com.vn", "status": "ACTIVE",
+                 "userRoles": [{"roleId": %d, "bank": "KHDN", "branch": "HN", "type": "CHINH", "fromDate": "2024-01-01"}]}
+                """.formatted(rm.getId()), UserUpdateRequest.class));
+
+        assertEquals(Map.of("KHDN", kept), roleIdsByBank(user.getId()));
+        assertEquals(1, userQueryService.getUser(user.getId()).orElseThrow().getUserRoles().size());
+    }
+
+    @Test
+    void updateRejectsUnknownRoleWithoutChangingUser() {
+        RoleOffer rm = roleRepository.save(RoleOffer.builder().roleName("RM").status("ACTIVE").build());
+        UserOffer user = UserOffer.builder().userName("user1").fullName("User 1")
+                .email("user1@msb.com.vn").status("ACTIVE").build();
+        user.addUserRole(permission(rm, "KHCN"));
+        Long userId = userRepository.save(user).getId();
+
+        UserRoleRequest unknown = new UserRoleRequest();
+        unknown.setRoleName("KHONG_CO");
+        unknown.setBank("KHDN");
+        UserUpdateRequest data = new UserUpdateRequest();
+        data.setFullName("User 1 (sửa)");
+        data.setEmail("user1@msb.com.vn");
+        data.setStatus("ACTIVE");
+        data.setUserRoles(List.of(unknown));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> userCommandService.updateUser(userId, data));
+        assertTrue(e.getMessage().contains("KHONG_CO"));
+        assertEquals(Set.of("KHCN"), roleIdsByBank(userId).keySet());
+        assertEquals("User 1", userRepository.findById(userId).orElseThrow().getFullName());
+    }
+
+    @Test
+    void updateWithoutSubSystemKeepsImportedValue() throws Exception {
+        UserOffer user = userRepository.save(UserOffer.builder().userName("user1").fullName("User 1")
+                .email("user1@msb.com.vn").subSystem("LOS").status("ACTIVE").build());
+        assertEquals("LOS", userQueryService.getUser(user.getId()).orElseThrow().getSubSystem());
+
+        // Form sửa cũ không có trường subSystem
+        userCommandService.updateUser(user.getId(), objectMapper.readValue("""
+                {"fullName": "User 1 (sửa)", "email": "user1@msb.com.vn", "status": "ACTIVE"}
+                """, UserUpdateRequest.class));
+        assertEquals("LOS", userRepository.findById(user.getId()).orElseThrow().getSubSystem());
+
+        userCommandService.updateUser(user.getId(), objectMapper.readValue("""
+                {"fullName": "User 1", "email": "user1@msb.com.vn", "subSystem": "CRM", "status": "ACTIVE"}
+                """, UserUpdateRequest.class));
+        assertEquals("CRM", userRepository.findById(user.getId()).orElseThrow().getSubSystem());
+    }
+
+    @Test
+    void bulkOperationsRunSetBasedAndReturnCounts() {
+        RoleOffer rm = roleRepository.save(RoleOffer.builder().roleName("RM").status("ACTIVE").build());
+        roleRepository.save(RoleOffer.builder().roleName("CSO").status("ACTIVE").build());
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            UserOffer user = UserOffer.builder().userName("user" + i).fullName("User " + i)
+                    .email("user" + i + "@msb.com.vn").status("ACTIVE").build();
+            user.addUserRole(permission(rm, i < 3 ? "KHCN" : "KHDN"));
+            ids.add(userRepository.save(user).getId());
+        }
+        UserSelection khcn = new UserSelection();
+        khcn.setBank("KHCN");
+
+        BulkRoleRequest grant = new BulkRoleRequest();
+        grant.setUsers(khcn);
+        grant.setRoleName("cso");
+        grant.setBank("KHCN");
+        grant.setBranch("HN");
+        assertEquals(2, userCommandService.grantRole(grant).getAffectedRoles());
+        assertEquals(0, userCommandService.grantRole(grant).getAffectedRoles());   // đã có, không cấp trùng
+
+        BulkRoleRequest revoke = new BulkRoleRequest();
+        revoke.setUsers(khcn);
+        revoke.setRoleId(rm.getId());
+        assertEquals(2, userCommandService.revokeRole(revoke).getAffectedRoles());
+
+        UserSelection byIds = new UserSelection();
+        byIds.setUserIds(List.of(ids.get(0), ids.get(0), ids.get(2)));
+        BulkResult deactivated = userCommandService.deactivateUsers(byIds);
+        assertEquals(2, deactivated.getSelectedUsers());
+        assertEquals(2, deactivated.getAffectedUsers());
+
+        UserSelection inactive = new UserSelection();
+        inactive.setStatus("INACTIVE");
+        BulkResult deleted = userCommandService.deleteUsers(inactive);
+        assertEquals(2, deleted.getAffectedUsers());
+        assertEquals(2, deleted.getAffectedRoles());   // user1: CSO, user3: RM
+        assertEquals(List.of(ids.get(1)), userRepository.findAll().stream().map(UserOffer::getId).toList());
+
+        assertThrows(IllegalArgumentException.class, () -> userCommandService.deleteUsers(new UserSelection()));
+    }
+
+    private static UserRoleOffer permission(RoleOffer role, String bank) {
+        return UserRoleOffer.builder().role(role).bank(bank).branch("HN").type("CHINH")
+                .fromDate(LocalDate.of(2024, 1, 1)).build();
+    }
+
+    private Map<String, Long> roleIdsByBank(Long userId) {
+        return userRoleRepository.findAll().stream()
+                .filter(r -> r.getUserOffer().getId().equals(userId))
+                .collect(Collectors.toMap(UserRoleOffer::getBank, UserRoleOffer::getId));
+    }
+}
@@ -0,0 +1,115 @@
+package dev.virtuoso.ims.service.impl;
+
+import dev.virtuoso.ims.dto.response.ImportResult;
+import dev.virtuoso.ims.entity.RoleOffer;
+import dev.virtuoso.ims.entity.UserOffer;
+import dev.virtuoso.ims.entity.UserRoleOffer;
+import dev.virtuoso.ims.importer.ImportEngine;
+import dev.virtuoso.ims.repository.RoleOfferRepository;
+import dev.virtuoso.ims.repository.UserOfferRepository;
+import dev.virtuoso.ims.repository.UserRoleOfferRepository;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserExportServiceImplTests {
+
+    @Autowired
+    private UserExportServiceImpl userExportService;
+
+    @Autowired
+    private UserOfferRepository userRepository;
+
+    @Autowired
+    private RoleOfferRepository roleRepository;
+
+    @Autowired
+    private UserRoleOfferRepository userRoleRepository;
+
+    @Autowired
+    private UserImportServiceImpl userImportService;
+
+    @BeforeEach
+    void setUp() {
+        RoleOffer role = roleRepository.save(RoleOffer.builder().roleName("RM").status("ACTIVE").build());
+        UserOffer user = UserOffer.builder().userName("nguyenvana").fullName("Nguyễn Văn A, CN \"HN\"")
+                .email("nguyenvana@msb.com.vn").birthDay(LocalDate.of(1990, 1, 1)).gender("MALE")
+                .subSystem("LOS").status("ACTIVE").build();
+        user.addUserRole(UserRoleOffer.builder().bank("KHCN").branch("HN").type("CHINH").role(role)
+                .fromDate(LocalDate.of(2024, 1, 1)).build());
+        userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void csvUsesImportSections() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userExportService.exportUsers(userExportService.resolveFormat("csv"), out);
+
+        assertEquals("\uFEFF[User]\n"
+                + "Username,Email,Họ tên,Ngày sinh,Giới tính,SĐT,Phân hệ\n"
+                + "nguyenvana,nguyenvana@msb.com.vn,\"Nguyễn Văn A, CN \"\"HN\"\"\",01/01/1990,MALE,,LOS\n"
+                + "[Thong_tin_phan_quyen]\n"
+                + "Username,Khối,Đơn vị,Role,Loại,Từ ngày,Đến ngày\n"
+                + "nguyenvana,KHCN,HN,RM,CHINH,01/01/2024,\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void xlsxWritesDataFromFourthRow() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userExportService.exportUsers(userExportService.resolveFormat("XLSX"), out);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet users = workbook.getSheet("User");
+            assertEquals("Username", users.getRow(2).getCell(0).getStringCellValue());
+            assertEquals("nguyenvana", users.getRow(3).getCell(0).getStringCellValue());
+            assertEquals("01/01/1990", users.getRow(3).getCell(3).getStringCellValue());
+
+            Sheet permissions = workbook.getSheet("Thong_tin_phan_quyen");
+            assertEquals("RM", permissions.getRow(3).getCell(3).getStringCellValue());
+            assertNull(permissions.getRow(4));
+        }
+        assertThrows(IllegalArgumentException.class, () -> userExportService.resolveFormat("pdf"));
+    }
+
+    // File xuất ra import lại được (vd. sang môi trường khác): user và phân quyền được tạo lại y như cũ
+    @Test
+    void exportedFileImportsAgain() throws Exception {
+        for (ImportEngine engine : ImportEngine.values()) {
+            for (String format : new String[]{"xlsx", "csv"}) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                userExportService.exportUsers(userExportService.resolveFormat(format), out);
+                userRepository.deleteAll();
+
+                ImportResult result = userImportService.uploadUserFile(new MockMultipartFile("file",
+                        "users." + format, "application/octet-stream", out.toByteArray()), engine);
+                assertEquals(0, result.getErrorCount(), engine + " " + format + ": " + result.getErrorDetails());
+                assertEquals(1, result.getSuccessCount());
+
+                UserOffer user = userRepository.findByUserNameIn(List.of("nguyenvana")).get(0);
+                assertEquals("LOS", user.getSubSystem());
+                assertEquals("Nguyễn Văn A, CN \"HN\"", user.getFullName());
+                assertEquals(1, userRoleRepository.count());
+            }
+        }
+    }
+}
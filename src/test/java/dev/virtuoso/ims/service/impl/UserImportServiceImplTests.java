@@ -0,0 +1,285 @@
+package dev.virtuoso.ims.service.impl;
+
+import dev.virtuoso.ims.dto.response.ImportIssue;
+import dev.virtuoso.ims.dto.response.ImportResult;
+import dev.virtuoso.ims.entity.RoleOffer;
+import dev.virtuoso.ims.entity.UserOffer;
+import dev.virtuoso.ims.entity.UserRoleOffer;
+import dev.virtuoso.ims.importer.ImportEngine;
+import dev.virtuoso.ims.importer.ImportProgress;
+import dev.virtuoso.ims.importer.ImportReport;
+import dev.virtuoso.ims.repository.RoleOfferRepository;
+import dev.virtuoso.ims.repository.UserOfferRepository;
+import dev.virtuoso.ims.repository.UserRoleOfferRepository;
+import dev.virtuoso.ims.validation.ImportErrorCode;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"ims.import.chunk-size=2", "ims.import.validation.batch-size=2"})
+class UserImportServiceImplTests {
+
+    @Autowired
+    private UserImportServiceImpl userImportService;
+
+    @Autowired
+    private UserOfferRepository userRepository;
+
+    @Autowired
+    private UserRoleOfferRepository userRoleRepository;
+
+    @Autowired
+    private RoleOfferRepository roleRepository;
+
+    @Autowired
+    private ImportReportServiceImpl importReportService;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        roleRepository.save(RoleOffer.builder().roleName("RM").status("ACTIVE").build());
+        file = Files.createTempFile("user-import-test-", ".xlsx");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        userRoleRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void failedChunkDoesNotRollBackOtherChunks() throws Exception {
+        // Username dài hơn cột USER_NAME (50) -> lô thứ 2 lỗi khi insert
+        String tooLong = "a".repeat(60);
+        List<String> usernames = List.of("u1", "u2", tooLong, "u4", "u5");
+        writeWorkbook(usernames, usernames.stream().map(u -> permission(u, null, null)).toList());
+
+        ImportResult result = userImportService.importFile(file, ImportProgress.NONE);
+
+        assertEquals(1, result.getFailedChunks());
+        assertEquals(3, result.getSuccessCount());
+        assertEquals(1, result.getErrorCount());
+        assertTrue(userRepository.existsByUserName("u1"));
+        assertTrue(userRepository.existsByUserName("u5"));
+        assertFalse(userRepository.existsByUserName("u4"));
+        assertEquals(3, userRoleRepository.count());
+    }
+
+    @Test
+    void overlappingPermissionOfExistingUserIsRejected() throws Exception {
+        writeWorkbook(List.of("u1"), List.<String[]>of(permission("u1", "01/01/2024", "31/12/2024")));
+        userImportService.importFile(file, ImportProgress.NONE);
+
+        writeWorkbook(List.of("u1"), List.of(
+                permission("u1", "01/06/2024", "31/12/2025"),  // giao với khoảng đã có
+                permission("u1", "01/01/2025", null)));         // không giao
+        ImportResult result = userImportService.importFile(file, ImportProgress.NONE);
+
+        assertEquals(1, result.getErrorCount());
+        assertTrue(result.getErrorDetails().stream().anyMatch(m -> m.contains("đã tồn tại cho user 'u1'")));
+        assertEquals(2, userRoleRepository.count());
+    }
+
+    @Test
+    void inFileDuplicatesAreReportedInRowOrder() throws Exception {
+        writeWorkbook(List.of("u1", "u2", "u1", "u3", "u2"), List.of(
+                permission("u1", null, null),
+                permission("u3", null, null),
+                permission("u1", "01/01/2030", null)));   // trùng khóa trong file (không xét ngày)
+
+        ImportResult result = userImportService.importFile(file, ImportProgress.NONE);
+
+        assertEquals(List.of(
+                "Sheet User - Dòng 6: Username 'u1' bị trùng lặp trong file",
+                "Sheet User - Dòng 8: Username 'u2' bị trùng lặp trong file",
+                "Sheet Phân quyền - Dòng 6: Phân quyền [RM - MSB - HN - FULL] bị trùng lặp trong file cho user 'u1'"
+        ), result.getErrorDetails());
+        assertEquals(3, result.getSuccessCount());
+    }
+
+    @Test
+    void sqlEngineReportsSameErrorsAsJpaEngine() throws Exception {
+        writeWorkbook(List.of("u1"), List.<String[]>of(permission("u1", "01/01/2024", "31/12/2024")));
+        userImportService.importFile(file, ImportEngine.SQL, ImportProgress.NONE);
+        assertTrue(userRepository.existsByUserName("u1"));
+
+        writeWorkbook(List.of("u1", "u2", "u2", "u3"), List.of(
+                permission("u1", "01/06/2024", "31/12/2025"),   // giao với khoảng đã có
+                permission("u2", null, null),
+                permission("u2", "01/01/2030", null),           // trùng khóa trong file
+                permission("u9", null, null)));
+        ImportResult result = userImportService.importFile(file, ImportEngine.SQL, ImportProgress.NONE);
+
+        assertEquals(List.of(
+                "Sheet User - Dòng 4: Username 'u1' đã tồn tại trên hệ thống (sẽ thêm phân quyền nếu có)",
+                "Sheet User - Dòng 6: Username 'u2' bị trùng lặp trong file",
+                "Sheet Phân quyền - Dòng 4: Phân quyền [RM - MSB - HN - FULL] đã tồn tại cho user 'u1' trong hệ thống",
+                "Sheet Phân quyền - Dòng 6: Phân quyền [RM - MSB - HN - FULL] bị trùng lặp trong file cho user 'u2'",
+                "Sheet Phân quyền - Dòng 7: Username 'u9' không có trong Sheet User hoặc bị lỗi"
+        ), result.getErrorDetails());
+        assertEquals(3, result.getSuccessCount());
+        assertTrue(userRepository.existsByUserName("u3"));
+        assertEquals(2, userRoleRepository.count());
+    }
+
+    @Test
+    void dryRunIsCommittedFromCacheUntilSnapshotChanges() throws Exception {
+        writeWorkbook(List.of("u1", "u2"), List.of(permission("u1", null, null), permission("u2", null, null)));
+        MockMultipartFile upload = new MockMultipartFile("file", "users.xlsx", null, Files.readAllBytes(file));
+
+        ImportResult dryRun = userImportService.dryRun(upload);
+        assertNotNull(dryRun.getDryRunToken());
+        assertEquals(2, dryRun.getSuccessCount());
+        assertEquals(0, userRepository.count());
+
+        ImportResult committed = userImportService.commitDryRun(dryRun.getDryRunToken());
+        assertEquals(2, committed.getSuccessCount());
+        assertEquals(2, userRoleRepository.count());
+        assertThrows(java.util.NoSuchElementException.class, () -> userImportService.commitDryRun(dryRun.getDryRunToken()));
+
+        // User trong file được tạo sau khi chạy thử -> kết quả cache không còn dùng được
+        writeWorkbook(List.of("u3"), List.<String[]>of(permission("u3", null, null)));
+        String token = userImportService.dryRun(
+                new MockMultipartFile("file", "users.xlsx", null, Files.readAllBytes(file))).getDryRunToken();
+        userRepository.save(UserOffer.builder().userName("u3").fullName("u3").email("u3@msb.com.vn").status("ACTIVE").build());
+        assertThrows(IllegalStateException.class, () -> userImportService.commitDryRun(token));
+    }
+
+    @Test
+    void dryRunIsRejectedWhenOverlappingPermissionWasAddedMeanwhile() throws Exception {
+        writeWorkbook(List.of("u1"), List.of());
+        userImportService.importFile(file, ImportProgress.NONE);
+
+        writeWorkbook(List.of("u1"), List.<String[]>of(permission("u1", "01/01/2024", "31/12/2024")));
+        String token = userImportService.dryRun(
+                new MockMultipartFile("file", "users.xlsx", null, Files.readAllBytes(file))).getDryRunToken();
+
+        // Phân quyền giao khoảng ngày được cấp từ nơi khác trước khi xác nhận
+        UserOffer u1 = userRepository.findByUserNameIn(List.of("u1")).get(0);
+        userRoleRepository.save(UserRoleOffer.builder().userOffer(u1).role(roleRepository.findAll().get(0))
+                .bank("MSB").branch("HN").type("FULL").fromDate(LocalDate.of(2024, 6, 1)).build());
+
+        assertThrows(IllegalStateException.class, () -> userImportService.commitDryRun(token));
+        assertEquals(1, userRoleRepository.count());
+    }
+
+    @Test
+    void errorsArePagedAndWrittenBackToAnnotatedWorkbook() throws Exception {
+        writeWorkbook(List.of("u1", "u1", "u3"), List.<String[]>of(
+                new String[]{"u3", "", "HN", "khong_co", "FULL", null, null}));   // thiếu khối + role không tồn tại
+        ImportResult result = userImportService.importFile(file, ImportProgress.NONE);
+        assertEquals(2, result.getErrorCount());
+
+        ImportReport report = importReportService.findReport(result.getImportId()).orElseThrow();
+        Page<ImportIssue> page = importReportService.getIssues(report, "ERROR", PageRequest.of(0, 2));
+        assertEquals(3, page.getTotalElements());
+        ImportIssue duplicate = page.getContent().get(0);
+        assertEquals("User", duplicate.getSheet());
+        assertEquals(5, duplicate.getRow());
+        assertEquals("A", duplicate.getColumn());
+        assertEquals(ImportErrorCode.DUPLICATE_IN_FILE, duplicate.getCode());
+        assertEquals(ImportErrorCode.REQUIRED, page.getContent().get(1).getCode());
+        assertEquals("B", page.getContent().get(1).getColumn());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importReportService.writeAnnotatedWorkbook(report, out);
+        try (XSSFWorkbook annotated = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet users = annotated.getSheet("User");
+            assertEquals("u1", users.getRow(4).getCell(0).getStringCellValue());
+            assertEquals("Username 'u1' bị trùng lặp trong file", users.getRow(4).getCell(7).getStringCellValue());
+            assertNull(users.getRow(5).getCell(7));
+            assertEquals("Khối trống; Role 'khong_co' không tồn tại trong hệ thống",
+                    annotated.getSheet("Thong_tin_phan_quyen").getRow(3).getCell(7).getStringCellValue());
+        }
+    }
+
+    @Test
+    void csvFileUsesSameValidationAsXlsx() throws Exception {
+        Path csv = Files.createTempFile("user-import-test-", ".csv");
+        try {
+            Files.writeString(csv, "\uFEFF[User]\r\n" +
+                    "Username,Email,Ho ten,Ngay sinh,Gioi tinh,SDT,Phan he,Ghi chu\r\n" +
+                    "u1,u1@msb.com.vn,\"Nguyen, Van \"\"A\"\"\",01/02/1990,male,912345678,KHCN,cot thua\r\n" +
+                    "u2,u2@gmail.com,Nguyen Van B,,,,KHCN\r\n" +
+                    "\r\n" +
+                    "[Thong_tin_phan_quyen]\n" +
+                    "Username,Khoi,Don vi,Role,Loai,Tu ngay,Den ngay\n" +
+                    "u1,MSB,HN,rm,FULL,01/01/2024,\n" +
+                    "u2,MSB,HN,rm,FULL,,\n");
+
+            ImportResult result = userImportService.importFile(csv, ImportProgress.NONE);
+
+            assertEquals(List.of(
+                    "Sheet User - Dòng 4: Email sai định dạng (@msb.com.vn)",
+                    "Sheet Phân quyền - Dòng 9: Username 'u2' không có trong Sheet User hoặc bị lỗi"
+            ), result.getErrorDetails());
+            assertEquals(4, result.getTotalRows());
+            UserOffer u1 = userRepository.findByUserNameIn(List.of("u1")).get(0);
+            assertEquals("Nguyen, Van \"A\"", u1.getFullName());
+            assertEquals("0912345678", u1.getPhone());
+            assertEquals("MALE", u1.getGender());
+            assertEquals(1, userRoleRepository.count());
+
+            // Dòng tiêu đề của section [User] là dòng 2 của file (0-based: 1), không phải dòng 3 như template xlsx
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            importReportService.writeAnnotatedWorkbook(importReportService.findReport(result.getImportId()).orElseThrow(), out);
+            try (XSSFWorkbook annotated = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+                Sheet users = annotated.getSheet("User");
+                assertEquals("Lỗi", users.getRow(1).getCell(7).getStringCellValue());
+                assertNull(users.getRow(2).getCell(7));
+                assertEquals("Email sai định dạng (@msb.com.vn)", users.getRow(3).getCell(7).getStringCellValue());
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    private static String[] permission(String username, String fromDate, String toDate) {
+        return new String[]{username, "MSB", "HN", "rm", "FULL", fromDate, toDate};
+    }
+
+    private void writeWorkbook(List<String> usernames, List<String[]> permissions) throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet userSheet = workbook.createSheet("User");
+            Sheet permSheet = workbook.createSheet("Thong_tin_phan_quyen");
+            int rowNum = 3;
+            for (String username : usernames) {
+                Row row = userSheet.createRow(rowNum);
+                row.createCell(0).setCellValue(username);
+                row.createCell(1).setCellValue(username + "@msb.com.vn");
+                row.createCell(2).setCellValue("Nguyen Van " + username);
+                row.createCell(6).setCellValue("KHCN");
+                rowNum++;
+            }
+            rowNum = 3;
+            for (String[] values : permissions) {
+                Row perm = permSheet.createRow(rowNum++);
+                for (int c = 0; c < values.length; c++) {
+                    if (values[c] != null) perm.createCell(c).setCellValue(values[c]);
+                }
+            }
+            workbook.write(out);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package dev.virtuoso.ims.service.impl;
+
+import dev.virtuoso.ims.dto.response.CursorPage;
+import dev.virtuoso.ims.dto.response.UserView;
+import dev.virtuoso.ims.entity.RoleOffer;
+import dev.virtuoso.ims.entity.UserOffer;
+import dev.virtuoso.ims.entity.UserRoleOffer;
+import dev.virtuoso.ims.repository.RoleOfferRepository;
+import dev.virtuoso.ims.repository.UserOfferRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserQueryServiceImplTests {
+
+    @Autowired
+    private UserQueryServiceImpl userQueryService;
+
+    @Autowired
+    private UserOfferRepository userRepository;
+
+    @Autowired
+    private RoleOfferRepository roleRepository;
+
+    @BeforeEach
+    void setUp() {
+        RoleOffer role = roleRepository.save(RoleOffer.builder().roleName("RM").status("ACTIVE").build());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 1; i <= 3; i++) {
+            UserOffer user = UserOffer.builder().userName("user" + i).fullName("User " + i)
+                    .email("user" + i + "@msb.com.vn").status("ACTIVE").createdTime(now.plusMinutes(i)).build();
+            user.addUserRole(UserRoleOffer.builder().bank("KHCN").role(role).build());
+            user.addUserRole(UserRoleOffer.builder().bank("KHDN").build());
+            userRepository.save(user);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void pageIsFetchedByIdsWithRoleNames() {
+        PageRequest pageable = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "createdTime", "id"));
+
+        Page<UserView> page = userQueryService.getUsers(null, pageable);
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of("user3", "user2"), page.getContent().stream().map(UserView::getUserName).toList());
+        assertEquals(2, page.getContent().get(0).getUserRoles().size());
+        assertEquals("RM", page.getContent().get(0).getUserRoles().get(0).getRoleName());
+        assertNull(page.getContent().get(0).getUserRoles().get(1).getRoleName());
+
+        Page<UserView> last = userQueryService.getUsers(null, pageable.next());
+        assertEquals(List.of("user1"), last.getContent().stream().map(UserView::getUserName).toList());
+    }
+
+    @Test
+    void scrollFollowsCursorAndPutsUsersWithoutCreatedTimeLast() {
+        userRepository.save(UserOffer.builder().userName("legacy").fullName("Legacy")
+                .email("legacy@msb.com.vn").status("ACTIVE").build());
+
+        CursorPage<UserView> first = userQueryService.scrollUsers(null, 2);
+        assertEquals(List.of("user3", "user2"), first.getContent().stream().map(UserView::getUserName).toList());
+        assertTrue(first.isHasNext());
+
+        CursorPage<UserView> second = userQueryService.scrollUsers(first.getNextCursor(), 2);
+        assertEquals(List.of("user1", "legacy"), second.getContent().stream().map(UserView::getUserName).toList());
+        assertFalse(second.isHasNext());
+
+        assertThrows(IllegalArgumentException.class, () -> userQueryService.scrollUsers("not-a-cursor", 2));
+    }
+
+    @Test
+    void pagedListingOrdersUsersWithoutCreatedTimeLikeScroll() {
+        userRepository.save(UserOffer.builder().userName("legacy").fullName("Legacy")
+                .email("legacy@msb.com.vn").status("ACTIVE").build());
+
+        List<String> paged = userQueryService.getUsers(null, PageRequest.of(0, 10, UserQueryServiceImpl.LIST_ORDER))
+                .getContent().stream().map(UserView::getUserName).toList();
+        List<String> scrolled = userQueryService.scrollUsers(null, 10)
+                .getContent().stream().map(UserView::getUserName).toList();
+        assertEquals(List.of("user3", "user2", "user1", "legacy"), paged);
+        assertEquals(scrolled, paged);
+    }
+}
@@ -0,0 +1,54 @@
+package dev.virtuoso.ims.validation;
+
+import dev.virtuoso.ims.importer.StreamingImportRow;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportRulesTests {
+
+    @Test
+    void validUserRowIsNormalized() {
+        ValidatedRow row = ImportRules.USER.validate(userRow("nva", "nva@msb.com.vn", "Nguyễn Văn A",
+                "01/02/1990", "male", "912 345 678", "KHCN"), null);
+
+        assertFalse(row.hasErrors());
+        assertEquals("MALE", row.get(4));
+        assertEquals("0912345678", row.get(5));
+        assertEquals(LocalDate.of(1990, 2, 1), row.getDate(3));
+    }
+
+    @Test
+    void userErrorsFollowDeclarationOrder() {
+        ValidatedRow row = ImportRules.USER.validate(userRow("abc", "xyz@msb.com.vn", "", "", "other", "12345", ""), null);
+
+        assertEquals(List.of(
+                "Username (abc) không khớp prefix email (xyz)",
+                "Tên đầy đủ trống",
+                "Số điện thoại không hợp lệ",
+                "Phân hệ trống"
+        ), row.getErrors());
+        assertNull(row.get(4));
+    }
+
+    @Test
+    void invalidEmailSkipsPrefixCheck() {
+        ValidatedRow row = ImportRules.USER.validate(userRow("abc", "abc@gmail.com", "A", "", "", "", "KHCN"), null);
+
+        assertEquals(List.of("Email sai định dạng (@msb.com.vn)"), row.getErrors());
+    }
+
+    @Test
+    void columnOutOfRangeIsRejectedWhenDeclared() {
+        assertThrows(IllegalArgumentException.class, () -> SheetRules.builder().text(64));
+        assertThrows(IllegalArgumentException.class, () -> SheetRules.builder().date(64));
+        assertThrows(IllegalArgumentException.class, () -> SheetRules.builder().date(-1));
+    }
+
+    private static StreamingImportRow userRow(String... values) {
+        return new StreamingImportRow(3, values);
+    }
+}
@@ -0,0 +1,6 @@
+-- Sequence như trên DB chưa chạy db/sequence_increment_50.sql
+CREATE SEQUENCE user_offer_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE user_role_offer_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE role_offer_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE action_resource_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE ROLE_ACT_RES_SEQ START WITH 1 INCREMENT BY 1;